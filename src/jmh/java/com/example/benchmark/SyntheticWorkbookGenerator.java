@@ -0,0 +1,190 @@
+package com.example.benchmark;
+
+import com.example.service.excel.SheetCell;
+import com.example.service.excel.SheetRow;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Детерминированный генератор входных файлов для бенчмарков: при одинаковых
+ * {@code rows}, {@code dirtyRatio} и {@code seed} получается одно и то же содержимое.
+ * <p>
+ * Чистые строки содержат ФИО и дату рождения вперемешку: числовой ячейкой
+ * с форматом даты, текстом {@code yyyy-MM-dd} и текстом {@code dd.MM.yyyy}.
+ * Доля {@code dirtyRatio} строк испорчена по очереди одним из способов: дата не
+ * по формату, несуществующая дата, дата в будущем, пустое ФИО, пустая дата.
+ * <p>
+ * Запуск вручную: {@code SyntheticWorkbookGenerator <файл.xlsx> <строк> [доля ошибок] [seed]}.
+ */
+public final class SyntheticWorkbookGenerator {
+    public static final long DEFAULT_SEED = 20240501L;
+    public static final String NAME_HEADER = "ФИО";
+    public static final String BIRTH_DATE_HEADER = "Дата рождения";
+
+    private static final String[] LAST_NAMES = {
+            "Иванов", "Петров", "Сидоров", "Кузнецов", "Смирнов", "Попов", "Васильев", "Соколов",
+            "Михайлов", "Новиков", "Фёдоров", "Морозов", "Волков", "Алексеев", "Лебедев", "Семёнов"};
+    private static final String[] FIRST_NAMES = {
+            "Александр", "Дмитрий", "Максим", "Сергей", "Андрей", "Алексей", "Артём", "Илья",
+            "Кирилл", "Михаил", "Никита", "Матвей", "Роман", "Егор", "Арсений", "Иван"};
+    private static final String[] PATRONYMICS = {
+            "Александрович", "Дмитриевич", "Сергеевич", "Андреевич", "Алексеевич", "Михайлович",
+            "Иванович", "Николаевич", "Петрович", "Владимирович", "Юрьевич", "Олегович"};
+    private static final DateTimeFormatter ISO = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter DOTTED = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+    private static final LocalDate OLDEST = LocalDate.of(1940, 1, 1);
+    // заведомо позже любой даты запуска, чтобы содержимое не зависело от дня замера
+    private static final LocalDate FUTURE = LocalDate.of(2100, 1, 1);
+    private static final int BIRTH_DATE_RANGE_DAYS = 365 * 65;
+    private static final int DIRTY_KINDS = 5;
+
+    private final Random random;
+    private final double dirtyRatio;
+    private int dirtyRows;
+
+    private SyntheticWorkbookGenerator(double dirtyRatio, long seed) {
+        if (dirtyRatio < 0 || dirtyRatio > 1) {
+            throw new IllegalArgumentException("Доля ошибочных строк должна быть от 0 до 1: " + dirtyRatio);
+        }
+        this.random = new Random(seed);
+        this.dirtyRatio = dirtyRatio;
+    }
+
+    /**
+     * Пишет лист с заголовком и {@code rows} строками данных в {@code file}.
+     */
+    public static Path writeWorkbook(Path file, int rows, double dirtyRatio, long seed) throws IOException {
+        SyntheticWorkbookGenerator generator = new SyntheticWorkbookGenerator(dirtyRatio, seed);
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        SXSSFWorkbook workbook = new SXSSFWorkbook(100);
+        try (OutputStream out = Files.newOutputStream(file)) {
+            CellStyle dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.createDataFormat().getFormat("dd.mm.yyyy"));
+            Sheet sheet = workbook.createSheet("Данные");
+            Row header = sheet.createRow(0);
+            header.createCell(0).setCellValue(NAME_HEADER);
+            header.createCell(1).setCellValue(BIRTH_DATE_HEADER);
+
+            for (int i = 1; i <= rows; i++) {
+                Sample sample = generator.next();
+                Row row = sheet.createRow(i);
+                if (sample.fullName != null) {
+                    row.createCell(0).setCellValue(sample.fullName);
+                }
+                if (sample.birthDate != null) {
+                    Cell cell = row.createCell(1);
+                    cell.setCellValue(sample.birthDate);
+                    cell.setCellStyle(dateStyle);
+                } else if (sample.birthDateText != null) {
+                    row.createCell(1).setCellValue(sample.birthDateText);
+                }
+            }
+            workbook.write(out);
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+        return file;
+    }
+
+    /**
+     * Те же данные, что и в {@link #writeWorkbook}, сразу в виде строк листа:
+     * первая строка — заголовок. Нужны для замеров проверки без разбора файла.
+     */
+    public static List<SheetRow> sheetRows(int rows, double dirtyRatio, long seed) {
+        SyntheticWorkbookGenerator generator = new SyntheticWorkbookGenerator(dirtyRatio, seed);
+        List<SheetRow> result = new ArrayList<>(rows + 1);
+        SheetRow header = new SheetRow(0, 2);
+        header.setCell(0, SheetCell.ofString(NAME_HEADER));
+        header.setCell(1, SheetCell.ofString(BIRTH_DATE_HEADER));
+        result.add(header);
+
+        for (int i = 1; i <= rows; i++) {
+            Sample sample = generator.next();
+            SheetRow row = new SheetRow(i, 2);
+            if (sample.fullName != null) {
+                row.setCell(0, SheetCell.ofString(sample.fullName));
+            }
+            if (sample.birthDate != null) {
+                row.setCell(1, SheetCell.ofNumber(DateUtil.getExcelDate(sample.birthDate), true, false));
+            } else if (sample.birthDateText != null) {
+                row.setCell(1, SheetCell.ofString(sample.birthDateText));
+            }
+            result.add(row);
+        }
+        return result;
+    }
+
+    private Sample next() {
+        String fullName = LAST_NAMES[random.nextInt(LAST_NAMES.length)] + " "
+                + FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                + PATRONYMICS[random.nextInt(PATRONYMICS.length)];
+        LocalDate birthDate = OLDEST.plusDays(random.nextInt(BIRTH_DATE_RANGE_DAYS));
+
+        if (random.nextDouble() < dirtyRatio) {
+            switch (dirtyRows++ % DIRTY_KINDS) {
+                case 0:
+                    return new Sample(fullName, null, birthDate.format(DOTTED).replace('.', ' '));
+                case 1:
+                    return new Sample(fullName, null, "31.02." + birthDate.getYear());
+                case 2:
+                    return new Sample(fullName, null, FUTURE.plusDays(random.nextInt(3650)).format(ISO));
+                case 3:
+                    return new Sample(null, null, birthDate.format(ISO));
+                default:
+                    return new Sample(fullName, null, null);
+            }
+        }
+        switch (random.nextInt(4)) {
+            case 0:
+            case 1:
+                return new Sample(fullName, birthDate, null);
+            case 2:
+                return new Sample(fullName, null, birthDate.format(ISO));
+            default:
+                return new Sample(fullName, null, birthDate.format(DOTTED));
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Использование: SyntheticWorkbookGenerator <файл.xlsx> <строк> [доля ошибок] [seed]");
+            System.exit(2);
+        }
+        Path file = Paths.get(args[0]);
+        int rows = Integer.parseInt(args[1]);
+        double dirtyRatio = args.length > 2 ? Double.parseDouble(args[2]) : 0.0;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : DEFAULT_SEED;
+        writeWorkbook(file, rows, dirtyRatio, seed);
+        System.out.println("Создан " + file.toAbsolutePath() + ": " + rows + " строк, доля ошибок " + dirtyRatio);
+    }
+
+    private static final class Sample {
+        private final String fullName;
+        private final LocalDate birthDate;
+        private final String birthDateText;
+
+        private Sample(String fullName, LocalDate birthDate, String birthDateText) {
+            this.fullName = fullName;
+            this.birthDate = birthDate;
+            this.birthDateText = birthDateText;
+        }
+    }
+}
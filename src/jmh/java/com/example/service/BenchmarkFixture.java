@@ -0,0 +1,110 @@
+package com.example.service;
+
+import com.example.benchmark.SyntheticWorkbookGenerator;
+import com.example.config.AppProperties;
+import com.example.model.FileProcessingTask;
+import com.example.model.ProcessedRows;
+import com.example.model.ResultSummary;
+import com.example.service.pdf.HtmlReportRenderer;
+import com.example.service.pdf.PdfRenderEngine;
+import com.example.service.pdf.PdfReportRenderer;
+import com.example.service.pdf.ReportFonts;
+import com.example.service.validation.RowValidatorFactory;
+import com.example.service.validation.ValidationRules;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Сервис обработки, собранный без Spring поверх временного каталога,
+ * и сгенерированный входной файл. Закрывается после прогона.
+ */
+final class BenchmarkFixture implements AutoCloseable {
+    final Path workDir;
+    final Path inputFile;
+    final AppProperties properties;
+    final ProcessedDataCache cache;
+    final FileProcessingService service;
+
+    private final JobScheduler jobScheduler;
+    private final ProcessingStages stages;
+    private final TaskRegistry registry;
+
+    BenchmarkFixture(int rows, double dirtyRatio) throws IOException {
+        workDir = Files.createTempDirectory("bench-");
+        Path uploads = Files.createDirectories(workDir.resolve("uploads"));
+        inputFile = SyntheticWorkbookGenerator.writeWorkbook(uploads.resolve("input.xlsx"),
+                rows, dirtyRatio, SyntheticWorkbookGenerator.DEFAULT_SEED);
+
+        properties = new AppProperties();
+        properties.setUploadDir(uploads.toString());
+        properties.getTasks().setStoreFile(workDir.resolve("tasks.log").toString());
+
+        ValidationRules rules = new ValidationRules();
+        RowValidatorFactory rowValidators = new RowValidatorFactory(properties,
+                List.of(rules.fullNameRequired(), rules.birthDateRequired(),
+                        rules.birthDateFormat(), rules.birthDateNotInFuture()));
+        registry = new TaskRegistry(properties, new ObjectMapper().registerModule(new JavaTimeModule()));
+        jobScheduler = new JobScheduler(properties);
+        stages = new ProcessingStages(properties);
+        cache = new ProcessedDataCache(properties);
+        ReportFonts fonts = new ReportFonts(properties);
+        PdfRenderEngine pdfEngine = new PdfRenderEngine(properties,
+                new PdfReportRenderer(properties, fonts), new HtmlReportRenderer(fonts));
+        service = new FileProcessingService(properties, cache, pdfEngine, jobScheduler,
+                stages, new TaskEventPublisher(jobScheduler, registry), registry,
+                new ContentIndex(properties, registry), rowValidators,
+                new ProcessingMetrics(new SimpleMeterRegistry(), jobScheduler, stages));
+    }
+
+    /**
+     * Задача с новым идентификатором, как после приёма файла.
+     */
+    FileProcessingTask newTask() {
+        FileProcessingTask task = new FileProcessingTask();
+        task.setTaskId(UUID.randomUUID().toString());
+        task.setOriginalFilename(inputFile.getFileName().toString());
+        task.setStatus(FileProcessingTask.TaskStatus.PROCESSING);
+        task.setCreatedDate(Instant.now());
+        return task;
+    }
+
+    /**
+     * Полный разбор входного файла с записью файлов результата processed_*.
+     */
+    ProcessedRows process(FileProcessingTask task) throws IOException {
+        ProcessedRows.Builder results = ProcessedRows.builder();
+        service.processExcelFile(inputFile.toString(), task, results, ResultSummary.builder(),
+                JobControl.unlimited()).join();
+        return results.build();
+    }
+
+    /**
+     * Убирает задачу из реестра и её файлы результата, чтобы каталог не рос между замерами.
+     */
+    void discard(FileProcessingTask task) throws IOException {
+        registry.remove(task.getTaskId());
+        for (AppProperties.Output.Format format : AppProperties.Output.Format.values()) {
+            Files.deleteIfExists(inputFile.resolveSibling(format.fileName(task.getTaskId())));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        stages.shutdown();
+        jobScheduler.shutdown();
+        registry.close();
+        try (Stream<Path> files = Files.walk(workDir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+}
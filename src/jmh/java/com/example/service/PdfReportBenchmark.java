@@ -0,0 +1,71 @@
+package com.example.service;
+
+import com.example.config.AppProperties;
+import com.example.model.FileProcessingTask;
+import com.example.model.ProcessedRows;
+import com.example.model.ResultSummary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Формирование PDF по готовому результату: HTML (разобранный заранее шаблон +
+ * {@code HtmlConverter.convertToPdf}) и построчная вёрстка iText layout.
+ * PDF пишется в пустой поток, диск не участвует.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PdfReportBenchmark {
+    @Param({"1000", "10000", "100000", "500000"})
+    private int rows;
+
+    @Param({"0.0", "0.3"})
+    private double dirtyRatio;
+
+    @Param({"HTML", "LAYOUT"})
+    private AppProperties.Pdf.Engine engine;
+
+    private BenchmarkFixture fixture;
+    private ProcessedRows results;
+    private ResultSummary summary;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        fixture = new BenchmarkFixture(rows, dirtyRatio);
+        fixture.properties.getPdf().setEngine(engine);
+        FileProcessingTask task = fixture.newTask();
+        results = fixture.process(task);
+        ResultSummary.Builder summaryBuilder = ResultSummary.builder();
+        results.forEach(summaryBuilder::add);
+        summary = summaryBuilder.build();
+        fixture.discard(task);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        fixture.close();
+    }
+
+    @Benchmark
+    public void renderPdf() throws IOException {
+        fixture.service.renderPdf(results, summary, OutputStream.nullOutputStream());
+    }
+}
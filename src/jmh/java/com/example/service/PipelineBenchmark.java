@@ -0,0 +1,75 @@
+package com.example.service;
+
+import com.example.model.FileProcessingTask;
+import com.example.model.ProcessedRows;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Полный прогон {@code processExcelFile} (разбор, проверка, запись processed_*.xlsx)
+ * и чтение результата через {@code getProcessedData} — из файла и из кэша.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PipelineBenchmark {
+    @Param({"1000", "10000", "100000", "500000"})
+    private int rows;
+
+    @Param({"0.0", "0.3"})
+    private double dirtyRatio;
+
+    private BenchmarkFixture fixture;
+    private String processedTaskId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        fixture = new BenchmarkFixture(rows, dirtyRatio);
+        FileProcessingTask task = fixture.newTask();
+        fixture.process(task);
+        processedTaskId = task.getTaskId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        fixture.close();
+    }
+
+    @Benchmark
+    public ProcessedRows processExcelFile() throws IOException {
+        FileProcessingTask task = fixture.newTask();
+        try {
+            return fixture.process(task);
+        } finally {
+            fixture.discard(task);
+        }
+    }
+
+    @Benchmark
+    public ProcessedRows getProcessedDataFromFile() throws IOException {
+        fixture.cache.invalidate(processedTaskId);
+        return fixture.service.getProcessedData(processedTaskId);
+    }
+
+    @Benchmark
+    public ProcessedRows getProcessedDataCached() throws IOException {
+        return fixture.service.getProcessedData(processedTaskId);
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.service.validation;
+
+import com.example.benchmark.SyntheticWorkbookGenerator;
+import com.example.config.AppProperties;
+import com.example.service.excel.SheetRow;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Проверка строк без чтения файла: строки листа сгенерированы заранее,
+ * замеряется только {@link RowValidator#validate} на всём наборе.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RowValidatorBenchmark {
+    @Param({"1000", "10000", "100000", "500000"})
+    private int rows;
+
+    @Param({"0.0", "0.3"})
+    private double dirtyRatio;
+
+    private List<SheetRow> sheetRows;
+    private RowValidator validator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sheetRows = SyntheticWorkbookGenerator.sheetRows(rows, dirtyRatio, SyntheticWorkbookGenerator.DEFAULT_SEED);
+        ValidationRules rules = new ValidationRules();
+        // дата отсчёта зафиксирована, чтобы результат не зависел от дня запуска
+        Clock clock = Clock.fixed(Instant.parse("2024-05-01T00:00:00Z"), ZoneId.of("UTC"));
+        RowValidatorFactory factory = new RowValidatorFactory(new AppProperties().getValidation(),
+                List.of(rules.fullNameRequired(), rules.birthDateRequired(),
+                        rules.birthDateFormat(), rules.birthDateNotInFuture()),
+                clock);
+        validator = factory.compile(sheetRows.get(0));
+    }
+
+    @Benchmark
+    public void validate(Blackhole blackhole) {
+        for (int i = 1, n = sheetRows.size(); i < n; i++) {
+            blackhole.consume(validator.validate(sheetRows.get(i)));
+        }
+    }
+}
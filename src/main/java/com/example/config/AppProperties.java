@@ -0,0 +1,629 @@
+package com.example.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Настройки приложения из секции {@code app.*} в application.properties.
+ */
+@Component
+@ConfigurationProperties(prefix = "app")
+public class AppProperties {
+    /** Каталог загруженных файлов и результатов обработки. */
+    private String uploadDir = "uploads";
+    /** Число потоков, обрабатывающих задачи. */
+    private int maxProcessingThreads = 4;
+    private final Scheduler scheduler = new Scheduler();
+    private final Output output = new Output();
+    private final Cache cache = new Cache();
+    private final Pdf pdf = new Pdf();
+    private final Processing processing = new Processing();
+    private final Pipeline pipeline = new Pipeline();
+    private final Tasks tasks = new Tasks();
+    private final Batch batch = new Batch();
+    private final Resumable resumable = new Resumable();
+    private final Validation validation = new Validation();
+    private final Coordination coordination = new Coordination();
+
+    public String getUploadDir() {
+        return uploadDir;
+    }
+
+    public void setUploadDir(String uploadDir) {
+        this.uploadDir = uploadDir;
+    }
+
+    public int getMaxProcessingThreads() {
+        return maxProcessingThreads;
+    }
+
+    public void setMaxProcessingThreads(int maxProcessingThreads) {
+        this.maxProcessingThreads = maxProcessingThreads;
+    }
+
+    public Scheduler getScheduler() {
+        return scheduler;
+    }
+
+    public Output getOutput() {
+        return output;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public Pdf getPdf() {
+        return pdf;
+    }
+
+    public Validation getValidation() {
+        return validation;
+    }
+
+    public Batch getBatch() {
+        return batch;
+    }
+
+    public Resumable getResumable() {
+        return resumable;
+    }
+
+    public Processing getProcessing() {
+        return processing;
+    }
+
+    public Pipeline getPipeline() {
+        return pipeline;
+    }
+
+    public Tasks getTasks() {
+        return tasks;
+    }
+
+    public Coordination getCoordination() {
+        return coordination;
+    }
+
+    /**
+     * Очередь задач на обработку.
+     */
+    public static class Scheduler {
+        /** Сколько задач может ждать в очереди; сверх этого загрузка отклоняется с 429. */
+        private int queueCapacity = 50;
+        private int retryAfterSeconds = 30;
+        /**
+         * Старение приоритета: каждые столько байт размера файла равны секунде ожидания.
+         * Маленькие файлы обгоняют большие, но большие не голодают бесконечно.
+         */
+        private long agingBytesPerSecond = 1024 * 1024;
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+
+        public void setRetryAfterSeconds(int retryAfterSeconds) {
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        public long getAgingBytesPerSecond() {
+            return agingBytesPerSecond;
+        }
+
+        public void setAgingBytesPerSecond(long agingBytesPerSecond) {
+            this.agingBytesPerSecond = agingBytesPerSecond;
+        }
+    }
+
+    /**
+     * Запись результата processed_&lt;taskId&gt;.*.
+     */
+    public static class Output {
+        /**
+         * Форматы результата. Все пишутся за один проход; страница, API и PDF
+         * читают первый из имеющихся в порядке xlsx, csv, ndjson.
+         */
+        private List<Format> formats = new ArrayList<>(List.of(Format.XLSX));
+        /** Сколько строк держать в памяти до сброса на диск. */
+        private int rowWindow = 100;
+        /** Сжимать временные файлы потоковой записи. */
+        private boolean compressTempFiles = true;
+        /** Дополнительно раскладывать строки по листам «Ок» / «не ок». */
+        private boolean splitByStatus = false;
+
+        public List<Format> getFormats() {
+            return formats;
+        }
+
+        public void setFormats(List<Format> formats) {
+            this.formats = formats;
+        }
+
+        public int getRowWindow() {
+            return rowWindow;
+        }
+
+        public void setRowWindow(int rowWindow) {
+            this.rowWindow = rowWindow;
+        }
+
+        public boolean isCompressTempFiles() {
+            return compressTempFiles;
+        }
+
+        public void setCompressTempFiles(boolean compressTempFiles) {
+            this.compressTempFiles = compressTempFiles;
+        }
+
+        public boolean isSplitByStatus() {
+            return splitByStatus;
+        }
+
+        public void setSplitByStatus(boolean splitByStatus) {
+            this.splitByStatus = splitByStatus;
+        }
+
+        public enum Format {
+            XLSX("xlsx"), CSV("csv"), NDJSON("ndjson");
+
+            private final String extension;
+
+            Format(String extension) {
+                this.extension = extension;
+            }
+
+            public String getExtension() {
+                return extension;
+            }
+
+            /**
+             * @return имя файла результата задачи в каталоге загрузок
+             */
+            public String fileName(String taskId) {
+                return "processed_" + taskId + "." + extension;
+            }
+        }
+    }
+
+    /**
+     * Кэш обработанных строк для страницы статуса и PDF.
+     */
+    public static class Cache {
+        private int maxEntries = 64;
+        /** Бюджет памяти на все закэшированные результаты. */
+        private long maxBytes = 64L * 1024 * 1024;
+        private Duration ttl = Duration.ofMinutes(30);
+
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        public long getMaxBytes() {
+            return maxBytes;
+        }
+
+        public void setMaxBytes(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+    }
+
+    /**
+     * Формирование PDF-отчёта.
+     */
+    public static class Pdf {
+        public enum Engine {
+            /** Потоковая вёрстка таблицы средствами iText layout. */
+            LAYOUT,
+            /** Сборка HTML и конвертация через HtmlConverter. */
+            HTML
+        }
+
+        private Engine engine = Engine.LAYOUT;
+        /** Через сколько строк сбрасывать готовые страницы таблицы. */
+        private int flushRows = 500;
+        /** Дополнительные каталоги со шрифтами, например с DejaVu или PT Sans. */
+        private List<String> fontDirs = new ArrayList<>();
+        /** Сколько отчётов может формироваться одновременно, включая запросы пользователей. */
+        private int maxConcurrentRenders = 3;
+        /** Сколько ждать свободного места для формирования, прежде чем вернуть ошибку. */
+        private Duration acquireTimeout = Duration.ofSeconds(60);
+        /** Прогреть движок тестовым отчётом при старте приложения. */
+        private boolean warmUp = true;
+
+        public Engine getEngine() {
+            return engine;
+        }
+
+        public void setEngine(Engine engine) {
+            this.engine = engine;
+        }
+
+        public int getFlushRows() {
+            return flushRows;
+        }
+
+        public void setFlushRows(int flushRows) {
+            this.flushRows = flushRows;
+        }
+
+        public List<String> getFontDirs() {
+            return fontDirs;
+        }
+
+        public void setFontDirs(List<String> fontDirs) {
+            this.fontDirs = fontDirs;
+        }
+
+        public int getMaxConcurrentRenders() {
+            return maxConcurrentRenders;
+        }
+
+        public void setMaxConcurrentRenders(int maxConcurrentRenders) {
+            this.maxConcurrentRenders = maxConcurrentRenders;
+        }
+
+        public Duration getAcquireTimeout() {
+            return acquireTimeout;
+        }
+
+        public void setAcquireTimeout(Duration acquireTimeout) {
+            this.acquireTimeout = acquireTimeout;
+        }
+
+        public boolean isWarmUp() {
+            return warmUp;
+        }
+
+        public void setWarmUp(boolean warmUp) {
+            this.warmUp = warmUp;
+        }
+    }
+
+    /**
+     * Валидация строк внутри одного файла.
+     */
+    public static class Processing {
+        /** Проверять строки пачками параллельно на отдельном пуле. */
+        private boolean parallel = false;
+        /** Размер пула; 0 — по числу ядер. */
+        private int parallelism = 0;
+        private int chunkSize = 1000;
+        /** Сколько может идти обработка одного файла, не считая ожидания в очереди; 0 — без ограничения. */
+        private Duration maxDuration = Duration.ofMinutes(30);
+        /** Сколько строк, включая заголовок, можно прочитать из одного файла; 0 — без ограничения. */
+        private long maxRows = 2_000_000;
+        /** Сколько ячеек (с учётом пустых до последней заполненной в строке); 0 — без ограничения. */
+        private long maxCells = 20_000_000;
+
+        public boolean isParallel() {
+            return parallel;
+        }
+
+        public void setParallel(boolean parallel) {
+            this.parallel = parallel;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        public Duration getMaxDuration() {
+            return maxDuration;
+        }
+
+        public void setMaxDuration(Duration maxDuration) {
+            this.maxDuration = maxDuration;
+        }
+
+        public long getMaxRows() {
+            return maxRows;
+        }
+
+        public void setMaxRows(long maxRows) {
+            this.maxRows = maxRows;
+        }
+
+        public long getMaxCells() {
+            return maxCells;
+        }
+
+        public void setMaxCells(long maxCells) {
+            this.maxCells = maxCells;
+        }
+
+        public int effectiveParallelism() {
+            return parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        }
+    }
+
+    /**
+     * Пулы стадий записи xlsx и формирования PDF.
+     */
+    public static class Pipeline {
+        /** Потоки записи xlsx; 0 — по числу потоков обработки. */
+        private int xlsxThreads = 0;
+        private int pdfThreads = 2;
+        /** Сверх этого PDF сразу не формируется, а создаётся при первом запросе. */
+        private int pdfQueueCapacity = 20;
+        /** Сколько обработанных строк может ждать записи в xlsx. */
+        private int xlsxBufferRows = 2000;
+
+        public int getXlsxThreads() {
+            return xlsxThreads;
+        }
+
+        public void setXlsxThreads(int xlsxThreads) {
+            this.xlsxThreads = xlsxThreads;
+        }
+
+        public int getPdfThreads() {
+            return pdfThreads;
+        }
+
+        public void setPdfThreads(int pdfThreads) {
+            this.pdfThreads = pdfThreads;
+        }
+
+        public int getPdfQueueCapacity() {
+            return pdfQueueCapacity;
+        }
+
+        public void setPdfQueueCapacity(int pdfQueueCapacity) {
+            this.pdfQueueCapacity = pdfQueueCapacity;
+        }
+
+        public int getXlsxBufferRows() {
+            return xlsxBufferRows;
+        }
+
+        public void setXlsxBufferRows(int xlsxBufferRows) {
+            this.xlsxBufferRows = xlsxBufferRows;
+        }
+    }
+
+    /**
+     * Хранение задач между перезапусками и очистка каталога загрузок.
+     */
+    public static class Tasks {
+        /** Журнал задач (JSON по строке на изменение), сжимается при росте. */
+        private String storeFile = "data/tasks.log";
+        private int maxEntries = 1000;
+        /** Сколько хранить завершённые задачи и их файлы. */
+        private Duration ttl = Duration.ofDays(7);
+        /** Предельный объём каталога загрузок; сверх него удаляются самые старые задачи. */
+        private DataSize diskQuota = DataSize.ofGigabytes(1);
+        private Duration reapInterval = Duration.ofMinutes(1);
+
+        public String getStoreFile() {
+            return storeFile;
+        }
+
+        public void setStoreFile(String storeFile) {
+            this.storeFile = storeFile;
+        }
+
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public DataSize getDiskQuota() {
+            return diskQuota;
+        }
+
+        public void setDiskQuota(DataSize diskQuota) {
+            this.diskQuota = diskQuota;
+        }
+
+        public Duration getReapInterval() {
+            return reapInterval;
+        }
+
+        public void setReapInterval(Duration reapInterval) {
+            this.reapInterval = reapInterval;
+        }
+    }
+
+    public static class Batch {
+        /** Наибольшее число файлов в пакете, считая файлы внутри архивов. */
+        private int maxFiles = 100;
+        /** Предельный размер одного распакованного файла из архива. */
+        private DataSize maxEntrySize = DataSize.ofMegabytes(50);
+
+        public int getMaxFiles() {
+            return maxFiles;
+        }
+
+        public void setMaxFiles(int maxFiles) {
+            this.maxFiles = maxFiles;
+        }
+
+        public DataSize getMaxEntrySize() {
+            return maxEntrySize;
+        }
+
+        public void setMaxEntrySize(DataSize maxEntrySize) {
+            this.maxEntrySize = maxEntrySize;
+        }
+    }
+
+    /**
+     * Докачиваемая загрузка частями ({@code /api/uploads}).
+     */
+    public static class Resumable {
+        /** Предельный размер файла, объявляемый при создании загрузки; не больше {@code app.tasks.disk-quota}. */
+        private DataSize maxSize = DataSize.ofMegabytes(512);
+        /** Сколько хранить незавершённую загрузку с последнего принятого фрагмента. */
+        private Duration expiry = Duration.ofHours(24);
+
+        public DataSize getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(DataSize maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public Duration getExpiry() {
+            return expiry;
+        }
+
+        public void setExpiry(Duration expiry) {
+            this.expiry = expiry;
+        }
+    }
+
+    public static class Validation {
+        /** Заголовки столбца ФИО; сравниваются без учёта регистра и лишних пробелов. */
+        private List<String> nameHeaders = new ArrayList<>(List.of("ФИО", "Фамилия Имя Отчество", "Full name"));
+        /** Заголовки столбца даты рождения. */
+        private List<String> birthDateHeaders = new ArrayList<>(List.of("Дата рождения", "Birth date", "Date of birth"));
+        /** Принимаемые форматы текстовой даты, проверяются по порядку: y, M, d и разделители. */
+        private List<String> dateFormats = new ArrayList<>(List.of("yyyy-MM-dd", "dd.MM.yyyy", "d.M.yyyy", "dd/MM/yyyy"));
+
+        public List<String> getNameHeaders() {
+            return nameHeaders;
+        }
+
+        public void setNameHeaders(List<String> nameHeaders) {
+            this.nameHeaders = nameHeaders;
+        }
+
+        public List<String> getBirthDateHeaders() {
+            return birthDateHeaders;
+        }
+
+        public void setBirthDateHeaders(List<String> birthDateHeaders) {
+            this.birthDateHeaders = birthDateHeaders;
+        }
+
+        public List<String> getDateFormats() {
+            return dateFormats;
+        }
+
+        public void setDateFormats(List<String> dateFormats) {
+            this.dateFormats = dateFormats;
+        }
+    }
+
+    /**
+     * Где хранятся задачи и очередь: в памяти одного узла или в общем каталоге,
+     * через который несколько экземпляров делят работу.
+     */
+    public static class Coordination {
+        public enum Mode {
+            /** Очередь в памяти, задачи в журнале {@code app.tasks.store-file}. */
+            LOCAL,
+            /** Задачи, очередь и аренды — файлы в {@link #directory}, общем для всех узлов. */
+            SHARED_DIRECTORY
+        }
+
+        private Mode mode = Mode.LOCAL;
+        /** Общий каталог координации; {@code app.upload-dir} тоже должен быть общим. */
+        private String directory = "shared";
+        /** Имя узла; по умолчанию имя хоста и PID. */
+        private String nodeId = "";
+        /** Как часто узел продлевает свои аренды и отмечается живым. */
+        private Duration heartbeatInterval = Duration.ofSeconds(5);
+        /** Аренда без продления дольше этого срока считается брошенной и перехватывается. */
+        private Duration leaseTimeout = Duration.ofSeconds(30);
+        /** Как часто свободный обработчик заглядывает в общую очередь. */
+        private Duration pollInterval = Duration.ofSeconds(1);
+
+        public Mode getMode() {
+            return mode;
+        }
+
+        public void setMode(Mode mode) {
+            this.mode = mode;
+        }
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public String getNodeId() {
+            return nodeId;
+        }
+
+        public void setNodeId(String nodeId) {
+            this.nodeId = nodeId;
+        }
+
+        public Duration getHeartbeatInterval() {
+            return heartbeatInterval;
+        }
+
+        public void setHeartbeatInterval(Duration heartbeatInterval) {
+            this.heartbeatInterval = heartbeatInterval;
+        }
+
+        public Duration getLeaseTimeout() {
+            return leaseTimeout;
+        }
+
+        public void setLeaseTimeout(Duration leaseTimeout) {
+            this.leaseTimeout = leaseTimeout;
+        }
+
+        public Duration getPollInterval() {
+            return pollInterval;
+        }
+
+        public void setPollInterval(Duration pollInterval) {
+            this.pollInterval = pollInterval;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Ответы об ошибках JSON API в едином виде: {@code {"error": "..."}}.
+ */
+final class ApiErrors {
+    private ApiErrors() {
+    }
+
+    static ResponseEntity<Map<String, Object>> error(HttpStatus status, String message) {
+        return ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON).body(body(message));
+    }
+
+    /**
+     * Ошибка, после которой запрос стоит повторить через {@code retryAfterSeconds} секунд.
+     */
+    static ResponseEntity<Map<String, Object>> retryLater(HttpStatus status, String message, int retryAfterSeconds) {
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body(message));
+    }
+
+    private static Map<String, Object> body(String message) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("error", message);
+        return body;
+    }
+}
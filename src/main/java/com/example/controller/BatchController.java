@@ -0,0 +1,113 @@
+package com.example.controller;
+
+import com.example.model.ProcessingBatch;
+import com.example.service.BatchService;
+import com.example.service.JobRejectedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+@Controller
+public class BatchController {
+    private static final Logger logger = LoggerFactory.getLogger(BatchController.class);
+    private static final String XLSX_CONTENT_TYPE =
+            "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+
+    private final BatchService batchService;
+
+    public BatchController(BatchService batchService) {
+        this.batchService = batchService;
+    }
+
+    @PostMapping("/batch/upload")
+    public String handleBatchUpload(@RequestParam("files") List<MultipartFile> files,
+                                    RedirectAttributes redirectAttributes,
+                                    Model model,
+                                    HttpServletResponse response) {
+        try {
+            ProcessingBatch batch = batchService.processBatch(files);
+            return "redirect:/batch/status?batchId=" + batch.getBatchId();
+        } catch (JobRejectedException e) {
+            logger.warn("Пакет отклонён: {}", e.getMessage());
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+            model.addAttribute("error", e.getMessage());
+            return "upload";
+        } catch (Exception e) {
+            logger.error("Ошибка при загрузке пакета", e);
+            redirectAttributes.addFlashAttribute("error",
+                    "Ошибка загрузки: " + e.getMessage());
+            return "redirect:/";
+        }
+    }
+
+    @GetMapping("/batch/status")
+    public String batchStatusPage(@RequestParam String batchId, Model model) throws IOException {
+        model.addAttribute("batchId", batchId);
+        model.addAttribute("batch", batchService.snapshot(getBatch(batchId)));
+        return "batch-status";
+    }
+
+    @GetMapping("/batch/status/check")
+    @ResponseBody
+    public Map<String, Object> checkBatchStatus(@RequestParam String batchId) throws IOException {
+        return batchService.snapshot(getBatch(batchId));
+    }
+
+    @GetMapping(value = "/batch/status/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter batchStatusEvents(@RequestParam String batchId) throws IOException {
+        return batchService.subscribe(getBatch(batchId));
+    }
+
+    @GetMapping("/batch/download/xlsx")
+    public void downloadCombinedXlsx(@RequestParam String batchId,
+                                     HttpServletRequest request,
+                                     HttpServletResponse response) throws IOException {
+        try {
+            Path file = batchService.getCombinedXlsx(batchId);
+            FileDownloadSupport.send(file, XLSX_CONTENT_TYPE,
+                    "attachment; filename=\"batch_" + batchId + ".xlsx\"", request, response);
+        } catch (FileNotFoundException e) {
+            logger.warn("Сводный xlsx для пакета {} недоступен: {}", batchId, e.getMessage());
+            response.sendError(HttpServletResponse.SC_NOT_FOUND, e.getMessage());
+        }
+    }
+
+    @GetMapping("/batch/download/pdf")
+    public void downloadCombinedPdf(@RequestParam String batchId,
+                                    HttpServletRequest request,
+                                    HttpServletResponse response) throws IOException {
+        try {
+            Path file = batchService.getCombinedPdf(batchId);
+            FileDownloadSupport.send(file, MediaType.APPLICATION_PDF_VALUE,
+                    "attachment; filename=\"batch_" + batchId + ".pdf\"", request, response);
+        } catch (FileNotFoundException e) {
+            logger.warn("Сводный PDF для пакета {} недоступен: {}", batchId, e.getMessage());
+            response.sendError(HttpServletResponse.SC_NOT_FOUND, e.getMessage());
+        }
+    }
+
+    private ProcessingBatch getBatch(String batchId) throws IOException {
+        ProcessingBatch batch = batchService.getBatch(batchId);
+        if (batch == null) {
+            throw new IllegalArgumentException("Пакет не найден");
+        }
+        return batch;
+    }
+}
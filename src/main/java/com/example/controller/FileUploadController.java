@@ -1,29 +1,38 @@
 package com.example.controller;
 
+import com.example.config.AppProperties;
 import com.example.model.FileProcessingTask;
 import com.example.service.FileProcessingService;
+import com.example.service.JobRejectedException;
+import com.example.service.PdfNotReadyException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.util.HashMap;
+import java.nio.file.Path;
+import java.util.Locale;
 import java.util.Map;
 
 @Controller
 public class FileUploadController {
     private static final Logger logger = LoggerFactory.getLogger(FileUploadController.class);
+    private static final Map<AppProperties.Output.Format, String> RESULT_CONTENT_TYPES = Map.of(
+            AppProperties.Output.Format.XLSX, "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet",
+            AppProperties.Output.Format.CSV, "text/csv;charset=UTF-8",
+            AppProperties.Output.Format.NDJSON, "application/x-ndjson;charset=UTF-8");
 
     private final FileProcessingService fileProcessingService;
 
@@ -39,7 +48,9 @@ public class FileUploadController {
 
     @PostMapping("/upload")
     public String handleFileUpload(@RequestParam("file") MultipartFile file,
-                                   RedirectAttributes redirectAttributes) {
+                                   RedirectAttributes redirectAttributes,
+                                   Model model,
+                                   HttpServletResponse response) {
         try {
             if (file.isEmpty()) {
                 throw new IOException("Файл пустой");
@@ -47,6 +58,12 @@ public class FileUploadController {
 
             String taskId = fileProcessingService.processFile(file);
             return "redirect:/status?taskId=" + taskId;
+        } catch (JobRejectedException e) {
+            logger.warn("Загрузка отклонена: {}", e.getMessage());
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+            model.addAttribute("error", e.getMessage());
+            return "upload";
         } catch (Exception e) {
             logger.error("Ошибка при загрузке файла", e);
             redirectAttributes.addFlashAttribute("error",
@@ -65,17 +82,15 @@ public class FileUploadController {
 
         model.addAttribute("task", task);
         model.addAttribute("taskId", taskId);
+        model.addAttribute("resultFormats", fileProcessingService.getResultFormats());
+        if (task.getStatus() == FileProcessingTask.TaskStatus.QUEUED) {
+            model.addAttribute("queuePosition", fileProcessingService.getQueuePosition(taskId));
+        }
 
-        if (task.getStatus() == FileProcessingTask.TaskStatus.FAILED) {
+        if (task.getStatus().isFailure()) {
             model.addAttribute("error", task.getErrorDetails());
-        } else if (task.getStatus() == FileProcessingTask.TaskStatus.COMPLETED) {
-            try {
-                model.addAttribute("processedData",
-                        fileProcessingService.getProcessedData(taskId));
-            } catch (Exception e) {
-                model.addAttribute("error", "Ошибка загрузки результатов: " + e.getMessage());
-            }
         }
+        // строки результата страница подгружает сама через /api/tasks/{taskId}/rows
 
         return "status";
     }
@@ -84,45 +99,97 @@ public class FileUploadController {
     @ResponseBody
     public Map<String, Object> checkStatus(@RequestParam String taskId) {
         FileProcessingTask task = fileProcessingService.getTask(taskId);
-        Map<String, Object> response = new HashMap<>();
-        response.put("status", task.getStatus().toString());
-        response.put("completed", task.getStatus() == FileProcessingTask.TaskStatus.COMPLETED);
-        return response;
+        if (task == null) {
+            throw new IllegalArgumentException("Задача не найдена");
+        }
+        return fileProcessingService.getTaskSnapshot(task);
+    }
+
+    @GetMapping(value = "/status/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter statusEvents(@RequestParam String taskId) {
+        FileProcessingTask task = fileProcessingService.getTask(taskId);
+        if (task == null) {
+            throw new IllegalArgumentException("Задача не найдена");
+        }
+        return fileProcessingService.subscribe(task);
+    }
+
+    @GetMapping("/cache/stats")
+    @ResponseBody
+    public Map<String, Object> cacheStats() {
+        return fileProcessingService.getCacheStats();
+    }
+
+    @GetMapping("/dedup/stats")
+    @ResponseBody
+    public Map<String, Object> dedupStats() {
+        return fileProcessingService.getDedupStats();
+    }
+
+    @GetMapping("/queue/stats")
+    @ResponseBody
+    public Map<String, Object> queueStats() {
+        return fileProcessingService.getQueueStats();
     }
 
     @GetMapping("/download/pdf")
     public void downloadPdfReport(@RequestParam String taskId,
+                                  HttpServletRequest request,
                                   HttpServletResponse response) throws IOException {
+        sendPdfReport(taskId, "attachment", request, response);
+    }
+
+    /**
+     * Файл результата в одном из форматов {@code app.output.formats}: xlsx, csv или ndjson.
+     */
+    @GetMapping("/download/result")
+    public void downloadResult(@RequestParam String taskId,
+                               @RequestParam(defaultValue = "xlsx") String format,
+                               HttpServletRequest request,
+                               HttpServletResponse response) throws IOException {
+        AppProperties.Output.Format resultFormat;
         try {
-            response.setContentType("application/pdf");
-            response.setHeader("Content-Disposition",
-                    "attachment; filename=\"report_" + taskId + ".pdf\"");
-            fileProcessingService.generatePdfReport(taskId, response.getOutputStream());
-        } catch (Exception e) {
-            logger.error("Ошибка при скачивании PDF", e);
-            response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            resultFormat = AppProperties.Output.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Неизвестный формат: " + format);
+            return;
+        }
+        try {
+            Path file = fileProcessingService.getResultFile(taskId, resultFormat);
+            FileDownloadSupport.send(file, RESULT_CONTENT_TYPES.get(resultFormat),
+                    "attachment; filename=\"" + file.getFileName() + "\"", request, response);
+        } catch (FileNotFoundException | IllegalArgumentException e) {
+            logger.warn("Результат {} задачи {} недоступен: {}", format, taskId, e.getMessage());
+            response.sendError(HttpServletResponse.SC_NOT_FOUND, e.getMessage());
         }
     }
 
     @GetMapping("/view/pdf")
-    public ResponseEntity<Resource> viewPdfReport(@RequestParam String taskId) {
-        try {
-            logger.info("Попытка просмотра PDF для задачи: {}", taskId);
-            Resource resource = fileProcessingService.loadPdfReport(taskId);
-
-            if (!resource.exists()) {
-                logger.error("PDF не найден для задачи: {}", taskId);
-                return ResponseEntity.notFound().build();
-            }
+    public void viewPdfReport(@RequestParam String taskId,
+                              HttpServletRequest request,
+                              HttpServletResponse response) throws IOException {
+        logger.info("Попытка просмотра PDF для задачи: {}", taskId);
+        sendPdfReport(taskId, "inline", request, response);
+    }
 
-            return ResponseEntity.ok()
-                    .contentType(MediaType.APPLICATION_PDF)
-                    .header(HttpHeaders.CONTENT_DISPOSITION,
-                            "inline; filename=\"report_" + taskId + ".pdf\"")
-                    .body(resource);
+    private void sendPdfReport(String taskId, String disposition,
+                               HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try {
+            Path report = fileProcessingService.getPdfReport(taskId);
+            FileDownloadSupport.send(report, MediaType.APPLICATION_PDF_VALUE,
+                    disposition + "; filename=\"report_" + taskId + ".pdf\"", request, response);
+        } catch (PdfNotReadyException e) {
+            logger.info("PDF для задачи {} ещё формируется", taskId);
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, e.getMessage());
+        } catch (FileNotFoundException e) {
+            logger.error("PDF не найден для задачи: {}", taskId);
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
         } catch (Exception e) {
-            logger.error("Ошибка при просмотре PDF для задачи: " + taskId, e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            logger.error("Ошибка при отдаче PDF для задачи: " + taskId, e);
+            if (!response.isCommitted()) {
+                response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            }
         }
     }
 
@@ -0,0 +1,157 @@
+package com.example.controller;
+
+import com.example.model.ResumableUpload;
+import com.example.service.JobRejectedException;
+import com.example.service.ResumableUploadService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Докачиваемая загрузка больших файлов частями (см. {@link ResumableUploadService}):
+ * <ul>
+ *     <li>{@code POST /api/uploads?filename=...} с заголовком {@code Upload-Length}
+ *     (имя можно передать и в {@code Upload-Metadata}, как в tus) — создать загрузку;</li>
+ *     <li>{@code PATCH /api/uploads/{id}} с {@code Upload-Offset} и телом-фрагментом —
+ *     записать фрагмент, фрагменты можно слать параллельно;</li>
+ *     <li>{@code HEAD} или {@code GET /api/uploads/{id}} — сколько принято и каких
+ *     диапазонов не хватает, чтобы продолжить после обрыва;</li>
+ *     <li>{@code POST /api/uploads/{id}/complete} — завершить загрузку и начать обработку;</li>
+ *     <li>{@code DELETE /api/uploads/{id}} — отменить загрузку.</li>
+ * </ul>
+ */
+@RestController
+@RequestMapping("/api/uploads")
+public class ResumableUploadController {
+    private static final Logger logger = LoggerFactory.getLogger(ResumableUploadController.class);
+    private static final String UPLOAD_LENGTH = "Upload-Length";
+    private static final String UPLOAD_OFFSET = "Upload-Offset";
+    private static final String UPLOAD_METADATA = "Upload-Metadata";
+
+    private final ResumableUploadService uploadService;
+
+    public ResumableUploadController(ResumableUploadService uploadService) {
+        this.uploadService = uploadService;
+    }
+
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> create(@RequestHeader(UPLOAD_LENGTH) long length,
+                                                      @RequestParam(required = false) String filename,
+                                                      @RequestHeader(value = UPLOAD_METADATA, required = false)
+                                                              String metadata) throws IOException {
+        String name = filename != null ? filename : metadataValue(metadata, "filename");
+        try {
+            ResumableUpload upload = uploadService.create(name, length);
+            return ResponseEntity.created(URI.create("/api/uploads/" + upload.getUploadId()))
+                    .header(UPLOAD_OFFSET, "0")
+                    .body(describe(upload));
+        } catch (IllegalArgumentException e) {
+            return ApiErrors.error(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @GetMapping("/{uploadId}")
+    public ResponseEntity<Map<String, Object>> status(@PathVariable String uploadId) throws IOException {
+        try {
+            ResumableUpload upload = uploadService.get(uploadId);
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noStore())
+                    .header(UPLOAD_OFFSET, String.valueOf(ResumableUploadService.contiguousOffset(upload)))
+                    .header(UPLOAD_LENGTH, String.valueOf(upload.getLength()))
+                    .body(describe(upload));
+        } catch (FileNotFoundException e) {
+            return ApiErrors.error(HttpStatus.NOT_FOUND, e.getMessage());
+        }
+    }
+
+    @PatchMapping("/{uploadId}")
+    public ResponseEntity<Map<String, Object>> writeChunk(@PathVariable String uploadId,
+                                                          @RequestHeader(UPLOAD_OFFSET) long offset,
+                                                          HttpServletRequest request) throws IOException {
+        try {
+            ResumableUpload upload = uploadService.writeChunk(uploadId, offset, request.getInputStream());
+            return ResponseEntity.noContent()
+                    .header(UPLOAD_OFFSET, String.valueOf(ResumableUploadService.contiguousOffset(upload)))
+                    .build();
+        } catch (FileNotFoundException e) {
+            return ApiErrors.error(HttpStatus.NOT_FOUND, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ApiErrors.error(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IllegalStateException e) {
+            return ApiErrors.error(HttpStatus.CONFLICT, e.getMessage());
+        }
+    }
+
+    @PostMapping("/{uploadId}/complete")
+    public ResponseEntity<Map<String, Object>> complete(@PathVariable String uploadId) throws IOException {
+        try {
+            String taskId = uploadService.complete(uploadId);
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("taskId", taskId);
+            body.put("statusUrl", "/status?taskId=" + taskId);
+            return ResponseEntity.accepted().body(body);
+        } catch (FileNotFoundException e) {
+            return ApiErrors.error(HttpStatus.NOT_FOUND, e.getMessage());
+        } catch (IllegalStateException e) {
+            return ApiErrors.error(HttpStatus.CONFLICT, e.getMessage());
+        } catch (JobRejectedException e) {
+            logger.warn("Загрузка {} не поставлена в очередь: {}", uploadId, e.getMessage());
+            return ApiErrors.retryLater(HttpStatus.TOO_MANY_REQUESTS, e.getMessage(), e.getRetryAfterSeconds());
+        }
+    }
+
+    @DeleteMapping("/{uploadId}")
+    public ResponseEntity<Map<String, Object>> abort(@PathVariable String uploadId) throws IOException {
+        try {
+            uploadService.abort(uploadId);
+            return ResponseEntity.noContent().build();
+        } catch (FileNotFoundException e) {
+            return ApiErrors.error(HttpStatus.NOT_FOUND, e.getMessage());
+        } catch (IllegalStateException e) {
+            return ApiErrors.error(HttpStatus.CONFLICT, e.getMessage());
+        }
+    }
+
+    private static Map<String, Object> describe(ResumableUpload upload) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("uploadId", upload.getUploadId());
+        body.put("filename", upload.getFilename());
+        body.put("length", upload.getLength());
+        body.put("offset", ResumableUploadService.contiguousOffset(upload));
+        body.put("missing", ResumableUploadService.missingRanges(upload));
+        body.put("taskId", upload.getTaskId());
+        return body;
+    }
+
+    /**
+     * Значение из {@code Upload-Metadata}: пары "ключ base64" через запятую.
+     */
+    private static String metadataValue(String metadata, String key) {
+        if (metadata == null) {
+            return null;
+        }
+        for (String pair : metadata.split(",")) {
+            String[] parts = pair.trim().split(" ", 2);
+            if (parts[0].equals(key) && parts.length == 2) {
+                try {
+                    return new String(Base64.getDecoder().decode(parts[1].trim()), StandardCharsets.UTF_8);
+                } catch (IllegalArgumentException e) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.controller;
+
+import com.example.model.FileProcessingTask;
+import com.example.service.FileProcessingService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.FileNotFoundException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Отмена задачи: {@code POST /api/tasks/{taskId}/cancel}. Ждущая задача
+ * отменяется сразу ({@code 200}); обрабатываемая останавливается на ближайшей
+ * строке ({@code 202}), итоговый статус приходит в событиях статуса.
+ */
+@RestController
+public class TaskCancelController {
+    private static final Logger logger = LoggerFactory.getLogger(TaskCancelController.class);
+
+    private final FileProcessingService fileProcessingService;
+
+    public TaskCancelController(FileProcessingService fileProcessingService) {
+        this.fileProcessingService = fileProcessingService;
+    }
+
+    @PostMapping("/api/tasks/{taskId}/cancel")
+    public ResponseEntity<Map<String, Object>> cancel(@PathVariable String taskId) {
+        boolean cancelled;
+        try {
+            cancelled = fileProcessingService.cancel(taskId);
+        } catch (FileNotFoundException e) {
+            return ApiErrors.error(HttpStatus.NOT_FOUND, e.getMessage());
+        } catch (IllegalStateException e) {
+            return ApiErrors.error(HttpStatus.CONFLICT, e.getMessage());
+        }
+        logger.info("Отмена задачи {}: {}", taskId, cancelled ? "отменена" : "остановка запрошена");
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("taskId", taskId);
+        FileProcessingTask task = fileProcessingService.getTask(taskId);
+        body.put("status", task != null ? task.getStatus().toString() : null);
+        body.put("cancelled", cancelled);
+        return cancelled ? ResponseEntity.ok(body) : ResponseEntity.accepted().body(body);
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.controller;
+
+import com.example.model.FileProcessingTask;
+import com.example.model.ProcessedRow;
+import com.example.model.ProcessedRows;
+import com.example.model.ProcessedUser;
+import com.example.service.FileProcessingService;
+import com.example.service.text.NdjsonRowWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Обработанные строки задачи постранично или потоком NDJSON.
+ * <p>
+ * {@code cursor} — порядковый номер строки результата, с которой продолжить
+ * (его возвращает предыдущая страница в {@code nextCursor}); {@code offset}
+ * пропускает указанное число подходящих под фильтр строк. Фильтр {@code status}
+ * принимает "Ок" или "не ок".
+ * <p>
+ * С {@code Accept: application/x-ndjson} или {@code format=ndjson} отдаются все
+ * подходящие строки начиная с {@code cursor}, по одной JSON-записи на строку.
+ */
+@RestController
+@RequestMapping("/api/tasks/{taskId}/rows")
+public class TaskRowsController {
+    private static final Logger logger = LoggerFactory.getLogger(TaskRowsController.class);
+    private static final String NDJSON_VALUE = "application/x-ndjson";
+    private static final int DEFAULT_LIMIT = 100;
+    private static final int MAX_LIMIT = 1000;
+    private static final int NDJSON_FLUSH_ROWS = 500;
+
+    private final FileProcessingService fileProcessingService;
+    private final ObjectMapper objectMapper;
+
+    public TaskRowsController(FileProcessingService fileProcessingService, ObjectMapper objectMapper) {
+        this.fileProcessingService = fileProcessingService;
+        this.objectMapper = objectMapper;
+    }
+
+    @GetMapping
+    public ResponseEntity<?> getRows(@PathVariable String taskId,
+                                     @RequestParam(defaultValue = "0") int cursor,
+                                     @RequestParam(defaultValue = "0") int offset,
+                                     @RequestParam(defaultValue = "" + DEFAULT_LIMIT) int limit,
+                                     @RequestParam(required = false) String status,
+                                     @RequestParam(required = false) String format,
+                                     @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept)
+            throws IOException {
+        ResponseEntity<Map<String, Object>> unavailable = checkTask(taskId);
+        if (unavailable != null) {
+            return unavailable;
+        }
+        if ("ndjson".equals(format) || (accept != null && accept.contains(NDJSON_VALUE))) {
+            return streamRows(taskId, cursor, status);
+        }
+        int pageSize = Math.min(Math.max(limit, 1), MAX_LIMIT);
+
+        // результат загружается один раз через кэш, страница начинается сразу с cursor
+        ProcessedRows data;
+        try {
+            data = fileProcessingService.getProcessedData(taskId);
+        } catch (FileNotFoundException e) {
+            return ApiErrors.error(HttpStatus.NOT_FOUND, e.getMessage());
+        }
+        List<ProcessedUser> rows = new ArrayList<>();
+        int skipped = 0;
+        int nextCursor = -1;
+        int start = Math.max(cursor, 0);
+        if (start < data.size()) {
+            ProcessedRows.Row row = data.cursor();
+            if (start > 0) {
+                row.moveTo(start - 1);
+            }
+            while (row.next()) {
+                if (!matches(row, status)) {
+                    continue;
+                }
+                if (skipped < offset) {
+                    skipped++;
+                    continue;
+                }
+                if (rows.size() == pageSize) {
+                    nextCursor = row.getIndex();
+                    break;
+                }
+                rows.add(ProcessedUser.copyOf(row));
+            }
+        }
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("taskId", taskId);
+        response.put("rows", rows);
+        response.put("hasMore", nextCursor >= 0);
+        response.put("nextCursor", nextCursor >= 0 ? nextCursor : null);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Строки пишутся по мере чтения результата и не собираются в список.
+     */
+    private ResponseEntity<StreamingResponseBody> streamRows(String taskId, int cursor, String status) {
+        StreamingResponseBody body = out -> {
+            NdjsonRowWriter writer = new NdjsonRowWriter(objectMapper.getFactory(), out);
+            int[] written = {0};
+            try {
+                fileProcessingService.readProcessedRows(taskId, (index, row) -> {
+                    if (index >= cursor && matches(row, status)) {
+                        writer.writeRow(row);
+                        if (++written[0] % NDJSON_FLUSH_ROWS == 0) {
+                            writer.flush();
+                        }
+                    }
+                    return true;
+                });
+            } catch (IOException e) {
+                logger.warn("Поток строк задачи {} прерван: {}", taskId, e.getMessage());
+                throw e;
+            }
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON_VALUE + ";charset=UTF-8"))
+                .body(body);
+    }
+
+    private ResponseEntity<Map<String, Object>> checkTask(String taskId) {
+        FileProcessingTask task = fileProcessingService.getTask(taskId);
+        if (task == null) {
+            return ApiErrors.error(HttpStatus.NOT_FOUND, "Задача не найдена");
+        }
+        if (!task.isXlsxReady()) {
+            return ApiErrors.error(HttpStatus.CONFLICT, "Задача ещё обрабатывается");
+        }
+        return null;
+    }
+
+    private static boolean matches(ProcessedRow row, String status) {
+        return status == null || status.isEmpty() || status.equals(row.getStatus());
+    }
+}
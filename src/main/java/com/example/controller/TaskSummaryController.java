@@ -0,0 +1,55 @@
+package com.example.controller;
+
+import com.example.model.FileProcessingTask;
+import com.example.model.ResultSummary;
+import com.example.service.FileProcessingService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Сводка по результату задачи без чтения строк: число строк по статусам,
+ * распределение возраста и частые ошибки. Пока задача обрабатывается,
+ * отдаётся промежуточная сводка с {@code "partial": true}.
+ */
+@RestController
+public class TaskSummaryController {
+    private final FileProcessingService fileProcessingService;
+
+    public TaskSummaryController(FileProcessingService fileProcessingService) {
+        this.fileProcessingService = fileProcessingService;
+    }
+
+    @GetMapping("/api/tasks/{taskId}/summary")
+    public ResponseEntity<Map<String, Object>> getSummary(@PathVariable String taskId) {
+        FileProcessingTask task = fileProcessingService.getTask(taskId);
+        if (task == null) {
+            return ApiErrors.error(HttpStatus.NOT_FOUND, "Задача не найдена");
+        }
+        ResultSummary summary = fileProcessingService.getSummary(taskId);
+        if (summary == null) {
+            return ApiErrors.error(HttpStatus.CONFLICT, task.getStatus() == FileProcessingTask.TaskStatus.QUEUED
+                    ? "Задача ещё в очереди" : "Сводка для задачи недоступна");
+        }
+        boolean partial = task.getSummary() == null;
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("taskId", taskId);
+        body.put("status", task.getStatus().toString());
+        body.put("partial", partial);
+        body.put("rows", summary.getRows());
+        body.put("statusCounts", summary.getStatusCounts());
+        body.put("ageHistogram", summary.getAgeHistogram());
+        body.put("topErrors", summary.getTopErrors());
+        body.put("otherErrors", summary.getOtherErrors());
+        if (partial) {
+            return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(body);
+        }
+        return ResponseEntity.ok(body);
+    }
+}
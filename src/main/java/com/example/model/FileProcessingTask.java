@@ -1,17 +1,72 @@
 package com.example.model;
 
 import java.time.Instant;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class FileProcessingTask {
     private String taskId;
     private String originalFilename;
     private String processedFilename;
-    private TaskStatus status;
+    private volatile TaskStatus status;
     private Instant createdDate;
-    private String errorDetails;
+    private volatile String errorDetails;
+    private String contentHash;
+    private volatile ResultSummary summary;
+    private final Map<Stage, StageStatus> stages = Collections.synchronizedMap(new EnumMap<>(Stage.class));
+    private final AtomicLong rowsRead = new AtomicLong();
+    private final AtomicLong rowsValid = new AtomicLong();
+    private final AtomicLong rowsFailed = new AtomicLong();
+    private final Map<Timing, Long> timings = Collections.synchronizedMap(new EnumMap<>(Timing.class));
+    private final Map<Timing, Long> timingStarts = new ConcurrentHashMap<>();
 
+    /**
+     * CANCELLED — остановлена по запросу, TIMED_OUT — не уложилась в
+     * {@code app.processing.max-duration}; как и FAILED, результата у них нет.
+     */
     public enum TaskStatus {
-        QUEUED, PROCESSING, COMPLETED, FAILED, PENDING
+        QUEUED, PROCESSING, COMPLETED, FAILED, PENDING, CANCELLED, TIMED_OUT;
+
+        /**
+         * @return задача завершилась без результата: ошибкой, отменой или по времени
+         */
+        public boolean isFailure() {
+            return this == FAILED || this == CANCELLED || this == TIMED_OUT;
+        }
+    }
+
+    /**
+     * Стадии обработки. Задача получает COMPLETED, как только готов xlsx;
+     * PDF формируется после этого отдельно.
+     */
+    public enum Stage {
+        PARSE, VALIDATE, XLSX, PDF
+    }
+
+    public enum StageStatus {
+        WAITING, RUNNING, DONE, FAILED
+    }
+
+    /**
+     * Замеры времени задачи: сохранение загрузки, ожидание в очереди и стадии
+     * обработки. Стадии идут конвейером, поэтому их времена перекрываются.
+     */
+    public enum Timing {
+        UPLOAD, QUEUE, PARSE, VALIDATE, XLSX, PDF;
+
+        public static Timing of(Stage stage) {
+            return valueOf(stage.name());
+        }
+    }
+
+    public FileProcessingTask() {
+        for (Stage stage : Stage.values()) {
+            stages.put(stage, StageStatus.WAITING);
+        }
     }
 
     public String getTaskId() {
@@ -61,4 +116,124 @@ public class FileProcessingTask {
     public void setErrorDetails(String errorDetails) {
         this.errorDetails = errorDetails;
     }
-}
\ No newline at end of file
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    /**
+     * @return сводка по результату или {@code null}, пока обработка не завершена
+     */
+    public ResultSummary getSummary() {
+        return summary;
+    }
+
+    public void setSummary(ResultSummary summary) {
+        this.summary = summary;
+    }
+
+    public StageStatus getStageStatus(Stage stage) {
+        return stages.get(stage);
+    }
+
+    public void setStageStatus(Stage stage, StageStatus status) {
+        stages.put(stage, status);
+    }
+
+    public Map<Stage, StageStatus> getStages() {
+        synchronized (stages) {
+            return new EnumMap<>(stages);
+        }
+    }
+
+    public boolean isXlsxReady() {
+        return getStageStatus(Stage.XLSX) == StageStatus.DONE;
+    }
+
+    public boolean isPdfReady() {
+        return getStageStatus(Stage.PDF) == StageStatus.DONE;
+    }
+
+    public long getRowsRead() {
+        return rowsRead.get();
+    }
+
+    public long getRowsValid() {
+        return rowsValid.get();
+    }
+
+    public long getRowsFailed() {
+        return rowsFailed.get();
+    }
+
+    public void setRowCounts(long read, long valid, long failed) {
+        rowsRead.set(read);
+        rowsValid.set(valid);
+        rowsFailed.set(failed);
+    }
+
+    public void incrementRowsRead() {
+        rowsRead.incrementAndGet();
+    }
+
+    public void recordRowResult(boolean valid) {
+        if (valid) {
+            rowsValid.incrementAndGet();
+        } else {
+            rowsFailed.incrementAndGet();
+        }
+    }
+
+    /**
+     * Сбрасывает ход обработки перед повторным запуском: стадии, счётчики строк,
+     * сводку, ошибку и замеры стадий. Замер загрузки сохраняется.
+     */
+    public void resetProgress() {
+        for (Stage stage : Stage.values()) {
+            stages.put(stage, StageStatus.WAITING);
+            timings.remove(Timing.of(stage));
+        }
+        setRowCounts(0, 0, 0);
+        errorDetails = null;
+        summary = null;
+        status = TaskStatus.QUEUED;
+    }
+
+    public void startTiming(Timing timing) {
+        timingStarts.put(timing, System.nanoTime());
+    }
+
+    /**
+     * Завершает замер и запоминает его в миллисекундах.
+     *
+     * @return длительность в наносекундах или -1, если замер не начинался
+     */
+    public long stopTiming(Timing timing) {
+        Long started = timingStarts.remove(timing);
+        if (started == null) {
+            return -1;
+        }
+        long elapsed = System.nanoTime() - started;
+        timings.put(timing, TimeUnit.NANOSECONDS.toMillis(elapsed));
+        return elapsed;
+    }
+
+    public void setTiming(Timing timing, long millis) {
+        timings.put(timing, millis);
+    }
+
+    /**
+     * @return завершённые замеры в миллисекундах
+     */
+    public Map<Timing, Long> getTimings() {
+        Map<Timing, Long> copy = new EnumMap<>(Timing.class);
+        synchronized (timings) {
+            copy.putAll(timings);
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.model;
+
+import java.time.LocalDate;
+
+/**
+ * Обработанная строка в том виде, в каком её читают xlsx, PDF и веб-представления.
+ * Реализуется как {@link ProcessedUser}, так и представлением строки
+ * {@link ProcessedRows}, которое переиспользуется от строки к строке.
+ */
+public interface ProcessedRow {
+    CharSequence getFullName();
+
+    LocalDate getBirthDate();
+
+    int getAgeYears();
+
+    int getAgeMonths();
+
+    String getStatus();
+
+    String getErrorDetails();
+}
@@ -0,0 +1,296 @@
+package com.example.model;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Результат обработки в колоночном виде: по массиву примитивов на столбец
+ * вместо объекта на строку.
+ * <ul>
+ *     <li>ФИО лежат подряд в одном {@code char[]}, границы — в массиве смещений;</li>
+ *     <li>дата рождения — номер дня от эпохи в {@code int[]};</li>
+ *     <li>возраст — {@code int[]} лет и {@code byte[]} месяцев;</li>
+ *     <li>статус и текст ошибки кодируются словарём: одинаковые строки хранятся один раз.</li>
+ * </ul>
+ * Строки читаются через {@link Row} — представление, которое переставляется
+ * с одной строки на другую и не создаёт объектов на строку. Значения, полученные
+ * из представления, действительны до следующего перемещения.
+ * После {@link Builder#build()} содержимое не меняется.
+ */
+public final class ProcessedRows implements Iterable<ProcessedRow> {
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    private static final ProcessedRows EMPTY = new Builder().build();
+
+    private final int size;
+    private final char[] names;
+    private final int[] nameOffsets;
+    private final int[] birthEpochDays;
+    private final int[] ageYears;
+    private final byte[] ageMonths;
+    private final int[] statusCodes;
+    private final int[] errorCodes;
+    private final String[] dictionary;
+    private final int validCount;
+
+    private ProcessedRows(Builder builder) {
+        this.size = builder.size;
+        this.names = Arrays.copyOf(builder.names, builder.nameLength);
+        this.nameOffsets = Arrays.copyOf(builder.nameOffsets, builder.size + 1);
+        this.birthEpochDays = Arrays.copyOf(builder.birthEpochDays, builder.size);
+        this.ageYears = Arrays.copyOf(builder.ageYears, builder.size);
+        this.ageMonths = Arrays.copyOf(builder.ageMonths, builder.size);
+        this.statusCodes = Arrays.copyOf(builder.statusCodes, builder.size);
+        this.errorCodes = Arrays.copyOf(builder.errorCodes, builder.size);
+        this.dictionary = builder.dictionary.keySet().toArray(new String[0]);
+        for (Map.Entry<String, Integer> entry : builder.dictionary.entrySet()) {
+            dictionary[entry.getValue()] = entry.getKey();
+        }
+        this.validCount = builder.validCount;
+    }
+
+    public static ProcessedRows empty() {
+        return EMPTY;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int getValidCount() {
+        return validCount;
+    }
+
+    /**
+     * Представление, стоящее перед первой строкой.
+     */
+    public Row cursor() {
+        return new Row();
+    }
+
+    /**
+     * Итератор возвращает одно и то же представление, переставленное на очередную строку.
+     */
+    @Override
+    public Iterator<ProcessedRow> iterator() {
+        Row row = new Row();
+        return new Iterator<ProcessedRow>() {
+            @Override
+            public boolean hasNext() {
+                return row.index + 1 < size;
+            }
+
+            @Override
+            public ProcessedRow next() {
+                if (!row.next()) {
+                    throw new NoSuchElementException();
+                }
+                return row;
+            }
+        };
+    }
+
+    /**
+     * Оценка занимаемой памяти в байтах: массивы столбцов и строки словаря.
+     */
+    public long getMemoryFootprint() {
+        long bytes = 96;
+        bytes += arrayBytes(names.length, 2);
+        bytes += arrayBytes(nameOffsets.length, 4);
+        bytes += arrayBytes(birthEpochDays.length, 4);
+        bytes += arrayBytes(ageYears.length, 4);
+        bytes += arrayBytes(ageMonths.length, 1);
+        bytes += arrayBytes(statusCodes.length, 4);
+        bytes += arrayBytes(errorCodes.length, 4);
+        bytes += arrayBytes(dictionary.length, 4);
+        for (String value : dictionary) {
+            bytes += 40 + 2L * value.length();
+        }
+        return bytes;
+    }
+
+    private static long arrayBytes(int length, int elementBytes) {
+        return 16 + (long) length * elementBytes;
+    }
+
+    /**
+     * Представление одной строки результата.
+     */
+    public final class Row implements ProcessedRow {
+        private final Name name = new Name();
+        private int index = -1;
+
+        private Row() {
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public boolean next() {
+            if (index + 1 >= size) {
+                return false;
+            }
+            index++;
+            return true;
+        }
+
+        public Row moveTo(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Строка " + index + " из " + size);
+            }
+            this.index = index;
+            return this;
+        }
+
+        /**
+         * ФИО без копирования: последовательность символов поверх общего буфера.
+         */
+        @Override
+        public CharSequence getFullName() {
+            return name;
+        }
+
+        public boolean hasBirthDate() {
+            return birthEpochDays[index] != NO_DATE;
+        }
+
+        /**
+         * @return день от 1970-01-01; имеет смысл, только если {@link #hasBirthDate()}
+         */
+        public int getBirthEpochDay() {
+            return birthEpochDays[index];
+        }
+
+        @Override
+        public LocalDate getBirthDate() {
+            return hasBirthDate() ? LocalDate.ofEpochDay(birthEpochDays[index]) : null;
+        }
+
+        @Override
+        public int getAgeYears() {
+            return ageYears[index];
+        }
+
+        @Override
+        public int getAgeMonths() {
+            return ageMonths[index];
+        }
+
+        @Override
+        public String getStatus() {
+            return dictionary[statusCodes[index]];
+        }
+
+        @Override
+        public String getErrorDetails() {
+            return dictionary[errorCodes[index]];
+        }
+
+        private final class Name implements CharSequence {
+            @Override
+            public int length() {
+                return nameOffsets[index + 1] - nameOffsets[index];
+            }
+
+            @Override
+            public char charAt(int i) {
+                return names[nameOffsets[index] + i];
+            }
+
+            @Override
+            public CharSequence subSequence(int start, int end) {
+                return new String(names, nameOffsets[index] + start, end - start);
+            }
+
+            @Override
+            public String toString() {
+                return new String(names, nameOffsets[index], length());
+            }
+        }
+    }
+
+    /**
+     * Накопитель строк: массивы растут удвоением, {@link #build()} обрезает их по размеру.
+     * Не потокобезопасен.
+     */
+    public static final class Builder {
+        private int size;
+        private char[] names = new char[256];
+        private int nameLength;
+        private int[] nameOffsets = new int[17];
+        private int[] birthEpochDays = new int[16];
+        private int[] ageYears = new int[16];
+        private byte[] ageMonths = new byte[16];
+        private int[] statusCodes = new int[16];
+        private int[] errorCodes = new int[16];
+        private final Map<String, Integer> dictionary = new HashMap<>();
+        private int validCount;
+
+        private Builder() {
+        }
+
+        public Builder add(ProcessedRow row) {
+            ensureCapacity(size + 1);
+            CharSequence name = row.getFullName();
+            int nameLen = name != null ? name.length() : 0;
+            if (nameLength + nameLen > names.length) {
+                names = Arrays.copyOf(names, Math.max(names.length * 2, nameLength + nameLen));
+            }
+            for (int i = 0; i < nameLen; i++) {
+                names[nameLength++] = name.charAt(i);
+            }
+            nameOffsets[size + 1] = nameLength;
+
+            LocalDate birthDate = row.getBirthDate();
+            long epochDay = birthDate != null ? birthDate.toEpochDay() : NO_DATE;
+            // даты за пределами ±5 млн лет в int не помещаются и считаются отсутствующими
+            birthEpochDays[size] = epochDay == (int) epochDay ? (int) epochDay : NO_DATE;
+            ageYears[size] = row.getAgeYears();
+            ageMonths[size] = (byte) row.getAgeMonths();
+            statusCodes[size] = encode(row.getStatus());
+            errorCodes[size] = encode(row.getErrorDetails());
+            if ("Ок".equals(row.getStatus())) {
+                validCount++;
+            }
+            size++;
+            return this;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public ProcessedRows build() {
+            return new ProcessedRows(this);
+        }
+
+        private int encode(String value) {
+            return dictionary.computeIfAbsent(value != null ? value : "", key -> dictionary.size());
+        }
+
+        private void ensureCapacity(int rows) {
+            if (rows <= birthEpochDays.length) {
+                return;
+            }
+            int capacity = Math.max(birthEpochDays.length * 2, rows);
+            nameOffsets = Arrays.copyOf(nameOffsets, capacity + 1);
+            birthEpochDays = Arrays.copyOf(birthEpochDays, capacity);
+            ageYears = Arrays.copyOf(ageYears, capacity);
+            ageMonths = Arrays.copyOf(ageMonths, capacity);
+            statusCodes = Arrays.copyOf(statusCodes, capacity);
+            errorCodes = Arrays.copyOf(errorCodes, capacity);
+        }
+    }
+}
@@ -2,7 +2,7 @@ package com.example.model;
 
 import java.time.LocalDate;
 
-public class ProcessedUser {
+public class ProcessedUser implements ProcessedRow {
     private String fullName;
     private LocalDate birthDate;
     private int ageYears;
@@ -16,6 +16,21 @@ public class ProcessedUser {
         this.errorDetails = "";
     }
 
+    /**
+     * Копия строки, которая остаётся валидной после того, как представление сдвинулось.
+     */
+    public static ProcessedUser copyOf(ProcessedRow row) {
+        ProcessedUser user = new ProcessedUser();
+        user.setFullName(row.getFullName().toString());
+        user.setBirthDate(row.getBirthDate());
+        user.setAgeYears(row.getAgeYears());
+        user.setAgeMonths(row.getAgeMonths());
+        user.setStatus(row.getStatus());
+        user.setErrorDetails(row.getErrorDetails());
+        return user;
+    }
+
+    @Override
     public String getFullName() {
         return fullName;
     }
@@ -24,6 +39,7 @@ public class ProcessedUser {
         this.fullName = fullName != null ? fullName : "";
     }
 
+    @Override
     public LocalDate getBirthDate() {
         return birthDate;
     }
@@ -32,6 +48,7 @@ public class ProcessedUser {
         this.birthDate = birthDate;
     }
 
+    @Override
     public int getAgeYears() {
         return ageYears;
     }
@@ -40,6 +57,7 @@ public class ProcessedUser {
         this.ageYears = ageYears;
     }
 
+    @Override
     public int getAgeMonths() {
         return ageMonths;
     }
@@ -48,6 +66,7 @@ public class ProcessedUser {
         this.ageMonths = ageMonths;
     }
 
+    @Override
     public String getStatus() {
         return status;
     }
@@ -56,6 +75,7 @@ public class ProcessedUser {
         this.status = status != null ? status : "";
     }
 
+    @Override
     public String getErrorDetails() {
         return errorDetails;
     }
@@ -0,0 +1,81 @@
+package com.example.model;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Пакет файлов, загруженных одним запросом. Каждый файл обрабатывается
+ * отдельной задачей; пакет хранит только их список.
+ */
+public class ProcessingBatch {
+    private String batchId;
+    private Instant createdDate;
+    private List<Entry> entries = new ArrayList<>();
+
+    public String getBatchId() {
+        return batchId;
+    }
+
+    public void setBatchId(String batchId) {
+        this.batchId = batchId;
+    }
+
+    public Instant getCreatedDate() {
+        return createdDate;
+    }
+
+    public void setCreatedDate(Instant createdDate) {
+        this.createdDate = createdDate;
+    }
+
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    public void setEntries(List<Entry> entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * Файл пакета: taskId, если файл принят в обработку, иначе причина отказа.
+     */
+    public static class Entry {
+        private String filename;
+        private String taskId;
+        private String error;
+
+        public Entry() {
+        }
+
+        public Entry(String filename, String taskId, String error) {
+            this.filename = filename;
+            this.taskId = taskId;
+            this.error = error;
+        }
+
+        public String getFilename() {
+            return filename;
+        }
+
+        public void setFilename(String filename) {
+            this.filename = filename;
+        }
+
+        public String getTaskId() {
+            return taskId;
+        }
+
+        public void setTaskId(String taskId) {
+            this.taskId = taskId;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public void setError(String error) {
+            this.error = error;
+        }
+    }
+}
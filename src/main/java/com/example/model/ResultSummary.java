@@ -0,0 +1,154 @@
+package com.example.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Сводка по результату задачи: число строк по статусам, распределение
+ * возраста по десятилетиям и самые частые категории ошибок. Собирается
+ * {@link Builder} прямо во время обработки, поэтому для неё не нужно
+ * перечитывать строки результата; хранится вместе с задачей.
+ */
+public class ResultSummary {
+    /** Категорий больше этого числа не различаются: новые ошибки сверх него идут в {@link #getOtherErrors()}. */
+    public static final int MAX_ERROR_CATEGORIES = 256;
+    public static final int TOP_ERRORS = 10;
+    private static final int AGE_BUCKET_YEARS = 10;
+    private static final int AGE_BUCKETS = 11;
+
+    private long rows;
+    private Map<String, Long> statusCounts = new LinkedHashMap<>();
+    private Map<String, Long> ageHistogram = new LinkedHashMap<>();
+    private Map<String, Long> topErrors = new LinkedHashMap<>();
+    private long otherErrors;
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public void setRows(long rows) {
+        this.rows = rows;
+    }
+
+    public Map<String, Long> getStatusCounts() {
+        return statusCounts;
+    }
+
+    public void setStatusCounts(Map<String, Long> statusCounts) {
+        this.statusCounts = statusCounts;
+    }
+
+    /**
+     * Число строк с датой рождения по возрасту: "0-9", "10-19", ..., "100+".
+     */
+    public Map<String, Long> getAgeHistogram() {
+        return ageHistogram;
+    }
+
+    public void setAgeHistogram(Map<String, Long> ageHistogram) {
+        this.ageHistogram = ageHistogram;
+    }
+
+    /**
+     * До {@value #TOP_ERRORS} категорий ошибок по убыванию числа строк.
+     */
+    public Map<String, Long> getTopErrors() {
+        return topErrors;
+    }
+
+    public void setTopErrors(Map<String, Long> topErrors) {
+        this.topErrors = topErrors;
+    }
+
+    /**
+     * Строки с ошибками, категории которых не вошли в {@link #getTopErrors()}.
+     */
+    public long getOtherErrors() {
+        return otherErrors;
+    }
+
+    public void setOtherErrors(long otherErrors) {
+        this.otherErrors = otherErrors;
+    }
+
+    /**
+     * Категория ошибки — текст до двоеточия: "Некорректный формат даты: 31 02 1990"
+     * и "Некорректный формат даты: abc" считаются вместе.
+     */
+    public static String errorCategory(String errorDetails) {
+        int colon = errorDetails.indexOf(':');
+        return (colon >= 0 ? errorDetails.substring(0, colon) : errorDetails).trim();
+    }
+
+    /**
+     * Накопитель сводки. Строки добавляются по одной из потока обработки,
+     * {@link #build()} можно вызывать в любой момент из другого потока,
+     * чтобы получить промежуточную сводку.
+     */
+    public static final class Builder {
+        private long rows;
+        private final Map<String, long[]> statusCounts = new LinkedHashMap<>();
+        private final long[] ageBuckets = new long[AGE_BUCKETS];
+        private final Map<String, long[]> errorCounts = new HashMap<>();
+        private long uncategorizedErrors;
+
+        private Builder() {
+        }
+
+        public synchronized void add(ProcessedRow row) {
+            rows++;
+            String status = row.getStatus() != null ? row.getStatus() : "";
+            statusCounts.computeIfAbsent(status, key -> new long[1])[0]++;
+            if (row.getBirthDate() != null) {
+                int bucket = Math.max(row.getAgeYears(), 0) / AGE_BUCKET_YEARS;
+                ageBuckets[Math.min(bucket, AGE_BUCKETS - 1)]++;
+            }
+            String errorDetails = row.getErrorDetails();
+            if (errorDetails != null && !errorDetails.isEmpty()) {
+                String category = errorCategory(errorDetails);
+                long[] count = errorCounts.get(category);
+                if (count == null && errorCounts.size() < MAX_ERROR_CATEGORIES) {
+                    count = new long[1];
+                    errorCounts.put(category, count);
+                }
+                if (count != null) {
+                    count[0]++;
+                } else {
+                    uncategorizedErrors++;
+                }
+            }
+        }
+
+        public synchronized ResultSummary build() {
+            ResultSummary summary = new ResultSummary();
+            summary.rows = rows;
+            statusCounts.forEach((status, count) -> summary.statusCounts.put(status, count[0]));
+            for (int i = 0; i < AGE_BUCKETS; i++) {
+                String label = i == AGE_BUCKETS - 1
+                        ? i * AGE_BUCKET_YEARS + "+"
+                        : i * AGE_BUCKET_YEARS + "-" + (i * AGE_BUCKET_YEARS + AGE_BUCKET_YEARS - 1);
+                summary.ageHistogram.put(label, ageBuckets[i]);
+            }
+
+            List<Map.Entry<String, Long>> errors = new ArrayList<>(errorCounts.size());
+            errorCounts.forEach((category, count) -> errors.add(Map.entry(category, count[0])));
+            errors.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+            summary.otherErrors = uncategorizedErrors;
+            for (Map.Entry<String, Long> error : errors) {
+                if (summary.topErrors.size() < TOP_ERRORS) {
+                    summary.topErrors.put(error.getKey(), error.getValue());
+                } else {
+                    summary.otherErrors += error.getValue();
+                }
+            }
+            return summary;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.model;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Загрузка файла частями. Фрагменты пишутся сразу в итоговый файл по своим
+ * смещениям; {@code received} — принятые диапазоны {@code [начало, конец)},
+ * упорядоченные и без пересечений.
+ */
+public class ResumableUpload {
+    private String uploadId;
+    private String filename;
+    private long length;
+    private Instant createdDate;
+    private List<long[]> received = new ArrayList<>();
+    /** Задача, созданная после завершения загрузки. */
+    private String taskId;
+
+    public String getUploadId() {
+        return uploadId;
+    }
+
+    public void setUploadId(String uploadId) {
+        this.uploadId = uploadId;
+    }
+
+    public String getFilename() {
+        return filename;
+    }
+
+    public void setFilename(String filename) {
+        this.filename = filename;
+    }
+
+    public long getLength() {
+        return length;
+    }
+
+    public void setLength(long length) {
+        this.length = length;
+    }
+
+    public Instant getCreatedDate() {
+        return createdDate;
+    }
+
+    public void setCreatedDate(Instant createdDate) {
+        this.createdDate = createdDate;
+    }
+
+    public List<long[]> getReceived() {
+        return received;
+    }
+
+    public void setReceived(List<long[]> received) {
+        this.received = received;
+    }
+
+    public String getTaskId() {
+        return taskId;
+    }
+
+    public void setTaskId(String taskId) {
+        this.taskId = taskId;
+    }
+}
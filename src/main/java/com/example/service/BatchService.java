@@ -0,0 +1,400 @@
+package com.example.service;
+
+import com.example.config.AppProperties;
+import com.example.model.FileProcessingTask;
+import com.example.model.ProcessedRow;
+import com.example.model.ProcessingBatch;
+import com.example.service.excel.StreamingXlsxWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.FileNotFoundException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Пакетная загрузка: несколько .xlsx/.csv или .zip-архив за один запрос. Архив
+ * распаковывается потоком, каждая запись сразу сохраняется на диск и ставится
+ * в общую очередь отдельной задачей, поэтому файлы пакета обрабатываются
+ * параллельно наравне с обычными загрузками.
+ * <p>
+ * Список задач пакета хранится в {@code batch_<batchId>.json} рядом с
+ * результатами; сводные xlsx и PDF строятся при первом запросе после того,
+ * как обработаны все файлы. Эти файлы не принадлежат задачам, не входят в
+ * квоту каталога загрузок и удаляются {@link UploadsReaper} по общему TTL.
+ */
+@Service
+public class BatchService {
+    private static final Logger logger = LoggerFactory.getLogger(BatchService.class);
+
+    static final String FILE_PREFIX = "batch_";
+
+    private final FileProcessingService fileProcessingService;
+    private final TaskEventPublisher taskEvents;
+    private final ObjectMapper objectMapper;
+    private final AppProperties properties;
+    private final Path uploadDir;
+    private final Object[] combineLocks = new Object[16];
+
+    public BatchService(AppProperties properties, FileProcessingService fileProcessingService,
+                        TaskEventPublisher taskEvents, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.fileProcessingService = fileProcessingService;
+        this.taskEvents = taskEvents;
+        this.objectMapper = objectMapper;
+        this.uploadDir = Paths.get(properties.getUploadDir());
+        for (int i = 0; i < combineLocks.length; i++) {
+            combineLocks[i] = new Object();
+        }
+    }
+
+    public ProcessingBatch processBatch(List<MultipartFile> files) throws IOException {
+        ProcessingBatch batch = new ProcessingBatch();
+        batch.setBatchId(UUID.randomUUID().toString());
+        batch.setCreatedDate(Instant.now());
+
+        boolean queueFull = false;
+        for (MultipartFile file : files) {
+            if (file.isEmpty()) {
+                continue;
+            }
+            if (isLimitReached(batch)) {
+                break;
+            }
+            String filename = baseName(file.getOriginalFilename());
+            try (InputStream in = file.getInputStream()) {
+                if (filename.toLowerCase(Locale.ROOT).endsWith(".zip")) {
+                    queueFull |= unpack(batch, filename, in);
+                } else {
+                    queueFull |= addEntry(batch, filename, in);
+                }
+            }
+        }
+
+        if (batch.getEntries().isEmpty()) {
+            throw new IOException("В пакете нет файлов .xlsx или .csv");
+        }
+        if (allRejected(batch)) {
+            if (queueFull) {
+                throw new JobRejectedException("Очередь обработки заполнена, повторите позже",
+                        properties.getScheduler().getRetryAfterSeconds());
+            }
+            throw new IOException(batch.getEntries().get(0).getError());
+        }
+
+        save(batch);
+        logger.info("Пакет {}: принято файлов {}", batch.getBatchId(), batch.getEntries().size());
+        return batch;
+    }
+
+    /**
+     * @return была ли хотя бы одна запись отклонена из-за заполненной очереди
+     */
+    private boolean unpack(ProcessingBatch batch, String archiveName, InputStream in) throws IOException {
+        ZipInputStream zip = new ZipInputStream(in);
+        ZipEntry zipEntry;
+        boolean queueFull = false;
+        while (!isLimitReached(batch) && (zipEntry = zip.getNextEntry()) != null) {
+            String name = baseName(zipEntry.getName());
+            if (zipEntry.isDirectory() || zipEntry.getName().startsWith("__MACOSX/") || name.startsWith(".")) {
+                continue;
+            }
+            if (!FileProcessingService.isSupportedInput(name)) {
+                logger.debug("Пакет {}: в архиве {} пропущен файл {}", batch.getBatchId(), archiveName, name);
+                continue;
+            }
+            queueFull |= addEntry(batch, name, zip);
+            zip.closeEntry();
+        }
+        return queueFull;
+    }
+
+    /**
+     * @return {@code true}, если файл отклонён из-за заполненной очереди
+     */
+    private boolean addEntry(ProcessingBatch batch, String filename, InputStream content) throws IOException {
+        try {
+            InputStream limited = new SizeLimitedInputStream(content,
+                    properties.getBatch().getMaxEntrySize().toBytes(), filename);
+            String taskId = fileProcessingService.processStream(filename, limited);
+            batch.getEntries().add(new ProcessingBatch.Entry(filename, taskId, null));
+            return false;
+        } catch (IOException e) {
+            logger.warn("Пакет {}: файл {} не принят: {}", batch.getBatchId(), filename, e.getMessage());
+            batch.getEntries().add(new ProcessingBatch.Entry(filename, null, e.getMessage()));
+            return e instanceof JobRejectedException;
+        }
+    }
+
+    private boolean isLimitReached(ProcessingBatch batch) {
+        if (batch.getEntries().size() < properties.getBatch().getMaxFiles()) {
+            return false;
+        }
+        logger.warn("Пакет {}: достигнут предел в {} файлов, остальные пропущены",
+                batch.getBatchId(), properties.getBatch().getMaxFiles());
+        return true;
+    }
+
+    private static boolean allRejected(ProcessingBatch batch) {
+        return batch.getEntries().stream().allMatch(entry -> entry.getTaskId() == null);
+    }
+
+    public ProcessingBatch getBatch(String batchId) throws IOException {
+        Path manifest = batchFile(batchId, ".json");
+        if (!Files.exists(manifest)) {
+            return null;
+        }
+        return objectMapper.readValue(manifest.toFile(), ProcessingBatch.class);
+    }
+
+    /**
+     * Состояние пакета: по строке на файл и общий признак готовности.
+     */
+    public Map<String, Object> snapshot(ProcessingBatch batch) {
+        List<Map<String, Object>> files = new ArrayList<>();
+        int finished = 0;
+        int completed = 0;
+        for (ProcessingBatch.Entry entry : batch.getEntries()) {
+            Map<String, Object> file = new LinkedHashMap<>();
+            file.put("filename", entry.getFilename());
+            file.put("taskId", entry.getTaskId());
+            FileProcessingTask task = entry.getTaskId() != null
+                    ? fileProcessingService.getTask(entry.getTaskId()) : null;
+            if (task == null) {
+                file.put("status", FileProcessingTask.TaskStatus.FAILED.toString());
+                file.put("error", entry.getError() != null ? entry.getError() : "Задача удалена");
+                finished++;
+            } else {
+                file.put("status", task.getStatus().toString());
+                file.put("rowsRead", task.getRowsRead());
+                file.put("rowsValid", task.getRowsValid());
+                file.put("rowsFailed", task.getRowsFailed());
+                if (task.getErrorDetails() != null) {
+                    file.put("error", task.getErrorDetails());
+                }
+                if (isDone(task)) {
+                    finished++;
+                }
+                if (task.getStatus() == FileProcessingTask.TaskStatus.COMPLETED) {
+                    completed++;
+                }
+            }
+            files.add(file);
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("batchId", batch.getBatchId());
+        response.put("files", files);
+        response.put("total", files.size());
+        response.put("finished", finished);
+        response.put("completed", completed);
+        response.put("done", finished == files.size());
+        return response;
+    }
+
+    /**
+     * Поток состояния пакета: событие приходит при каждом изменении любой из его задач.
+     */
+    public SseEmitter subscribe(ProcessingBatch batch) {
+        List<String> taskIds = new ArrayList<>();
+        for (ProcessingBatch.Entry entry : batch.getEntries()) {
+            if (entry.getTaskId() != null) {
+                taskIds.add(entry.getTaskId());
+            }
+        }
+        return taskEvents.subscribe(taskIds, () -> snapshot(batch));
+    }
+
+    public Path getCombinedXlsx(String batchId) throws IOException {
+        return combined(batchId, ".xlsx");
+    }
+
+    public Path getCombinedPdf(String batchId) throws IOException {
+        return combined(batchId, ".pdf");
+    }
+
+    private Path combined(String batchId, String extension) throws IOException {
+        ProcessingBatch batch = getBatch(batchId);
+        if (batch == null) {
+            throw new FileNotFoundException("Пакет не найден");
+        }
+        List<String> taskIds = new ArrayList<>();
+        for (ProcessingBatch.Entry entry : batch.getEntries()) {
+            FileProcessingTask task = entry.getTaskId() != null
+                    ? fileProcessingService.getTask(entry.getTaskId()) : null;
+            if (task == null) {
+                continue;
+            }
+            if (!isDone(task)) {
+                throw new FileNotFoundException("Пакет ещё обрабатывается");
+            }
+            if (task.getStatus() == FileProcessingTask.TaskStatus.COMPLETED && !taskIds.contains(task.getTaskId())) {
+                taskIds.add(task.getTaskId());
+            }
+        }
+        if (taskIds.isEmpty()) {
+            throw new FileNotFoundException("В пакете нет обработанных файлов");
+        }
+
+        Path target = batchFile(batchId, extension);
+        synchronized (combineLocks[Math.floorMod(batchId.hashCode(), combineLocks.length)]) {
+            if (Files.exists(target)) {
+                return target;
+            }
+            logger.info("Пакет {}: формирование сводного файла {}", batchId, target.getFileName());
+            Path tmp = ResultFile.tempFileFor(target);
+            try {
+                if (".pdf".equals(extension)) {
+                    writeCombinedPdf(taskIds, tmp);
+                } else {
+                    writeCombinedXlsx(taskIds, tmp);
+                }
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        }
+        return target;
+    }
+
+    private void writeCombinedXlsx(List<String> taskIds, Path output) throws IOException {
+        AppProperties.Output settings = properties.getOutput();
+        try (StreamingXlsxWriter writer = new StreamingXlsxWriter(settings.getRowWindow(),
+                settings.isCompressTempFiles(), settings.isSplitByStatus())) {
+            int rowNum = 1;
+            for (String taskId : taskIds) {
+                for (ProcessedRow row : fileProcessingService.getProcessedData(taskId)) {
+                    writer.writeRow(rowNum++, row);
+                }
+            }
+            writer.writeTo(output);
+        }
+    }
+
+    private void writeCombinedPdf(List<String> taskIds, Path output) throws IOException {
+        // части загружаются по одной, когда до них дошла отрисовка, а не все заранее
+        Iterable<ProcessedRow> rows = () -> new Iterator<ProcessedRow>() {
+            private int part;
+            private Iterator<ProcessedRow> current = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext() && part < taskIds.size()) {
+                    try {
+                        current = fileProcessingService.getProcessedData(taskIds.get(part++)).iterator();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                return current.hasNext();
+            }
+
+            @Override
+            public ProcessedRow next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.next();
+            }
+        };
+        try (OutputStream out = Files.newOutputStream(output)) {
+            // сводки частей не складываются без потерь (топ ошибок усечён), поэтому в шапке её нет
+            fileProcessingService.renderPdf(rows, null, out);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void save(ProcessingBatch batch) throws IOException {
+        Path manifest = batchFile(batch.getBatchId(), ".json");
+        Path tmp = manifest.resolveSibling(manifest.getFileName() + ".tmp");
+        objectMapper.writeValue(tmp.toFile(), batch);
+        Files.move(tmp, manifest, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Path batchFile(String batchId, String extension) {
+        // UUID.fromString не пропустит в имя файла ничего, кроме идентификатора
+        return uploadDir.resolve(FILE_PREFIX + UUID.fromString(batchId) + extension);
+    }
+
+    private static boolean isDone(FileProcessingTask task) {
+        return task.getStatus() == FileProcessingTask.TaskStatus.COMPLETED
+                || task.getStatus().isFailure();
+    }
+
+    private static String baseName(String name) {
+        if (name == null) {
+            return "";
+        }
+        return name.substring(Math.max(name.lastIndexOf('/'), name.lastIndexOf('\\')) + 1);
+    }
+
+    /**
+     * Обрывает чтение записи архива, распаковавшейся больше допустимого.
+     */
+    private static final class SizeLimitedInputStream extends FilterInputStream {
+        private final long limit;
+        private final String filename;
+        private long read;
+
+        SizeLimitedInputStream(InputStream in, long limit, String filename) {
+            super(in);
+            this.limit = limit;
+            this.filename = filename;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count(n);
+            }
+            return n;
+        }
+
+        @Override
+        public void close() {
+            // запись архива закрывает ZipInputStream
+        }
+
+        private void count(int n) throws IOException {
+            read += n;
+            if (read > limit) {
+                throw new IOException("Файл " + filename + " больше " + limit + " байт");
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.service;
+
+import com.example.model.ProcessedUser;
+import com.example.service.excel.SheetRow;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Собирает прочитанные строки в пачки и проверяет их на пуле {@code pool}.
+ * Результаты отдаются в {@link RowSink} строго в исходном порядке строк,
+ * поэтому xlsx и PDF совпадают с последовательной обработкой.
+ * Число пачек в работе ограничено, чтобы чтение не убегало вперёд записи;
+ * пока поток чтения ждёт пачку, он проверяет {@link JobControl}, так что отмена
+ * и бюджет времени срабатывают и во время ожидания.
+ * Без пула строки проверяются сразу в вызывающем потоке.
+ */
+class ChunkedRowProcessor {
+    private static final long WAIT_MILLIS = 100;
+
+    @FunctionalInterface
+    interface RowSink {
+        void accept(int rowNum, ProcessedUser user) throws Exception;
+    }
+
+    private final ExecutorService pool;
+    private final int chunkSize;
+    private final int maxInFlight;
+    private final Function<SheetRow, ProcessedUser> validator;
+    private final RowSink sink;
+    private final JobControl control;
+    private final ArrayDeque<Future<Chunk>> inFlight = new ArrayDeque<>();
+    private List<SheetRow> pending;
+
+    ChunkedRowProcessor(ExecutorService pool, int chunkSize, int maxInFlight,
+                        Function<SheetRow, ProcessedUser> validator, RowSink sink, JobControl control) {
+        this.pool = pool;
+        this.chunkSize = Math.max(chunkSize, 1);
+        this.maxInFlight = Math.max(maxInFlight, 1);
+        this.validator = validator;
+        this.sink = sink;
+        this.control = control;
+        this.pending = new ArrayList<>(this.chunkSize);
+    }
+
+    void add(SheetRow row) throws Exception {
+        if (pool == null) {
+            sink.accept(row.getRowNum(), validator.apply(row));
+            return;
+        }
+        pending.add(row);
+        if (pending.size() >= chunkSize) {
+            submitPending();
+            drain(false);
+        }
+    }
+
+    void finish() throws Exception {
+        if (pool == null) {
+            return;
+        }
+        submitPending();
+        drain(true);
+    }
+
+    void cancel() {
+        for (Future<Chunk> future : inFlight) {
+            future.cancel(true);
+        }
+        inFlight.clear();
+        pending.clear();
+    }
+
+    private void submitPending() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<SheetRow> rows = pending;
+        pending = new ArrayList<>(chunkSize);
+        inFlight.add(pool.submit(() -> validate(rows)));
+    }
+
+    private Chunk validate(List<SheetRow> rows) {
+        List<ProcessedUser> users = new ArrayList<>(rows.size());
+        for (SheetRow row : rows) {
+            users.add(validator.apply(row));
+        }
+        return new Chunk(rows, users);
+    }
+
+    private void drain(boolean all) throws Exception {
+        while (!inFlight.isEmpty()
+                && (all || inFlight.size() > maxInFlight || inFlight.peek().isDone())) {
+            Chunk chunk;
+            try {
+                chunk = await(inFlight.peek());
+                inFlight.poll();
+            } catch (ExecutionException e) {
+                cancel();
+                Throwable cause = e.getCause();
+                throw cause instanceof Exception ? (Exception) cause : e;
+            } catch (InterruptedException e) {
+                cancel();
+                Thread.currentThread().interrupt();
+                throw e;
+            }
+            for (int i = 0; i < chunk.rows.size(); i++) {
+                sink.accept(chunk.rows.get(i).getRowNum(), chunk.users.get(i));
+            }
+        }
+    }
+
+    private Chunk await(Future<Chunk> future) throws ExecutionException, InterruptedException {
+        while (true) {
+            try {
+                return future.get(WAIT_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                control.checkpoint();
+            }
+        }
+    }
+
+    private static final class Chunk {
+        private final List<SheetRow> rows;
+        private final List<ProcessedUser> users;
+
+        Chunk(List<SheetRow> rows, List<ProcessedUser> users) {
+            this.rows = rows;
+            this.users = users;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.service;
+
+import com.example.config.AppProperties;
+import com.example.model.FileProcessingTask;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Индекс результатов по SHA-256 содержимого загрузки. Повторная загрузка тех же
+ * байтов получает taskId уже готовой или ещё обрабатываемой задачи вместо новой.
+ * Индекс восстанавливается из реестра задач и чистится при удалении задач.
+ * Готовая задача подходит, только если у неё есть результат в каждом формате
+ * из текущих {@code app.output.formats}. Возраст в результате считается от даты
+ * запуска задания, поэтому задача, созданная не сегодня, тоже не подходит.
+ */
+@Component
+public class ContentIndex {
+    private static final Logger logger = LoggerFactory.getLogger(ContentIndex.class);
+
+    private final Map<String, String> taskIdByHash = new ConcurrentHashMap<>();
+    private final TaskStore taskRegistry;
+    private final Path uploadDir;
+    private final List<AppProperties.Output.Format> formats;
+    private final Clock clock;
+    private final AtomicLong completedHits = new AtomicLong();
+    private final AtomicLong inFlightHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    @Autowired
+    public ContentIndex(AppProperties properties, TaskStore taskRegistry) {
+        this(properties, taskRegistry, Clock.systemDefaultZone());
+    }
+
+    ContentIndex(AppProperties properties, TaskStore taskRegistry, Clock clock) {
+        this.taskRegistry = taskRegistry;
+        this.uploadDir = Paths.get(properties.getUploadDir());
+        this.formats = List.copyOf(properties.getOutput().getFormats());
+        this.clock = clock;
+    }
+
+    @PostConstruct
+    public void init() {
+        for (FileProcessingTask task : taskRegistry.getAll()) {
+            if (task.getContentHash() != null && (task.getStatus() == null || !task.getStatus().isFailure())) {
+                taskIdByHash.putIfAbsent(task.getContentHash(), task.getTaskId());
+            }
+        }
+        taskRegistry.addRemovalListener(task -> release(task.getContentHash(), task.getTaskId()));
+        logger.info("Индекс содержимого: {} записей", taskIdByHash.size());
+    }
+
+    /**
+     * Закрепляет хеш за новой задачей.
+     *
+     * @return taskId задачи с тем же содержимым, если её результат можно использовать,
+     * иначе {@code null} — тогда хеш закреплён за {@code taskId}
+     */
+    public String claim(String contentHash, String taskId) {
+        while (true) {
+            String existing = taskIdByHash.putIfAbsent(contentHash, taskId);
+            if (existing == null) {
+                misses.incrementAndGet();
+                return null;
+            }
+            FileProcessingTask task = taskRegistry.get(existing);
+            if (task != null && isReusable(task)) {
+                if (task.getStatus() == FileProcessingTask.TaskStatus.COMPLETED) {
+                    completedHits.incrementAndGet();
+                } else {
+                    inFlightHits.incrementAndGet();
+                }
+                return existing;
+            }
+            if (taskIdByHash.replace(contentHash, existing, taskId)) {
+                misses.incrementAndGet();
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Снимает закрепление, например если задача не была принята или завершилась ошибкой.
+     */
+    public void release(String contentHash, String taskId) {
+        if (contentHash != null) {
+            taskIdByHash.remove(contentHash, taskId);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("entries", taskIdByHash.size());
+        stats.put("completedHits", completedHits.get());
+        stats.put("inFlightHits", inFlightHits.get());
+        stats.put("misses", misses.get());
+        return stats;
+    }
+
+    private boolean isReusable(FileProcessingTask task) {
+        if (task.getStatus().isFailure()) {
+            return false;
+        }
+        // та же зона, что и у даты отсчёта в RowValidatorFactory
+        if (task.getCreatedDate() == null
+                || !LocalDate.ofInstant(task.getCreatedDate(), clock.getZone()).equals(LocalDate.now(clock))) {
+            return false;
+        }
+        if (task.getStatus() == FileProcessingTask.TaskStatus.COMPLETED) {
+            for (AppProperties.Output.Format format : formats) {
+                if (!Files.exists(uploadDir.resolve(format.fileName(task.getTaskId())))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return true;
+    }
+}
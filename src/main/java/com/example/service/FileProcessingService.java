@@ -1,19 +1,35 @@
 package com.example.service;
 
+import com.example.config.AppProperties;
 import com.example.model.FileProcessingTask;
+import com.example.model.ProcessedRow;
+import com.example.model.ProcessedRows;
 import com.example.model.ProcessedUser;
-import com.itextpdf.html2pdf.HtmlConverter;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import com.example.model.ResultSummary;
+import com.example.service.excel.SheetCell;
+import com.example.service.excel.SheetRow;
+import com.example.service.excel.SheetRowHandler;
+import com.example.service.excel.StreamingXlsxReader;
+import com.example.service.excel.StreamingXlsxWriter;
+import com.example.service.pdf.PdfRenderEngine;
+import com.example.service.text.CsvRowReader;
+import com.example.service.text.CsvRowWriter;
+import com.example.service.text.NdjsonRowReader;
+import com.example.service.validation.RowValidator;
+import com.example.service.validation.RowValidatorFactory;
+import com.fasterxml.jackson.core.JsonFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import javax.annotation.PostConstruct;
 import java.io.*;
 import java.nio.file.*;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.*;
 import java.util.*;
 import java.util.concurrent.*;
@@ -21,18 +37,125 @@ import java.util.concurrent.*;
 @Service
 public class FileProcessingService {
     private static final Logger logger = LoggerFactory.getLogger(FileProcessingService.class);
-    private final Map<String, FileProcessingTask> tasks = new ConcurrentHashMap<>();
-    private final ExecutorService executorService = Executors.newFixedThreadPool(4);
-    private final String uploadDir = "uploads";
-
-    public FileProcessingService() throws IOException {
+    public static final String UNSUPPORTED_INPUT = "Only .xlsx and .csv files are supported";
+    /** Через сколько секунд клиенту стоит повторить запрос PDF, который ещё формируется. */
+    private static final int PDF_RETRY_AFTER_SECONDS = 5;
+    private final TaskStore tasks;
+    private final String uploadDir;
+    private final StreamingXlsxReader xlsxReader = new StreamingXlsxReader();
+    private final CsvRowReader csvReader = new CsvRowReader();
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final AppProperties properties;
+    private final ProcessedDataCache processedDataCache;
+    private final PdfRenderEngine pdfRenderEngine;
+    private final JobQueue jobQueue;
+    private final Object[] pdfLocks = new Object[32];
+    private final ProcessingStages stages;
+    private final TaskEventPublisher taskEvents;
+    private final ContentIndex contentIndex;
+    private final RowValidatorFactory rowValidators;
+    private final ProcessingMetrics metrics;
+    // завершаются, когда задача дошла до конца: очередь держит её до этого момента
+    private final Map<String, CompletableFuture<Void>> running = new ConcurrentHashMap<>();
+    // сводки задач, которые обрабатываются на этом узле, до их сохранения в задаче
+    private final Map<String, ResultSummary.Builder> liveSummaries = new ConcurrentHashMap<>();
+    // отмена, бюджет времени и лимиты задач, которые читает этот узел
+    private final Map<String, JobControl> controls = new ConcurrentHashMap<>();
+
+    public FileProcessingService(AppProperties properties,
+                                 ProcessedDataCache processedDataCache,
+                                 PdfRenderEngine pdfRenderEngine,
+                                 JobQueue jobQueue,
+                                 ProcessingStages stages,
+                                 TaskEventPublisher taskEvents,
+                                 TaskStore tasks,
+                                 ContentIndex contentIndex,
+                                 RowValidatorFactory rowValidators,
+                                 ProcessingMetrics metrics) throws IOException {
+        this.properties = properties;
+        this.uploadDir = Paths.get(properties.getUploadDir()).toString();
+        this.processedDataCache = processedDataCache;
+        this.pdfRenderEngine = pdfRenderEngine;
+        this.jobQueue = jobQueue;
+        this.stages = stages;
+        this.taskEvents = taskEvents;
+        this.tasks = tasks;
+        this.contentIndex = contentIndex;
+        this.rowValidators = rowValidators;
+        this.metrics = metrics;
+        for (int i = 0; i < pdfLocks.length; i++) {
+            pdfLocks[i] = new Object();
+        }
         Path uploadPath = Paths.get(uploadDir);
         if (!Files.exists(uploadPath)) {
             Files.createDirectories(uploadPath);
         }
     }
 
-    public Resource loadPdfReport(String taskId) throws IOException {
+    @PostConstruct
+    public void start() {
+        jobQueue.start(this::runJob);
+        jobQueue.addCancelListener(this::cancelLocal);
+        jobQueue.addLeaseLostListener(this::abandonLocal);
+    }
+
+    /**
+     * Отменяет задачу. Ждущая задача снимается с очереди сразу; обрабатываемая
+     * останавливается на ближайшей строке или границе стадий, частичные
+     * результаты удаляются.
+     *
+     * @return {@code true}, если задача уже отменена, {@code false}, если остановка
+     * запрошена и задача завершится чуть позже
+     */
+    public boolean cancel(String taskId) throws FileNotFoundException {
+        FileProcessingTask task = tasks.get(taskId);
+        if (task == null) {
+            throw new FileNotFoundException("Задача не найдена");
+        }
+        if (TaskStore.isFinished(task) || task.getStatus() == FileProcessingTask.TaskStatus.COMPLETED) {
+            throw new IllegalStateException("Задача уже завершена");
+        }
+        if (cancelLocal(taskId)) {
+            return false;
+        }
+        if (!jobQueue.cancel(taskId) && task.getStatus() != FileProcessingTask.TaskStatus.QUEUED) {
+            // задачу обрабатывает другой узел, очередь передала ему просьбу остановиться
+            logger.info("Запрошена отмена задачи {}", taskId);
+            return false;
+        }
+        logger.info("Задача {} отменена до начала обработки", taskId);
+        task.setErrorDetails("Обработка отменена");
+        contentIndex.release(task.getContentHash(), taskId);
+        updateStatus(task, FileProcessingTask.TaskStatus.CANCELLED);
+        taskEvents.publishQueuePositions();
+        // обработчик мог взять задачу, пока её снимали с очереди
+        cancelLocal(taskId);
+        return true;
+    }
+
+    private boolean cancelLocal(String taskId) {
+        JobControl control = controls.get(taskId);
+        if (control == null) {
+            return false;
+        }
+        logger.info("Запрошена остановка задачи {}", taskId);
+        control.cancel();
+        return true;
+    }
+
+    private void abandonLocal(String taskId) {
+        JobControl control = controls.get(taskId);
+        if (control != null) {
+            logger.warn("Задачу {} перехватил другой узел, обработка здесь прекращается", taskId);
+            control.abandon();
+        }
+    }
+
+    /**
+     * Готовый PDF-отчёт задачи. Файл, записанный при обработке, отдаётся как есть;
+     * заново отчёт строится только если артефакт пропал с диска.
+     */
+    public Path getPdfReport(String taskId) throws IOException {
         Path filePath = Paths.get(uploadDir, "report_" + taskId + ".pdf")
                 .toAbsolutePath()
                 .normalize();
@@ -41,32 +164,132 @@ public class FileProcessingService {
             throw new SecurityException("Попытка доступа к файлу вне рабочей директории");
         }
 
-        if (!Files.exists(filePath)) {
-            throw new FileNotFoundException("PDF не найден");
+        FileProcessingTask task = tasks.get(taskId);
+        if (task != null && !task.isPdfReady()
+                && task.getStageStatus(FileProcessingTask.Stage.PDF) != FileProcessingTask.StageStatus.FAILED) {
+            throw new PdfNotReadyException("PDF ещё формируется", PDF_RETRY_AFTER_SECONDS);
         }
 
-        if (Files.size(filePath) == 0) {
-            throw new IOException("PDF файл пустой");
+        synchronized (pdfLocks[Math.floorMod(taskId.hashCode(), pdfLocks.length)]) {
+            if (!Files.exists(filePath) || Files.size(filePath) == 0) {
+                if (findResultFile(taskId) == null) {
+                    throw new FileNotFoundException("PDF не найден");
+                }
+                logger.info("PDF для задачи {} отсутствует, формируем заново", taskId);
+                Path tmp = ResultFile.tempFileFor(filePath);
+                try {
+                    try (OutputStream out = Files.newOutputStream(tmp)) {
+                        generatePdfReport(taskId, out);
+                    }
+                    Files.move(tmp, filePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } finally {
+                    Files.deleteIfExists(tmp);
+                }
+                metrics.recordPdfBytesOut(Files.size(filePath));
+            }
         }
 
-        return new UrlResource(filePath.toUri());
+        return filePath;
     }
 
     public String processFile(MultipartFile file) throws IOException {
         validateFile(file);
+        try (InputStream in = file.getInputStream()) {
+            return processStream(file.getOriginalFilename(), in);
+        }
+    }
+
+    /**
+     * Сохраняет загрузку и ставит её в очередь. Если файл с тем же содержимым уже
+     * обработан или обрабатывается, возвращается taskId существующей задачи.
+     * Поток не закрывается: так можно передать запись открытого zip-архива.
+     */
+    public String processStream(String originalFilename, InputStream content) throws IOException {
+        if (!isSupportedInput(originalFilename)) {
+            throw new IOException(UNSUPPORTED_INPUT);
+        }
+        if (jobQueue.isFull()) {
+            throw jobQueue.reject();
+        }
 
         String taskId = UUID.randomUUID().toString();
-        String savedFilePath = uploadDir + "/" + taskId + "_" + file.getOriginalFilename();
+        Path savedFile = Paths.get(uploadDir, taskId + "_" + originalFilename);
 
-        saveUploadedFile(file, savedFilePath);
+        String contentHash;
+        long saveStarted = System.nanoTime();
+        try {
+            contentHash = saveUploadedFile(content, savedFile);
+        } catch (IOException e) {
+            metrics.recordTiming(FileProcessingTask.Timing.UPLOAD, System.nanoTime() - saveStarted, false);
+            Files.deleteIfExists(savedFile);
+            throw e;
+        }
+        long saveNanos = System.nanoTime() - saveStarted;
+        metrics.recordTiming(FileProcessingTask.Timing.UPLOAD, saveNanos, true);
+        try {
+            return enqueue(taskId, originalFilename, savedFile, contentHash, saveNanos);
+        } catch (JobRejectedException e) {
+            Files.deleteIfExists(savedFile);
+            throw e;
+        }
+    }
+
+    /**
+     * Ставит в очередь файл, уже записанный в каталог загрузок под именем
+     * {@code <taskId>_<originalFilename>} (докачиваемая загрузка). Хэш содержимого
+     * считается одним последовательным чтением файла.
+     * <p>
+     * Если очередь заполнена, файл остаётся на месте, чтобы запрос можно было повторить.
+     *
+     * @param uploadNanos сколько длилась загрузка, для тайминга {@link FileProcessingTask.Timing#UPLOAD}
+     * @return taskId новой задачи или существующей задачи с тем же содержимым
+     */
+    public String processSavedFile(String taskId, String originalFilename, Path savedFile,
+                                   long uploadNanos) throws IOException {
+        if (jobQueue.isFull()) {
+            throw jobQueue.reject();
+        }
+        String contentHash;
+        try (InputStream in = Files.newInputStream(savedFile)) {
+            contentHash = digest(in, OutputStream.nullOutputStream());
+        }
+        metrics.recordTiming(FileProcessingTask.Timing.UPLOAD, uploadNanos, true);
+        return enqueue(taskId, originalFilename, savedFile, contentHash, uploadNanos);
+    }
+
+    private String enqueue(String taskId, String originalFilename, Path savedFile,
+                           String contentHash, long uploadNanos) throws IOException {
+        long size = Files.size(savedFile);
+        metrics.recordBytesIn(size);
+        if (size == 0) {
+            Files.deleteIfExists(savedFile);
+            throw new IOException("File is empty");
+        }
+        String existingTaskId = contentIndex.claim(contentHash, taskId);
+        if (existingTaskId != null) {
+            Files.deleteIfExists(savedFile);
+            logger.info("Файл {} совпадает с задачей {}, повторная обработка не нужна",
+                    originalFilename, existingTaskId);
+            return existingTaskId;
+        }
 
         FileProcessingTask task = new FileProcessingTask();
         task.setTaskId(taskId);
-        task.setOriginalFilename(file.getOriginalFilename());
-        task.setStatus(FileProcessingTask.TaskStatus.PENDING);
-        tasks.put(taskId, task);
+        task.setOriginalFilename(originalFilename);
+        task.setContentHash(contentHash);
+        task.setStatus(FileProcessingTask.TaskStatus.QUEUED);
+        task.setCreatedDate(Instant.now());
+        task.setTiming(FileProcessingTask.Timing.UPLOAD, TimeUnit.NANOSECONDS.toMillis(uploadNanos));
+        task.startTiming(FileProcessingTask.Timing.QUEUE);
+        tasks.put(task);
 
-        executorService.submit(() -> processFileAsync(savedFilePath, task));
+        try {
+            jobQueue.submit(taskId, savedFile.toString(), size);
+        } catch (JobRejectedException e) {
+            tasks.remove(taskId);
+            contentIndex.release(contentHash, taskId);
+            throw e;
+        }
 
         return taskId;
     }
@@ -76,133 +299,509 @@ public class FileProcessingService {
             throw new IOException("File is empty");
         }
 
-        if (!file.getOriginalFilename().toLowerCase().endsWith(".xlsx")) {
-            throw new IOException("Only .xlsx files are supported");
+        if (!isSupportedInput(file.getOriginalFilename())) {
+            throw new IOException(UNSUPPORTED_INPUT);
         }
     }
 
-    private void saveUploadedFile(MultipartFile file, String filePath) throws IOException {
-        Path destination = Paths.get(filePath);
-        Files.copy(file.getInputStream(), destination, StandardCopyOption.REPLACE_EXISTING);
+    /**
+     * Принимаются .xlsx и .csv (кодировка UTF-8 или windows-1251 определяется сама).
+     */
+    public static boolean isSupportedInput(String filename) {
+        if (filename == null) {
+            return false;
+        }
+        String name = filename.toLowerCase(Locale.ROOT);
+        return name.endsWith(".xlsx") || isCsv(name);
     }
 
-    private void processFileAsync(String inputFilePath, FileProcessingTask task) {
+    private static boolean isCsv(String filename) {
+        return filename.toLowerCase(Locale.ROOT).endsWith(".csv");
+    }
+
+    /**
+     * @return SHA-256 содержимого в hex, посчитанный при копировании
+     */
+    private String saveUploadedFile(InputStream content, Path destination) throws IOException {
+        try (OutputStream out = Files.newOutputStream(destination)) {
+            return digest(content, out);
+        }
+    }
+
+    /**
+     * Копирует поток, попутно считая SHA-256.
+     *
+     * @return хэш в hex
+     */
+    private static String digest(InputStream content, OutputStream out) throws IOException {
+        MessageDigest digest;
         try {
-            task.setStatus(FileProcessingTask.TaskStatus.PROCESSING);
-            String processedFilePath = processExcelFile(inputFilePath, task.getTaskId());
-            task.setProcessedFilename(processedFilePath);
-            task.setStatus(FileProcessingTask.TaskStatus.COMPLETED);
-            logger.info("File processed successfully: {}", processedFilePath);
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        new DigestInputStream(content, digest).transferTo(out);
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Обработчик очереди. Задачу, брошенную другим узлом, начинает заново.
+     */
+    private CompletableFuture<Void> runJob(String taskId, String inputFilePath) {
+        FileProcessingTask task = tasks.get(taskId);
+        if (task == null) {
+            logger.warn("Задача {} из очереди не найдена, пропускаем", taskId);
+            return CompletableFuture.completedFuture(null);
+        }
+        // регистрируется до проверки статуса, чтобы отмена в этот момент не потерялась
+        JobControl control = JobControl.start(properties.getProcessing());
+        controls.put(taskId, control);
+        if (TaskStore.isFinished(task)) {
+            controls.remove(taskId, control);
+            return CompletableFuture.completedFuture(null);
+        }
+        if (task.getStatus() != FileProcessingTask.TaskStatus.QUEUED) {
+            logger.info("Задача {} перезапускается после остановки узла, который её обрабатывал", taskId);
+            task.resetProgress();
+        }
+        CompletableFuture<Void> finished = new CompletableFuture<>();
+        running.put(taskId, finished);
+        processFileAsync(inputFilePath, task, control);
+        return finished;
+    }
+
+    private void processFileAsync(String inputFilePath, FileProcessingTask task, JobControl control) {
+        String taskId = task.getTaskId();
+        try {
+            long queued = task.stopTiming(FileProcessingTask.Timing.QUEUE);
+            if (queued >= 0) {
+                metrics.recordTiming(FileProcessingTask.Timing.QUEUE, queued, true);
+            }
+            updateStatus(task, FileProcessingTask.TaskStatus.PROCESSING);
+            taskEvents.publishQueuePositions();
+            ProcessedRows.Builder results = ProcessedRows.builder();
+            ResultSummary.Builder summary = ResultSummary.builder();
+            liveSummaries.put(taskId, summary);
+            CompletableFuture<String> xlsx = processExcelFile(inputFilePath, task, results, summary, control);
+            xlsx.whenCompleteAsync((processedFilePath, error) -> {
+                controls.remove(taskId, control);
+                // отмена, пришедшая, пока дописывался результат, тоже останавливает задачу
+                Throwable failure = error != null ? unwrap(error) : control.getStopReason();
+                if (failure != null) {
+                    liveSummaries.remove(taskId);
+                    failTask(task, FileProcessingTask.Stage.XLSX, failure);
+                } else {
+                    task.setSummary(summary.build());
+                    liveSummaries.remove(taskId);
+                    onXlsxReady(task, processedFilePath, results.build());
+                }
+            }, stages.getHandoffPool());
         } catch (Exception e) {
-            logger.error("Error processing file", e);
-            task.setStatus(FileProcessingTask.TaskStatus.FAILED);
-            task.setErrorDetails(e.getMessage());
+            controls.remove(taskId, control);
+            liveSummaries.remove(taskId);
+            failTask(task, null, e);
         }
     }
 
-    private String processExcelFile(String inputFilePath, String taskId) throws IOException {
-        String outputFilePath = uploadDir + "/processed_" + taskId + ".xlsx";
-        String pdfFilePath = uploadDir + "/report_" + taskId + ".pdf";
-        logger.info("Обработка Excel файла: {}", inputFilePath);
+    /**
+     * Разбор и проверка строк идут в текущем потоке, запись результата — на пуле
+     * стадии записи. Возвращается, как только прочитан весь файл. CSV читается
+     * напрямую, без POI, в те же строки листа, что и xlsx. Сводка по результату
+     * накапливается в {@code summary} по мере проверки строк. Отмена, бюджет
+     * времени и лимиты {@code control} проверяются на каждой строке и между стадиями.
+     *
+     * @return путь к результату в первом из форматов {@code app.output.formats}
+     */
+    CompletableFuture<String> processExcelFile(String inputFilePath, FileProcessingTask task,
+                                               ProcessedRows.Builder results,
+                                               ResultSummary.Builder summary,
+                                               JobControl control) throws IOException {
+        String taskId = task.getTaskId();
+        logger.info("Обработка файла: {}", inputFilePath);
+
+        List<ResultFile> resultFiles = openResultFiles(taskId);
+        String outputFilePath = resultFiles.get(0).target.toString();
+        ResultWriterStage writer = new ResultWriterStage(resultFiles, properties.getPipeline().getXlsxBufferRows(),
+                control);
+        // столбцы определяются по строке заголовков, поэтому проверка собирается после её чтения
+        RowValidator[] validator = new RowValidator[1];
+        ChunkedRowProcessor rows = new ChunkedRowProcessor(stages.getValidatePool(),
+                properties.getProcessing().getChunkSize(), stages.getMaxChunksInFlight(),
+                row -> validator[0].validate(row), (rowNum, user) -> {
+                    boolean valid = "Ок".equals(user.getStatus());
+                    results.add(user);
+                    summary.add(user);
+                    task.recordRowResult(valid);
+                    metrics.recordRow(valid);
+                    taskEvents.progress(task);
+                    writer.accept(rowNum, user);
+                }, control);
+
+        updateStage(task, FileProcessingTask.Stage.XLSX, FileProcessingTask.StageStatus.RUNNING);
+        CompletableFuture<Void> written = writer.start(stages.getXlsxPool());
+        try {
+            updateStage(task, FileProcessingTask.Stage.PARSE, FileProcessingTask.StageStatus.RUNNING);
+            updateStage(task, FileProcessingTask.Stage.VALIDATE, FileProcessingTask.StageStatus.RUNNING);
+            control.checkpoint();
+            SheetRowHandler handler = row -> {
+                control.checkRow(row);
+                if (row.getRowNum() < 1) {
+                    validator[0] = rowValidators.compile(row);
+                    return;
+                }
+                if (validator[0] == null) {
+                    validator[0] = rowValidators.compile(null);
+                }
 
+                task.incrementRowsRead();
+                rows.add(row);
+            };
+            if (isCsv(inputFilePath)) {
+                csvReader.read(Paths.get(inputFilePath), handler);
+            } else {
+                xlsxReader.readFirstSheet(Paths.get(inputFilePath), handler);
+            }
+            updateStage(task, FileProcessingTask.Stage.PARSE, FileProcessingTask.StageStatus.DONE);
 
-        List<ProcessedUser> processedUsers = new ArrayList<>();
+            control.checkpoint();
+            rows.finish();
+            updateStage(task, FileProcessingTask.Stage.VALIDATE, FileProcessingTask.StageStatus.DONE);
+            control.checkpoint();
+            writer.finish();
+        } catch (Exception e) {
+            rows.cancel();
+            writer.abort();
+            if (e instanceof JobStoppedException) {
+                throw (JobStoppedException) e;
+            }
+            logger.error("Ошибка обработки файла", e);
+            throw new IOException("Ошибка обработки файла: " + e.getMessage(), e);
+        }
 
-        try (InputStream is = new FileInputStream(inputFilePath);
-             Workbook workbook = WorkbookFactory.create(is);
-             Workbook outputWorkbook = new XSSFWorkbook()) {
+        return written.thenApply(v -> outputFilePath);
+    }
 
-            Sheet sheet = workbook.getSheetAt(0);
-            Sheet outputSheet = outputWorkbook.createSheet("Processed Data");
+    private List<ResultFile> openResultFiles(String taskId) throws IOException {
+        AppProperties.Output output = properties.getOutput();
+        Set<AppProperties.Output.Format> formats = output.getFormats().isEmpty()
+                ? EnumSet.of(AppProperties.Output.Format.XLSX) : EnumSet.copyOf(output.getFormats());
+        List<ResultFile> files = new ArrayList<>();
+        try {
+            for (AppProperties.Output.Format format : formats) {
+                files.add(ResultFile.create(format, Paths.get(uploadDir, format.fileName(taskId)),
+                        output, jsonFactory));
+            }
+        } catch (IOException | RuntimeException e) {
+            for (ResultFile file : files) {
+                file.close();
+            }
+            throw e;
+        }
+        return files;
+    }
 
-            createHeaderRow(outputSheet);
+    private void onXlsxReady(FileProcessingTask task, String processedFilePath, ProcessedRows results) {
+        String taskId = task.getTaskId();
+        task.setProcessedFilename(processedFilePath);
+        updateStage(task, FileProcessingTask.Stage.XLSX, FileProcessingTask.StageStatus.DONE);
+        metrics.recordTaskThroughput(task.getRowsRead(),
+                task.getTimings().getOrDefault(FileProcessingTask.Timing.XLSX, 0L));
+        for (AppProperties.Output.Format format : AppProperties.Output.Format.values()) {
+            Path resultFile = Paths.get(uploadDir, format.fileName(taskId));
+            try {
+                if (Files.exists(resultFile)) {
+                    metrics.recordResultBytesOut(format, Files.size(resultFile));
+                }
+            } catch (IOException e) {
+                logger.debug("Не удалось получить размер {}: {}", resultFile, e.getMessage());
+            }
+        }
+        processedDataCache.put(taskId, results);
+        updateStatus(task, FileProcessingTask.TaskStatus.COMPLETED);
+        logger.info("File processed successfully: {}", processedFilePath);
 
-            for (int i = 1; i <= sheet.getLastRowNum(); i++) {
-                Row row = sheet.getRow(i);
-                if (row == null) continue;
+        CompletableFuture<Void> pdf;
+        try {
+            pdf = CompletableFuture.runAsync(() -> {
+                updateStage(task, FileProcessingTask.Stage.PDF, FileProcessingTask.StageStatus.RUNNING);
+                try {
+                    writePdfReport(taskId, results);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, stages.getPdfPool());
+        } catch (RejectedExecutionException e) {
+            // getPdfReport создаёт отчёт заново, если стадия PDF не удалась
+            logger.warn("Очередь PDF заполнена, отчёт задачи {} будет создан при первом запросе", taskId);
+            task.setErrorDetails("PDF будет создан при первом запросе");
+            updateStage(task, FileProcessingTask.Stage.PDF, FileProcessingTask.StageStatus.FAILED);
+            return;
+        }
+        pdf.whenComplete((v, error) -> {
+            if (error != null) {
+                Throwable cause = unwrap(error);
+                logger.error("Ошибка формирования PDF для задачи " + taskId, cause);
+                task.setErrorDetails("Не удалось создать PDF: " + cause.getMessage());
+                updateStage(task, FileProcessingTask.Stage.PDF, FileProcessingTask.StageStatus.FAILED);
+            } else {
+                updateStage(task, FileProcessingTask.Stage.PDF, FileProcessingTask.StageStatus.DONE);
+                logger.info("PDF для задачи {} готов", taskId);
+            }
+        });
+    }
 
-                ProcessedUser user = processUserRow(row);
-                processedUsers.add(user);
-                createDataRow(outputSheet, i, user);
+    private void writePdfReport(String taskId, ProcessedRows results) throws IOException {
+        Path pdfPath = Paths.get(uploadDir, "report_" + taskId + ".pdf");
+        Path pdfTmpPath = ResultFile.tempFileFor(pdfPath);
+        try {
+            try (OutputStream pdfOut = Files.newOutputStream(pdfTmpPath)) {
+                renderPdf(results, summaryOf(taskId), pdfOut);
             }
+            Files.move(pdfTmpPath, pdfPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            metrics.recordPdfBytesOut(Files.size(pdfPath));
+        } finally {
+            Files.deleteIfExists(pdfTmpPath);
+        }
+    }
 
-            try (FileOutputStream fos = new FileOutputStream(outputFilePath)) {
-                outputWorkbook.write(fos);
+    private void failTask(FileProcessingTask task, FileProcessingTask.Stage stage, Throwable error) {
+        if (error instanceof JobStoppedException && ((JobStoppedException) error).isAbandoned()) {
+            // статус и файлы задачи теперь ведёт другой узел; свои временные файлы писатели уже удалили
+            logger.warn("Задача {} остановлена на этом узле: {}", task.getTaskId(), error.getMessage());
+            CompletableFuture<Void> finished = running.remove(task.getTaskId());
+            if (finished != null) {
+                finished.complete(null);
             }
+            return;
+        }
+        FileProcessingTask.TaskStatus status = FileProcessingTask.TaskStatus.FAILED;
+        if (error instanceof JobStoppedException) {
+            status = ((JobStoppedException) error).getStatus();
+            logger.warn("Задача {} остановлена ({}): {}", task.getTaskId(), status, error.getMessage());
+            deletePartialResults(task.getTaskId());
+        } else {
+            logger.error("Error processing file", error);
+        }
+        for (Map.Entry<FileProcessingTask.Stage, FileProcessingTask.StageStatus> entry : task.getStages().entrySet()) {
+            if (entry.getValue() == FileProcessingTask.StageStatus.RUNNING || entry.getKey() == stage) {
+                task.setStageStatus(entry.getKey(), FileProcessingTask.StageStatus.FAILED);
+                stopTiming(task, entry.getKey(), false);
+            }
+        }
+        task.setErrorDetails(error.getMessage());
+        contentIndex.release(task.getContentHash(), task.getTaskId());
+        updateStatus(task, status);
+    }
 
-            try (FileOutputStream pdfOut = new FileOutputStream(pdfFilePath)) {
-                String html = generateHtmlReport(processedUsers);
-                HtmlConverter.convertToPdf(html, pdfOut);
+    /**
+     * Удаляет результаты остановленной задачи, уже перенесённые на место; недописанные
+     * временные файлы удаляют сами писатели. Исходный файл остаётся до истечения срока задачи.
+     */
+    private void deletePartialResults(String taskId) {
+        processedDataCache.invalidate(taskId);
+        List<Path> files = new ArrayList<>();
+        for (AppProperties.Output.Format format : AppProperties.Output.Format.values()) {
+            files.add(Paths.get(uploadDir, format.fileName(taskId)));
+        }
+        files.add(Paths.get(uploadDir, "report_" + taskId + ".pdf"));
+        for (Path file : files) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                logger.warn("Не удалось удалить {}: {}", file.getFileName(), e.getMessage());
             }
+        }
+    }
 
-        } catch (Exception e) {
-            logger.error("Ошибка обработки Excel файла", e);
-            throw new IOException("Ошибка обработки Excel файла: " + e.getMessage(), e);
+    private void updateStatus(FileProcessingTask task, FileProcessingTask.TaskStatus status) {
+        task.setStatus(status);
+        tasks.save(task);
+        taskEvents.publish(task);
+        completeIfFinished(task);
+    }
+
+    private void updateStage(FileProcessingTask task, FileProcessingTask.Stage stage,
+                             FileProcessingTask.StageStatus status) {
+        task.setStageStatus(stage, status);
+        if (status == FileProcessingTask.StageStatus.RUNNING) {
+            task.startTiming(FileProcessingTask.Timing.of(stage));
+        } else if (status != FileProcessingTask.StageStatus.WAITING) {
+            stopTiming(task, stage, status == FileProcessingTask.StageStatus.DONE);
+        }
+        tasks.save(task);
+        taskEvents.publish(task);
+        completeIfFinished(task);
+    }
+
+    private void completeIfFinished(FileProcessingTask task) {
+        if (TaskStore.isFinished(task)) {
+            CompletableFuture<Void> finished = running.remove(task.getTaskId());
+            if (finished != null) {
+                finished.complete(null);
+            }
         }
+    }
 
-        return outputFilePath;
+    private void stopTiming(FileProcessingTask task, FileProcessingTask.Stage stage, boolean success) {
+        FileProcessingTask.Timing timing = FileProcessingTask.Timing.of(stage);
+        long elapsed = task.stopTiming(timing);
+        if (elapsed >= 0) {
+            metrics.recordTiming(timing, elapsed, success);
+        }
     }
 
-    private void createHeaderRow(Sheet sheet) {
-        Row headerRow = sheet.createRow(0);
-        headerRow.createCell(0).setCellValue("ФИО");
-        headerRow.createCell(1).setCellValue("Дата рождения");
-        headerRow.createCell(2).setCellValue("Возраст в годах");
-        headerRow.createCell(3).setCellValue("Возраст в месяцах");
-        headerRow.createCell(4).setCellValue("Статус");
-        headerRow.createCell(5).setCellValue("Детализация ошибки");
+    private static Throwable unwrap(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof UncheckedIOException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
     }
 
-    private void createDataRow(Sheet sheet, int rowNum, ProcessedUser user) {
-        Row row = sheet.createRow(rowNum);
+    public ProcessedRows getProcessedData(String taskId) throws IOException {
+        ProcessedRows cached = processedDataCache.get(taskId);
+        if (cached != null) {
+            return cached;
+        }
 
-        // ФИО
-        row.createCell(0).setCellValue(user.getFullName());
+        ProcessedRows.Builder builder = ProcessedRows.builder();
+        readProcessedRows(taskId, (index, row) -> {
+            builder.add(row);
+            return true;
+        });
+        ProcessedRows data = builder.build();
+        processedDataCache.put(taskId, data);
+        return data;
+    }
 
-        // Дата рождения
-        String birthDateStr = user.getBirthDate() != null ? user.getBirthDate().toString() : "";
-        row.createCell(1).setCellValue(birthDateStr);
+    /**
+     * Передаёт обработанные строки задачи обработчику по одной: из кэша, если
+     * результат там есть, иначе потоково из файла результата без сборки списка.
+     */
+    public void readProcessedRows(String taskId, ProcessedRowHandler handler) throws IOException {
+        ProcessedRows cached = processedDataCache.get(taskId);
+        if (cached != null) {
+            try {
+                ProcessedRows.Row row = cached.cursor();
+                while (row.next()) {
+                    if (!handler.handleRow(row.getIndex(), row)) {
+                        return;
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException(e.getMessage(), e);
+            }
+            return;
+        }
 
-        // Возраст
-        row.createCell(2).setCellValue(user.getAgeYears());
-        row.createCell(3).setCellValue(user.getAgeMonths());
+        Path processedFile = findResultFile(taskId);
+        if (processedFile == null) {
+            throw new FileNotFoundException("Результат обработки не найден");
+        }
+        int[] index = {0};
+        if (processedFile.toString().endsWith(AppProperties.Output.Format.NDJSON.getExtension())) {
+            Exception[] error = {null};
+            new NdjsonRowReader(jsonFactory).read(processedFile, user -> {
+                try {
+                    return handler.handleRow(index[0]++, user);
+                } catch (Exception e) {
+                    error[0] = e;
+                    return false;
+                }
+            });
+            if (error[0] instanceof IOException) {
+                throw (IOException) error[0];
+            } else if (error[0] instanceof RuntimeException) {
+                throw (RuntimeException) error[0];
+            } else if (error[0] != null) {
+                throw new IOException(error[0].getMessage(), error[0]);
+            }
+            return;
+        }
+        boolean csv = isCsv(processedFile.toString());
+        SheetRowHandler rowHandler = row -> {
+            if (row.getRowNum() < 1) return;
 
-        // Oшибки
-        row.createCell(4).setCellValue(user.getStatus());
-        row.createCell(5).setCellValue(user.getErrorDetails() != null ? user.getErrorDetails() : "");
+            if (!handler.handleRow(index[0]++, createProcessedUserFromRow(row, csv))) {
+                throw StopReading.INSTANCE;
+            }
+        };
+        try {
+            if (csv) {
+                csvReader.read(processedFile, rowHandler);
+            } else {
+                xlsxReader.readFirstSheet(processedFile, rowHandler);
+            }
+        } catch (StopReading e) {
+            // обработчику хватило строк
+        }
     }
 
-    public List<ProcessedUser> getProcessedData(String taskId) throws IOException {
-        List<ProcessedUser> data = new ArrayList<>();
-        try (Workbook workbook = WorkbookFactory.create(new File(uploadDir + "/processed_" + taskId + ".xlsx"))) {
-            Sheet sheet = workbook.getSheetAt(0);
-            for (int i = 1; i <= sheet.getLastRowNum(); i++) {
-                Row row = sheet.getRow(i);
-                if (row == null) continue;
-                data.add(createProcessedUserFromRow(row));
+    /**
+     * Файл результата в первом имеющемся формате: xlsx, csv, ndjson.
+     *
+     * @return путь или {@code null}, если результата на диске нет
+     */
+    private Path findResultFile(String taskId) {
+        for (AppProperties.Output.Format format : AppProperties.Output.Format.values()) {
+            Path file = Paths.get(uploadDir, format.fileName(taskId));
+            if (Files.exists(file)) {
+                return file;
             }
         }
-        return data;
+        return null;
     }
 
-    private ProcessedUser createProcessedUserFromRow(Row row) {
+    /**
+     * @return расширения форматов результата из {@code app.output.formats}
+     */
+    public List<String> getResultFormats() {
+        List<String> extensions = new ArrayList<>();
+        for (AppProperties.Output.Format format : properties.getOutput().getFormats()) {
+            extensions.add(format.getExtension());
+        }
+        return extensions;
+    }
+
+    /**
+     * Файл результата в заданном формате для скачивания.
+     */
+    public Path getResultFile(String taskId, AppProperties.Output.Format format) throws IOException {
+        Path file = Paths.get(uploadDir, format.fileName(UUID.fromString(taskId).toString()));
+        if (!Files.exists(file)) {
+            throw new FileNotFoundException("Результат в формате " + format.getExtension() + " не найден");
+        }
+        return file;
+    }
+
+    /**
+     * @param csv строка из CSV-результата: у текста снимается защита от формул
+     */
+    private ProcessedUser createProcessedUserFromRow(SheetRow row, boolean csv) {
         ProcessedUser user = new ProcessedUser();
         try {
-            user.setFullName(row.getCell(0) != null ? row.getCell(0).getStringCellValue() : "");
+            user.setFullName(textOf(row.getCell(0), csv));
 
-            Cell dateCell = row.getCell(1);
+            SheetCell dateCell = row.getCell(1);
             if (dateCell != null) {
-                if (dateCell.getCellType() == CellType.NUMERIC) {
-                    user.setBirthDate(dateCell.getLocalDateTimeCellValue().toLocalDate());
-                } else {
-                    user.setBirthDate(LocalDate.parse(dateCell.getStringCellValue()));
+                if (dateCell.isNumeric()) {
+                    user.setBirthDate(dateCell.getLocalDate());
+                } else if (!dateCell.toString().isEmpty()) {
+                    user.setBirthDate(LocalDate.parse(dateCell.toString()));
                 }
             }
 
-            user.setAgeYears((int)row.getCell(2).getNumericCellValue());
-            user.setAgeMonths((int)row.getCell(3).getNumericCellValue());
-            user.setStatus(row.getCell(4).getStringCellValue());
-            user.setErrorDetails(row.getCell(5).getStringCellValue());
+            user.setAgeYears(intOf(row.getCell(2)));
+            user.setAgeMonths(intOf(row.getCell(3)));
+            user.setStatus(textOf(row.getCell(4), csv));
+            user.setErrorDetails(textOf(row.getCell(5), csv));
         } catch (Exception e) {
             logger.error("Ошибка чтения строки данных", e);
             user.setStatus("Ошибка");
@@ -211,20 +810,46 @@ public class FileProcessingService {
         return user;
     }
 
+    private static String textOf(SheetCell cell, boolean csv) {
+        if (cell == null) {
+            return "";
+        }
+        return csv ? CsvRowWriter.unguard(cell.toString()) : cell.toString();
+    }
+
+    /**
+     * Число из ячейки: в xlsx оно числовое, в csv — текст.
+     */
+    private static int intOf(SheetCell cell) {
+        if (cell == null) {
+            return 0;
+        }
+        return cell.isNumeric() ? (int) cell.getNumber() : Integer.parseInt(cell.toString().trim());
+    }
+
+    /**
+     * Прерывает потоковое чтение, когда обработчик вернул {@code false}.
+     */
+    private static final class StopReading extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        private static final StopReading INSTANCE = new StopReading();
+
+        private StopReading() {
+            super(null, null, false, false);
+        }
+    }
+
     public void generatePdfReport(String taskId, OutputStream outputStream) throws IOException {
         try {
             logger.info("Начало генерации PDF для задачи {}", taskId);
-            List<ProcessedUser> processedData = getProcessedData(taskId);
+            ProcessedRows processedData = getProcessedData(taskId);
 
             if (processedData.isEmpty()) {
                 logger.error("Нет данных для генерации PDF");
                 throw new IOException("Нет данных для отчёта");
             }
 
-            String htmlContent = generateHtmlReport(processedData);
-            logger.debug("Сгенерирован HTML контент: {} символов", htmlContent.length());
-
-            HtmlConverter.convertToPdf(htmlContent, outputStream);
+            renderPdf(processedData, summaryOf(taskId), outputStream);
             logger.info("PDF успешно сгенерирован");
 
         } catch (Exception e) {
@@ -233,78 +858,57 @@ public class FileProcessingService {
         }
     }
 
-    private String generateHtmlReport(List<ProcessedUser> processedData) {
-        StringBuilder html = new StringBuilder();
-        html.append("<!DOCTYPE html><html><head><meta charset=\"UTF-8\">")
-                .append("<title>Отчёт</title><style>body{font-family:Arial,sans-serif;margin:20px;}")
-                .append("table{width:100%;border-collapse:collapse;}th,td{border:1px solid #ddd;padding:8px;}")
-                .append("th{background-color:#f2f2f2;}.status-ok{color:green;}.status-error{color:red;}</style></head>")
-                .append("<body><h1>Отчёт по обработке данных</h1><table><thead><tr>")
-                .append("<th>ФИО</th><th>Дата рождения</th><th>Возраст (лет)</th>")
-                .append("<th>Возраст (мес.)</th><th>Статус</th><th>Детализация</th></tr></thead><tbody>");
+    void renderPdf(Iterable<? extends ProcessedRow> processedData, ResultSummary summary,
+                   OutputStream outputStream) throws IOException {
+        pdfRenderEngine.render(processedData, summary, outputStream);
+    }
 
-        for (ProcessedUser user : processedData) {
-            String statusClass = "Ок".equals(user.getStatus()) ? "status-ok" : "status-error";
-            html.append("<tr><td>").append(user.getFullName()).append("</td>")
-                    .append("<td>").append(user.getBirthDate()).append("</td>")
-                    .append("<td>").append(user.getAgeYears()).append("</td>")
-                    .append("<td>").append(user.getAgeMonths()).append("</td>")
-                    .append("<td class=\"").append(statusClass).append("\">").append(user.getStatus()).append("</td>")
-                    .append("<td>").append(user.getErrorDetails()).append("</td></tr>");
+    /**
+     * Сводка по результату задачи без чтения строк: сохранённая в задаче после
+     * обработки или промежуточная, пока задача обрабатывается на этом узле.
+     *
+     * @return сводка или {@code null}, если её нет (задача не найдена, ждёт в очереди
+     * или завершилась до появления сводок)
+     */
+    public ResultSummary getSummary(String taskId) {
+        ResultSummary saved = summaryOf(taskId);
+        if (saved != null) {
+            return saved;
         }
+        ResultSummary.Builder live = liveSummaries.get(taskId);
+        return live != null ? live.build() : null;
+    }
 
-        html.append("</tbody></table></body></html>");
-        return html.toString();
+    private ResultSummary summaryOf(String taskId) {
+        FileProcessingTask task = tasks.get(taskId);
+        return task != null ? task.getSummary() : null;
     }
 
-    private ProcessedUser processUserRow(Row row) {
-        ProcessedUser user = new ProcessedUser();
-        try {
-            Cell nameCell = row.getCell(0);
-            if (nameCell != null) {
-                user.setFullName(nameCell.toString().trim());
-            } else {
-                user.setFullName("");
-                user.setStatus("не ок");
-                user.setErrorDetails("Отсутствует ФИО");
-                return user;
-            }
+    public Map<String, Object> getCacheStats() {
+        return processedDataCache.getStats();
+    }
 
-            Cell dateCell = row.getCell(1);
-            if (dateCell != null) {
-                try {
-                    LocalDate birthDate;
-                    if (dateCell.getCellType() == CellType.NUMERIC) {
-                        birthDate = dateCell.getLocalDateTimeCellValue().toLocalDate();
-                    } else {
-                        birthDate = LocalDate.parse(dateCell.toString().trim());
-                    }
-                    user.setBirthDate(birthDate);
+    public Map<String, Object> getDedupStats() {
+        return contentIndex.getStats();
+    }
 
-                    Period period = Period.between(birthDate, LocalDate.now());
-                    user.setAgeYears(period.getYears());
-                    user.setAgeMonths(period.getMonths());
+    public Map<String, Object> getQueueStats() {
+        return jobQueue.getStats();
+    }
 
-                    if (birthDate.isAfter(LocalDate.now())) {
-                        user.setStatus("не ок");
-                        user.setErrorDetails("Дата рождения в будущем");
-                    } else {
-                        user.setStatus("Ок");
-                    }
-                } catch (Exception e) {
-                    user.setStatus("не ок");
-                    user.setErrorDetails("Некорректный формат даты: " + dateCell.toString());
-                }
-            } else {
-                user.setStatus("не ок");
-                user.setErrorDetails("Отсутствует дата рождения");
-            }
-        } catch (Exception e) {
-            logger.error("Ошибка обработки строки", e);
-            user.setStatus("не ок");
-            user.setErrorDetails("Ошибка обработки данных: " + e.getMessage());
-        }
-        return user;
+    /**
+     * @return позиция в очереди начиная с 1 или 0, если задача не ждёт
+     */
+    public int getQueuePosition(String taskId) {
+        return jobQueue.getQueuePosition(taskId);
+    }
+
+    public SseEmitter subscribe(FileProcessingTask task) {
+        return taskEvents.subscribe(task);
+    }
+
+    public Map<String, Object> getTaskSnapshot(FileProcessingTask task) {
+        return taskEvents.snapshot(task);
     }
 
     public FileProcessingTask getTask(String taskId) {
@@ -0,0 +1,113 @@
+package com.example.service;
+
+import com.example.config.AppProperties;
+import com.example.model.FileProcessingTask;
+import com.example.service.excel.SheetRow;
+
+import java.time.Duration;
+
+/**
+ * Управление одной запущенной задачей: запрос отмены, бюджет времени и лимиты
+ * строк и ячеек. Поток чтения вызывает {@link #checkRow} на каждой строке и
+ * {@link #checkpoint()} между стадиями и пока ждёт отстающую проверку или
+ * запись результата; остановка — исключение
+ * {@link JobStoppedException}, которое снимает задачу с обработчика.
+ */
+final class JobControl {
+    // время проверяется не на каждой строке: nanoTime дороже чтения volatile
+    private static final int CLOCK_CHECK_ROWS = 256;
+
+    private final Duration budget;
+    private final long deadlineNanos;
+    private final long maxRows;
+    private final long maxCells;
+    private long rows;
+    private long cells;
+    private volatile JobStoppedException stop;
+
+    private JobControl(Duration budget, long maxRows, long maxCells) {
+        this.budget = budget;
+        this.deadlineNanos = budget != null ? System.nanoTime() + budget.toNanos() : Long.MAX_VALUE;
+        this.maxRows = maxRows > 0 ? maxRows : Long.MAX_VALUE;
+        this.maxCells = maxCells > 0 ? maxCells : Long.MAX_VALUE;
+    }
+
+    /**
+     * Бюджет отсчитывается с момента создания, то есть с начала обработки.
+     */
+    static JobControl start(AppProperties.Processing processing) {
+        Duration maxDuration = processing.getMaxDuration();
+        return new JobControl(maxDuration != null && !maxDuration.isZero() && !maxDuration.isNegative()
+                ? maxDuration : null, processing.getMaxRows(), processing.getMaxCells());
+    }
+
+    /**
+     * Без отмены извне и лимитов, для замеров.
+     */
+    static JobControl unlimited() {
+        return new JobControl(null, 0, 0);
+    }
+
+    /**
+     * Просит задачу остановиться; поток обработки заметит это на ближайшей строке.
+     */
+    void cancel() {
+        request(new JobStoppedException(FileProcessingTask.TaskStatus.CANCELLED, "Обработка отменена"));
+    }
+
+    /**
+     * Аренду задачи перехватил другой узел: обработка останавливается без смены статуса.
+     */
+    void abandon() {
+        request(JobStoppedException.abandoned());
+    }
+
+    /**
+     * @return причина остановки, если её уже запросили, иначе {@code null}; время не проверяется
+     */
+    JobStoppedException getStopReason() {
+        return stop;
+    }
+
+    void checkRow(SheetRow row) {
+        rows++;
+        cells += row.getLastCellNum() + 1;
+        if (rows > maxRows) {
+            request(new JobStoppedException(FileProcessingTask.TaskStatus.FAILED,
+                    "Файл превышает лимит в " + maxRows + " строк"));
+        } else if (cells > maxCells) {
+            request(new JobStoppedException(FileProcessingTask.TaskStatus.FAILED,
+                    "Файл превышает лимит в " + maxCells + " ячеек"));
+        }
+        if (rows % CLOCK_CHECK_ROWS == 0) {
+            checkClock();
+        }
+        JobStoppedException stopped = stop;
+        if (stopped != null) {
+            throw stopped;
+        }
+    }
+
+    void checkpoint() {
+        checkClock();
+        JobStoppedException stopped = stop;
+        if (stopped != null) {
+            throw stopped;
+        }
+    }
+
+    private void checkClock() {
+        if (budget != null && System.nanoTime() - deadlineNanos > 0) {
+            request(new JobStoppedException(FileProcessingTask.TaskStatus.TIMED_OUT,
+                    "Обработка не уложилась в " + budget.getSeconds() + " с"));
+        }
+    }
+
+    private synchronized void request(JobStoppedException reason) {
+        // первая причина остаётся: отмена после тайм-аута не меняет итог; но задачу,
+        // которую забрал другой узел, этот узел не завершает ни с каким статусом
+        if (stop == null || reason.isAbandoned()) {
+            stop = reason;
+        }
+    }
+}
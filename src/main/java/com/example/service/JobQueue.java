@@ -0,0 +1,76 @@
+package com.example.service;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Очередь задач на обработку. Реализация выбирается настройкой
+ * {@code app.coordination.mode}: {@link JobScheduler} — пул одного узла,
+ * {@link SharedDirectoryJobQueue} — общая очередь нескольких узлов.
+ * <p>
+ * Задача описывается данными, а не замыканием: её может взять любой узел,
+ * поэтому обработчик регистрируется один раз через {@link #start(JobHandler)}.
+ */
+public interface JobQueue {
+
+    @FunctionalInterface
+    interface JobHandler {
+        /**
+         * Обрабатывает задачу. Возвращается, когда файл прочитан и обработчик можно
+         * отдать следующей задаче; результат завершается, когда задача дошла до конца.
+         */
+        CompletableFuture<?> run(String taskId, String inputFile);
+    }
+
+    void start(JobHandler handler);
+
+    /**
+     * Ставит задачу в очередь или отклоняет её, если очередь заполнена.
+     */
+    void submit(String taskId, String inputFile, long sizeBytes) throws JobRejectedException;
+
+    /**
+     * Снимает ждущую задачу с очереди. Если задачу уже взял другой узел, передаёт
+     * ему просьбу остановиться: её получат слушатели {@link #addCancelListener}.
+     *
+     * @return {@code true}, если задача ждала и снята с очереди
+     */
+    boolean cancel(String taskId);
+
+    /**
+     * Вызывается с taskId, когда задачу, которую обрабатывает этот узел, отменили на другом узле.
+     */
+    void addCancelListener(Consumer<String> listener);
+
+    /**
+     * Вызывается с taskId, когда задачу, которую обрабатывает этот узел, перехватил
+     * другой узел: эту обработку нужно прекратить, не меняя состояние задачи.
+     */
+    void addLeaseLostListener(Consumer<String> listener);
+
+    /**
+     * Отказ из-за заполненной очереди; учитывается в {@link #getRejectedCount()}.
+     */
+    JobRejectedException reject();
+
+    boolean isFull();
+
+    /**
+     * @return позиция задачи в очереди начиная с 1 или 0, если задача уже не ждёт
+     */
+    int getQueuePosition(String taskId);
+
+    int getRetryAfterSeconds();
+
+    int getQueueSize();
+
+    /**
+     * @return обработчики этого узла, занятые задачей
+     */
+    int getActiveCount();
+
+    long getRejectedCount();
+
+    Map<String, Object> getStats();
+}
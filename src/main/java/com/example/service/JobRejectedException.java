@@ -0,0 +1,21 @@
+package com.example.service;
+
+import java.io.IOException;
+
+/**
+ * Очередь обработки заполнена, задача не принята.
+ */
+public class JobRejectedException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    private final int retryAfterSeconds;
+
+    public JobRejectedException(String message, int retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.service;
+
+import com.example.config.AppProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Пул обработчиков с ограниченной очередью. Задачи упорядочены по размеру файла
+ * со старением: ключ = время постановки + размер / {@code agingBytesPerSecond},
+ * так что маленькие файлы не ждут за большими, а большие всё равно дойдут до очереди.
+ * Очередь живёт в памяти узла: {@code app.coordination.mode=local}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.coordination", name = "mode", havingValue = "local", matchIfMissing = true)
+public class JobScheduler implements JobQueue {
+    private static final Logger logger = LoggerFactory.getLogger(JobScheduler.class);
+    private static final Comparator<Runnable> ORDER =
+            Comparator.comparingLong((Runnable r) -> ((Job) r).priorityKey)
+                    .thenComparingLong(r -> ((Job) r).sequence);
+
+    private final PriorityBlockingQueue<Runnable> queue;
+    private final ThreadPoolExecutor executor;
+    private final int queueCapacity;
+    private final int retryAfterSeconds;
+    private final long agingBytesPerSecond;
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private volatile JobHandler handler;
+
+    public JobScheduler(AppProperties properties) {
+        AppProperties.Scheduler settings = properties.getScheduler();
+        int threads = Math.max(properties.getMaxProcessingThreads(), 1);
+        this.queueCapacity = settings.getQueueCapacity();
+        this.retryAfterSeconds = settings.getRetryAfterSeconds();
+        this.agingBytesPerSecond = Math.max(settings.getAgingBytesPerSecond(), 1);
+        this.queue = new PriorityBlockingQueue<>(Math.max(queueCapacity, 1), ORDER);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, queue, r -> {
+            Thread thread = new Thread(r, "file-worker-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        // все задачи проходят через очередь, чтобы порядок и позиция считались одинаково
+        this.executor.prestartAllCoreThreads();
+        logger.info("Очередь обработки: {} потоков, до {} задач в ожидании", threads, queueCapacity);
+    }
+
+    @Override
+    public void start(JobHandler handler) {
+        this.handler = handler;
+    }
+
+    @Override
+    public synchronized void submit(String taskId, String inputFile, long sizeBytes) throws JobRejectedException {
+        if (handler == null) {
+            throw new IllegalStateException("Обработчик очереди не зарегистрирован");
+        }
+        if (queue.size() >= queueCapacity) {
+            throw reject();
+        }
+        long priorityKey = System.currentTimeMillis() + sizeBytes * 1000 / agingBytesPerSecond;
+        JobHandler jobHandler = handler;
+        executor.execute(new Job(taskId, priorityKey, sequence.incrementAndGet(),
+                () -> jobHandler.run(taskId, inputFile)));
+    }
+
+    @Override
+    public boolean cancel(String taskId) {
+        return queue.removeIf(job -> ((Job) job).taskId.equals(taskId));
+    }
+
+    /**
+     * Узел один, отменять задачи некому, кроме него самого.
+     */
+    @Override
+    public void addCancelListener(Consumer<String> listener) {
+    }
+
+    /**
+     * Аренд нет, задачу у этого узла забрать некому.
+     */
+    @Override
+    public void addLeaseLostListener(Consumer<String> listener) {
+    }
+
+    @Override
+    public JobRejectedException reject() {
+        rejected.incrementAndGet();
+        return new JobRejectedException("Очередь обработки заполнена, повторите позже", retryAfterSeconds);
+    }
+
+    @Override
+    public boolean isFull() {
+        return queue.size() >= queueCapacity;
+    }
+
+    @Override
+    public int getQueuePosition(String taskId) {
+        Runnable[] waiting = queue.toArray(new Runnable[0]);
+        Arrays.sort(waiting, ORDER);
+        for (int i = 0; i < waiting.length; i++) {
+            if (((Job) waiting[i]).taskId.equals(taskId)) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    @Override
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    @Override
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    @Override
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("mode", "local");
+        stats.put("queued", getQueueSize());
+        stats.put("active", getActiveCount());
+        stats.put("rejected", getRejectedCount());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static final class Job implements Runnable {
+        private final String taskId;
+        private final long priorityKey;
+        private final long sequence;
+        private final Runnable work;
+
+        Job(String taskId, long priorityKey, long sequence, Runnable work) {
+            this.taskId = taskId;
+            this.priorityKey = priorityKey;
+            this.sequence = sequence;
+            this.work = work;
+        }
+
+        @Override
+        public void run() {
+            work.run();
+        }
+    }
+}
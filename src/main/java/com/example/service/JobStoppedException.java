@@ -0,0 +1,38 @@
+package com.example.service;
+
+import com.example.model.FileProcessingTask;
+
+/**
+ * Обработка остановлена до конца: отменена, не уложилась во время или файл
+ * превысил лимиты. Бросается из обработчика строк, поэтому непроверяемое.
+ */
+public class JobStoppedException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final FileProcessingTask.TaskStatus status;
+
+    public JobStoppedException(FileProcessingTask.TaskStatus status, String message) {
+        super(message, null, false, false);
+        this.status = status;
+    }
+
+    /**
+     * Задачу перехватил другой узел: здесь обработка прекращается, а состояние
+     * задачи и её файлы остаются новому владельцу.
+     */
+    static JobStoppedException abandoned() {
+        return new JobStoppedException(null, "Задачу перехватил другой узел");
+    }
+
+    /**
+     * @return статус, с которым завершается задача: CANCELLED, TIMED_OUT или FAILED;
+     * {@code null}, если задача {@link #isAbandoned() брошена}
+     */
+    public FileProcessingTask.TaskStatus getStatus() {
+        return status;
+    }
+
+    public boolean isAbandoned() {
+        return status == null;
+    }
+}
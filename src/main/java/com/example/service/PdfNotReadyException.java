@@ -0,0 +1,21 @@
+package com.example.service;
+
+import java.io.IOException;
+
+/**
+ * PDF-отчёт задачи ещё формируется, запрос стоит повторить позже.
+ */
+public class PdfNotReadyException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    private final int retryAfterSeconds;
+
+    public PdfNotReadyException(String message, int retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
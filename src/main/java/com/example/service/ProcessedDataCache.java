@@ -0,0 +1,138 @@
+package com.example.service;
+
+import com.example.config.AppProperties;
+import com.example.model.ProcessedRows;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LRU-кэш обработанных строк по taskId с TTL и бюджетом памяти в байтах.
+ * Заполняется прямо из результата обработки, чтобы страница статуса и PDF
+ * не перечитывали файл результата processed_&lt;taskId&gt;.
+ */
+@Component
+public class ProcessedDataCache {
+    private static final Logger logger = LoggerFactory.getLogger(ProcessedDataCache.class);
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final int maxEntries;
+    private final long maxBytes;
+    private final long ttlMillis;
+    private final Clock clock;
+    private long currentBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    @Autowired
+    public ProcessedDataCache(AppProperties properties) {
+        this(properties.getCache().getMaxEntries(), properties.getCache().getMaxBytes(),
+                properties.getCache().getTtl(), Clock.systemUTC());
+    }
+
+    ProcessedDataCache(int maxEntries, long maxBytes, Duration ttl, Clock clock) {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.ttlMillis = ttl.toMillis();
+        this.clock = clock;
+    }
+
+    public ProcessedRows get(String taskId) {
+        synchronized (entries) {
+            Entry entry = entries.get(taskId);
+            if (entry != null && isExpired(entry)) {
+                remove(taskId);
+                evictions.incrementAndGet();
+                entry = null;
+            }
+            if (entry == null) {
+                misses.incrementAndGet();
+                return null;
+            }
+            hits.incrementAndGet();
+            return entry.rows;
+        }
+    }
+
+    public void put(String taskId, ProcessedRows rows) {
+        long size = rows.getMemoryFootprint();
+        if (maxEntries <= 0 || size > maxBytes) {
+            logger.debug("Результат задачи {} ({} байт) не помещается в кэш", taskId, size);
+            return;
+        }
+        Entry entry = new Entry(rows, size, clock.millis());
+        synchronized (entries) {
+            remove(taskId);
+            entries.put(taskId, entry);
+            currentBytes += size;
+            evict();
+        }
+    }
+
+    public void invalidate(String taskId) {
+        synchronized (entries) {
+            remove(taskId);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        synchronized (entries) {
+            stats.put("entries", entries.size());
+            stats.put("bytes", currentBytes);
+        }
+        stats.put("maxEntries", maxEntries);
+        stats.put("maxBytes", maxBytes);
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("evictions", evictions.get());
+        return stats;
+    }
+
+    private void remove(String taskId) {
+        Entry old = entries.remove(taskId);
+        if (old != null) {
+            currentBytes -= old.bytes;
+        }
+    }
+
+    private void evict() {
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            Entry eldest = it.next();
+            if (entries.size() <= maxEntries && currentBytes <= maxBytes && !isExpired(eldest)) {
+                break;
+            }
+            it.remove();
+            currentBytes -= eldest.bytes;
+            evictions.incrementAndGet();
+        }
+    }
+
+    private boolean isExpired(Entry entry) {
+        return ttlMillis > 0 && clock.millis() - entry.createdAt > ttlMillis;
+    }
+
+    private static final class Entry {
+        private final ProcessedRows rows;
+        private final long bytes;
+        private final long createdAt;
+
+        Entry(ProcessedRows rows, long bytes, long createdAt) {
+            this.rows = rows;
+            this.bytes = bytes;
+            this.createdAt = createdAt;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.service;
+
+import com.example.model.ProcessedRow;
+
+/**
+ * Получает обработанные строки задачи по порядку. Строка может быть
+ * переиспользуемым представлением: её нельзя сохранять после возврата из вызова,
+ * для этого есть {@link com.example.model.ProcessedUser#copyOf}.
+ */
+@FunctionalInterface
+public interface ProcessedRowHandler {
+    /**
+     * @param index порядковый номер строки в результате, начиная с 0
+     * @return {@code false}, чтобы прекратить чтение
+     */
+    boolean handleRow(int index, ProcessedRow row) throws Exception;
+}
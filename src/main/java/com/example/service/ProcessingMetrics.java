@@ -0,0 +1,142 @@
+package com.example.service;
+
+import com.example.config.AppProperties;
+import com.example.model.FileProcessingTask;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Метрики обработки для Micrometer (экспорт в Prometheus через /actuator/prometheus).
+ * <ul>
+ *     <li>{@code processing.stage} — таймер на каждый {@link FileProcessingTask.Timing}
+ *     с тегами {@code stage} и {@code outcome};</li>
+ *     <li>{@code processing.rows} — счётчик строк по результату проверки, из него
+ *     считается скорость в строках в секунду, {@code processing.task.throughput} —
+ *     скорость отдельных задач;</li>
+ *     <li>{@code processing.queue.size}, {@code processing.workers.active},
+ *     {@code processing.jobs.rejected} — очередь обработки, пулы стадий — через
+ *     стандартные метрики {@code executor.*} с тегом {@code name};</li>
+ *     <li>{@code processing.bytes.in} и {@code processing.bytes.out} — принятые
+ *     загрузки и записанные артефакты (результат в каждом формате и PDF).</li>
+ * </ul>
+ */
+@Component
+public class ProcessingMetrics {
+    private final MeterRegistry registry;
+    private final Map<FileProcessingTask.Timing, Timer> succeeded = new EnumMap<>(FileProcessingTask.Timing.class);
+    private final Map<FileProcessingTask.Timing, Timer> failed = new EnumMap<>(FileProcessingTask.Timing.class);
+    private final Counter rowsValid;
+    private final Counter rowsFailed;
+    private final DistributionSummary taskThroughput;
+    private final Counter bytesIn;
+    private final Map<AppProperties.Output.Format, Counter> resultBytesOut =
+            new EnumMap<>(AppProperties.Output.Format.class);
+    private final Counter pdfBytesOut;
+
+    public ProcessingMetrics(MeterRegistry registry, JobQueue jobQueue, ProcessingStages stages) {
+        this.registry = registry;
+        for (FileProcessingTask.Timing timing : FileProcessingTask.Timing.values()) {
+            succeeded.put(timing, stageTimer(timing, "success"));
+            failed.put(timing, stageTimer(timing, "failure"));
+        }
+        this.rowsValid = rowsCounter("valid");
+        this.rowsFailed = rowsCounter("invalid");
+        this.taskThroughput = DistributionSummary.builder("processing.task.throughput")
+                .description("Скорость обработки задачи от начала разбора до готового xlsx")
+                .baseUnit("rows/s")
+                .register(registry);
+        this.bytesIn = Counter.builder("processing.bytes.in")
+                .description("Размер принятых загрузок")
+                .baseUnit(BaseUnits.BYTES)
+                .tag("artifact", "upload")
+                .register(registry);
+        for (AppProperties.Output.Format format : AppProperties.Output.Format.values()) {
+            resultBytesOut.put(format, bytesOutCounter(format.getExtension()));
+        }
+        this.pdfBytesOut = bytesOutCounter("pdf");
+
+        Gauge.builder("processing.queue.size", jobQueue, JobQueue::getQueueSize)
+                .description("Задачи, ожидающие свободного обработчика")
+                .register(registry);
+        Gauge.builder("processing.workers.active", jobQueue, JobQueue::getActiveCount)
+                .description("Обработчики, занятые задачей")
+                .register(registry);
+        FunctionCounter.builder("processing.jobs.rejected", jobQueue, JobQueue::getRejectedCount)
+                .description("Загрузки, отклонённые из-за заполненной очереди")
+                .register(registry);
+        bindExecutor(stages.getValidatePool(), "validate");
+        bindExecutor(stages.getXlsxPool(), "xlsx-writer");
+        bindExecutor(stages.getPdfPool(), "pdf-renderer");
+        bindExecutor(stages.getHandoffPool(), "stage-handoff");
+    }
+
+    public void recordTiming(FileProcessingTask.Timing timing, long nanos, boolean success) {
+        (success ? succeeded : failed).get(timing).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordRow(boolean valid) {
+        (valid ? rowsValid : rowsFailed).increment();
+    }
+
+    public void recordTaskThroughput(long rows, long millis) {
+        if (rows > 0 && millis > 0) {
+            taskThroughput.record(rows * 1000.0 / millis);
+        }
+    }
+
+    public void recordBytesIn(long bytes) {
+        bytesIn.increment(bytes);
+    }
+
+    public void recordResultBytesOut(AppProperties.Output.Format format, long bytes) {
+        resultBytesOut.get(format).increment(bytes);
+    }
+
+    public void recordPdfBytesOut(long bytes) {
+        pdfBytesOut.increment(bytes);
+    }
+
+    private Timer stageTimer(FileProcessingTask.Timing timing, String outcome) {
+        return Timer.builder("processing.stage")
+                .description("Длительность стадии обработки")
+                .tag("stage", timing.name().toLowerCase(Locale.ROOT))
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private Counter rowsCounter(String result) {
+        return Counter.builder("processing.rows")
+                .description("Обработанные строки")
+                .baseUnit("rows")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private Counter bytesOutCounter(String artifact) {
+        return Counter.builder("processing.bytes.out")
+                .description("Размер записанных артефактов")
+                .baseUnit(BaseUnits.BYTES)
+                .tag("artifact", artifact)
+                .register(registry);
+    }
+
+    private void bindExecutor(ExecutorService executor, String name) {
+        if (executor != null) {
+            new ExecutorServiceMetrics(executor, name, Tags.empty()).bindTo(registry);
+        }
+    }
+}
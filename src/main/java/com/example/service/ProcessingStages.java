@@ -0,0 +1,107 @@
+package com.example.service;
+
+import com.example.config.AppProperties;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Пулы стадий обработки. Чтение файла идёт на потоках {@link JobScheduler},
+ * проверка строк — на {@link #getValidatePool()} (если включена параллельность),
+ * запись xlsx и формирование PDF — на собственных пулах, поэтому тяжёлый PDF
+ * не держит потоки, которые могли бы разбирать следующие файлы. Переход между
+ * стадиями (сохранение статуса, постановка PDF) идёт на {@link #getHandoffPool()},
+ * а не в потоке писателя: иначе занятый писатель задерживал бы остальные задачи.
+ */
+@Component
+public class ProcessingStages {
+    private final ExecutorService validatePool;
+    private final ThreadPoolExecutor xlsxPool;
+    private final ThreadPoolExecutor pdfPool;
+    private final ThreadPoolExecutor handoffPool;
+    private final int maxChunksInFlight;
+
+    public ProcessingStages(AppProperties properties) {
+        AppProperties.Processing processing = properties.getProcessing();
+        AppProperties.Pipeline pipeline = properties.getPipeline();
+
+        this.validatePool = processing.isParallel()
+                ? new ForkJoinPool(processing.effectiveParallelism())
+                : null;
+        this.maxChunksInFlight = processing.effectiveParallelism() * 2;
+
+        // писателей не больше, чем читающих задач, поэтому очередь ограничена сама собой
+        int xlsxThreads = pipeline.getXlsxThreads() > 0
+                ? pipeline.getXlsxThreads()
+                : Math.max(properties.getMaxProcessingThreads(), 1);
+        this.xlsxPool = new ThreadPoolExecutor(xlsxThreads, xlsxThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), threadFactory("xlsx-writer-"));
+
+        int pdfThreads = Math.max(pipeline.getPdfThreads(), 1);
+        this.pdfPool = new ThreadPoolExecutor(pdfThreads, pdfThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(pipeline.getPdfQueueCapacity(), 1)),
+                threadFactory("pdf-renderer-"), new ThreadPoolExecutor.AbortPolicy());
+
+        // работа здесь короткая, одного потока хватает
+        this.handoffPool = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), threadFactory("stage-handoff-"));
+    }
+
+    /**
+     * @return пул для проверки строк или {@code null}, если строки проверяются в потоке чтения
+     */
+    public ExecutorService getValidatePool() {
+        return validatePool;
+    }
+
+    public int getMaxChunksInFlight() {
+        return maxChunksInFlight;
+    }
+
+    public ExecutorService getXlsxPool() {
+        return xlsxPool;
+    }
+
+    /**
+     * Переполнение очереди PDF — {@link java.util.concurrent.RejectedExecutionException}:
+     * вызывающий поток сам отчёт не формирует.
+     */
+    public ExecutorService getPdfPool() {
+        return pdfPool;
+    }
+
+    public ExecutorService getHandoffPool() {
+        return handoffPool;
+    }
+
+    public int getPdfQueueSize() {
+        return pdfPool.getQueue().size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (validatePool != null) {
+            validatePool.shutdownNow();
+        }
+        xlsxPool.shutdownNow();
+        pdfPool.shutdownNow();
+        handoffPool.shutdownNow();
+    }
+
+    private static ThreadFactory threadFactory(String prefix) {
+        AtomicInteger number = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, prefix + number.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.service;
+
+import com.example.config.AppProperties;
+import com.example.model.ProcessedUser;
+import com.example.service.excel.StreamingXlsxWriter;
+import com.example.service.text.CsvRowWriter;
+import com.example.service.text.NdjsonRowWriter;
+import com.fasterxml.jackson.core.JsonFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.UUID;
+
+/**
+ * Файл результата одного формата. Пишется во временный файл рядом с итоговым
+ * и переименовывается в {@link #commit()}; {@link #close()} без {@code commit}
+ * удаляет недописанный файл.
+ */
+abstract class ResultFile implements Closeable {
+    final AppProperties.Output.Format format;
+    final Path target;
+    final Path tmp;
+
+    private ResultFile(AppProperties.Output.Format format, Path target) {
+        this.format = format;
+        this.target = target;
+        this.tmp = tempFileFor(target);
+    }
+
+    /**
+     * Временный файл рядом с итоговым, свой у каждого запуска: после перехвата аренды
+     * одну задачу могут какое-то время писать два узла, и они не должны делить файл.
+     * Имя начинается с имени итогового файла, поэтому задача по нему находится так же.
+     */
+    static Path tempFileFor(Path target) {
+        return target.resolveSibling(target.getFileName() + "." + UUID.randomUUID() + ".tmp");
+    }
+
+    static ResultFile create(AppProperties.Output.Format format, Path target, AppProperties.Output output,
+                             JsonFactory jsonFactory) throws IOException {
+        switch (format) {
+            case CSV:
+                return new Csv(target);
+            case NDJSON:
+                return new Ndjson(target, jsonFactory);
+            default:
+                return new Xlsx(target, output);
+        }
+    }
+
+    abstract void writeRow(int rowNum, ProcessedUser user) throws IOException;
+
+    /**
+     * Дописывает временный файл.
+     */
+    abstract void finish() throws IOException;
+
+    /**
+     * Закрывает писатель, если он ещё открыт.
+     */
+    abstract void closeWriter() throws IOException;
+
+    void commit() throws IOException {
+        finish();
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            closeWriter();
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * SXSSF держит окно строк в памяти и выгружает книгу целиком в конце.
+     */
+    private static final class Xlsx extends ResultFile {
+        private final StreamingXlsxWriter writer;
+
+        Xlsx(Path target, AppProperties.Output output) {
+            super(AppProperties.Output.Format.XLSX, target);
+            this.writer = new StreamingXlsxWriter(output.getRowWindow(), output.isCompressTempFiles(),
+                    output.isSplitByStatus());
+        }
+
+        @Override
+        void writeRow(int rowNum, ProcessedUser user) {
+            writer.writeRow(rowNum, user);
+        }
+
+        @Override
+        void finish() throws IOException {
+            writer.writeTo(tmp);
+        }
+
+        @Override
+        void closeWriter() throws IOException {
+            writer.close();
+        }
+    }
+
+    private static final class Csv extends ResultFile {
+        private final CsvRowWriter writer;
+        private boolean closed;
+
+        Csv(Path target) throws IOException {
+            super(AppProperties.Output.Format.CSV, target);
+            this.writer = new CsvRowWriter(Files.newOutputStream(tmp));
+        }
+
+        @Override
+        void writeRow(int rowNum, ProcessedUser user) throws IOException {
+            writer.writeRow(user);
+        }
+
+        @Override
+        void finish() throws IOException {
+            closeWriter();
+        }
+
+        @Override
+        void closeWriter() throws IOException {
+            if (!closed) {
+                closed = true;
+                writer.close();
+            }
+        }
+    }
+
+    private static final class Ndjson extends ResultFile {
+        private final NdjsonRowWriter writer;
+        private boolean closed;
+
+        Ndjson(Path target, JsonFactory jsonFactory) throws IOException {
+            super(AppProperties.Output.Format.NDJSON, target);
+            this.writer = new NdjsonRowWriter(jsonFactory, Files.newOutputStream(tmp));
+        }
+
+        @Override
+        void writeRow(int rowNum, ProcessedUser user) throws IOException {
+            writer.writeRow(user);
+        }
+
+        @Override
+        void finish() throws IOException {
+            closeWriter();
+        }
+
+        @Override
+        void closeWriter() throws IOException {
+            if (!closed) {
+                closed = true;
+                writer.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.service;
+
+import com.example.model.ProcessedUser;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стадия записи результата: обработанные строки передаются через ограниченную
+ * очередь в отдельный поток, который пишет их во все {@link ResultFile} задачи
+ * (xlsx, csv, ndjson) за один проход. Если писатель отстаёт, поток чтения ждёт
+ * на {@link #accept}, проверяя {@link JobControl}.
+ */
+class ResultWriterStage {
+    private static final Item END = new Item(-1, null);
+    private static final Item ABORT = new Item(-1, null);
+
+    private final BlockingQueue<Item> queue;
+    private final List<ResultFile> files;
+    private final JobControl control;
+    private CompletableFuture<Void> result;
+
+    ResultWriterStage(List<ResultFile> files, int bufferRows, JobControl control) {
+        this.queue = new ArrayBlockingQueue<>(Math.max(bufferRows, 1));
+        this.files = List.copyOf(files);
+        this.control = control;
+    }
+
+    /**
+     * @return завершается, когда все файлы записаны и переименованы в итоговые
+     */
+    CompletableFuture<Void> start(Executor executor) {
+        result = CompletableFuture.runAsync(() -> {
+            try {
+                write();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Запись результата прервана", e);
+            }
+        }, executor);
+        return result;
+    }
+
+    void accept(int rowNum, ProcessedUser user) throws IOException, InterruptedException {
+        put(new Item(rowNum, user));
+    }
+
+    void finish() throws IOException, InterruptedException {
+        put(END);
+    }
+
+    void abort() {
+        queue.clear();
+        queue.offer(ABORT);
+    }
+
+    private void put(Item item) throws IOException, InterruptedException {
+        while (!queue.offer(item, 100, TimeUnit.MILLISECONDS)) {
+            if (result.isDone()) {
+                result.join();
+                throw new IOException("Запись результата остановлена");
+            }
+            control.checkpoint();
+        }
+    }
+
+    private void write() throws IOException, InterruptedException {
+        try {
+            while (true) {
+                Item item = queue.take();
+                if (item == ABORT) {
+                    throw new IOException("Запись результата отменена");
+                }
+                if (item == END) {
+                    break;
+                }
+                for (ResultFile file : files) {
+                    file.writeRow(item.rowNum, item.user);
+                }
+            }
+            for (ResultFile file : files) {
+                file.commit();
+            }
+        } finally {
+            closeAll();
+        }
+    }
+
+    private void closeAll() throws IOException {
+        IOException error = null;
+        for (ResultFile file : files) {
+            try {
+                file.close();
+            } catch (IOException e) {
+                if (error == null) {
+                    error = e;
+                } else {
+                    error.addSuppressed(e);
+                }
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    private static final class Item {
+        private final int rowNum;
+        private final ProcessedUser user;
+
+        Item(int rowNum, ProcessedUser user) {
+            this.rowNum = rowNum;
+            this.user = user;
+        }
+    }
+}
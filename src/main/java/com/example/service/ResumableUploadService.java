@@ -0,0 +1,413 @@
+package com.example.service;
+
+import com.example.config.AppProperties;
+import com.example.model.ResumableUpload;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Докачиваемая загрузка частями, по образцу протокола tus: загрузка создаётся
+ * с объявленным размером, фрагменты приходят с указанием смещения, после
+ * приёма всех фрагментов загрузка завершается и файл уходит в очередь.
+ * <p>
+ * Файл создаётся сразу под итоговым именем {@code <uploadId>_<filename>} в
+ * каталоге загрузок, и каждый фрагмент пишется позиционной записью NIO прямо
+ * на своё место: ни буфера multipart, ни второго копирования. Фрагменты можно
+ * слать параллельно и в любом порядке, повторная отправка принятого диапазона
+ * безвредна. Если соединение оборвалось, принятая часть фрагмента засчитывается,
+ * и клиент продолжает с {@code Upload-Offset}. Идентификатор загрузки становится
+ * taskId задачи.
+ * <p>
+ * Состояние хранится в {@code upload_<uploadId>.json} рядом с файлом и
+ * переживает перезапуск. Незавершённые загрузки без новых фрагментов дольше
+ * {@code app.resumable.expiry} удаляются.
+ * <p>
+ * Пока фрагмент записывается, загрузку нельзя завершить, отменить или удалить
+ * по сроку: такие запросы получают отказ и повторяются позже. Принятые
+ * диапазоны хранятся в памяти узла, поэтому в режиме общего каталога все
+ * запросы одной загрузки должны приходить на один узел (липкие сессии
+ * балансировщика); завершённую загрузку видят все узлы.
+ */
+@Service
+public class ResumableUploadService {
+    private static final Logger logger = LoggerFactory.getLogger(ResumableUploadService.class);
+    private static final int WRITE_BUFFER_BYTES = 64 * 1024;
+    static final String MANIFEST_PREFIX = "upload_";
+
+    private final FileProcessingService fileProcessingService;
+    private final ObjectMapper objectMapper;
+    private final Path uploadDir;
+    private final long maxSize;
+    private final long expiryMillis;
+    private final long intervalMillis;
+    private final Map<String, ResumableUpload> uploads = new ConcurrentHashMap<>();
+    /** Сколько фрагментов загрузки записывается сейчас; меняется под блокировкой загрузки. */
+    private final Map<String, Integer> writers = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "resumable-uploads-reaper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ResumableUploadService(AppProperties properties, FileProcessingService fileProcessingService,
+                                  ObjectMapper objectMapper) {
+        this.fileProcessingService = fileProcessingService;
+        this.objectMapper = objectMapper;
+        this.uploadDir = Paths.get(properties.getUploadDir());
+        this.maxSize = properties.getResumable().getMaxSize().toBytes();
+        long diskQuota = properties.getTasks().getDiskQuota().toBytes();
+        if (maxSize > diskQuota) {
+            // один завершённый файл вытеснил бы по квоте все остальные задачи
+            throw new IllegalStateException("app.resumable.max-size (" + maxSize
+                    + " байт) больше app.tasks.disk-quota (" + diskQuota + " байт)");
+        }
+        this.expiryMillis = properties.getResumable().getExpiry().toMillis();
+        this.intervalMillis = Math.max(properties.getTasks().getReapInterval().toMillis(), 1000);
+    }
+
+    @PostConstruct
+    public void start() {
+        timer.scheduleWithFixedDelay(this::reapSafely, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        timer.shutdownNow();
+    }
+
+    /**
+     * Создаёт загрузку и файл объявленного размера.
+     */
+    public ResumableUpload create(String filename, long length) throws IOException {
+        String name = baseName(filename);
+        if (!FileProcessingService.isSupportedInput(name)) {
+            throw new IllegalArgumentException(FileProcessingService.UNSUPPORTED_INPUT);
+        }
+        if (length <= 0) {
+            throw new IllegalArgumentException("File is empty");
+        }
+        if (length > maxSize) {
+            throw new IllegalArgumentException("Файл больше допустимых " + maxSize + " байт");
+        }
+
+        ResumableUpload upload = new ResumableUpload();
+        upload.setUploadId(UUID.randomUUID().toString());
+        upload.setFilename(name);
+        upload.setLength(length);
+        upload.setCreatedDate(Instant.now());
+        try (RandomAccessFile file = new RandomAccessFile(dataFile(upload).toFile(), "rw")) {
+            file.setLength(length);
+        }
+        save(upload);
+        uploads.put(upload.getUploadId(), upload);
+        logger.info("Загрузка {} создана: {}, {} байт", upload.getUploadId(), name, length);
+        return upload;
+    }
+
+    /**
+     * @throws FileNotFoundException если загрузки нет или она удалена по сроку
+     */
+    public ResumableUpload get(String uploadId) throws IOException {
+        ResumableUpload upload = uploads.get(uploadId);
+        if (upload != null) {
+            return upload;
+        }
+        Path manifest;
+        try {
+            manifest = manifestFile(uploadId);
+        } catch (IllegalArgumentException e) {
+            throw new FileNotFoundException("Загрузка не найдена");
+        }
+        if (!Files.exists(manifest)) {
+            throw new FileNotFoundException("Загрузка не найдена");
+        }
+        ResumableUpload loaded = objectMapper.readValue(manifest.toFile(), ResumableUpload.class);
+        ResumableUpload existing = uploads.putIfAbsent(uploadId, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    /**
+     * Пишет фрагмент с позиции {@code offset}. При обрыве соединения принятая
+     * часть фрагмента всё равно засчитывается.
+     *
+     * @return загрузка с обновлёнными диапазонами
+     */
+    public ResumableUpload writeChunk(String uploadId, long offset, InputStream body) throws IOException {
+        ResumableUpload upload = get(uploadId);
+        if (offset < 0 || offset > upload.getLength()) {
+            throw new IllegalArgumentException("Смещение " + offset + " вне файла размером " + upload.getLength());
+        }
+        synchronized (upload) {
+            if (!isOpen(upload)) {
+                throw new FileNotFoundException("Загрузка не найдена");
+            }
+            if (upload.getTaskId() != null) {
+                throw new IllegalStateException("Загрузка уже завершена");
+            }
+            writers.merge(uploadId, 1, Integer::sum);
+        }
+        try {
+            write(upload, offset, body);
+        } finally {
+            synchronized (upload) {
+                writers.computeIfPresent(uploadId, (id, count) -> count > 1 ? count - 1 : null);
+            }
+        }
+        return upload;
+    }
+
+    private void write(ResumableUpload upload, long offset, InputStream body) throws IOException {
+        long position = offset;
+        ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_BYTES);
+        ReadableByteChannel source = Channels.newChannel(body);
+        try (FileChannel channel = FileChannel.open(dataFile(upload), StandardOpenOption.WRITE)) {
+            try {
+                while (true) {
+                    long remaining = upload.getLength() - position;
+                    if (remaining == 0) {
+                        if (body.read() >= 0) {
+                            throw new IllegalArgumentException("Фрагмент выходит за объявленный размер файла");
+                        }
+                        break;
+                    }
+                    buffer.clear();
+                    buffer.limit((int) Math.min(buffer.capacity(), remaining));
+                    if (source.read(buffer) < 0) {
+                        break;
+                    }
+                    buffer.flip();
+                    while (buffer.hasRemaining()) {
+                        position += channel.write(buffer, position);
+                    }
+                }
+            } finally {
+                if (position > offset) {
+                    // диапазон отмечается принятым только после того, как данные на диске
+                    channel.force(false);
+                    markReceived(upload, offset, position);
+                }
+            }
+        }
+    }
+
+    /**
+     * Завершает загрузку и ставит файл в очередь. Повторный вызов возвращает ту же задачу.
+     *
+     * @return taskId новой задачи или существующей задачи с тем же содержимым
+     * @throws IllegalStateException если приняты не все фрагменты
+     */
+    public String complete(String uploadId) throws IOException {
+        ResumableUpload upload = get(uploadId);
+        synchronized (upload) {
+            if (upload.getTaskId() != null) {
+                return upload.getTaskId();
+            }
+            requireNoWriters(upload);
+            List<long[]> missing = missingRanges(upload);
+            if (!missing.isEmpty()) {
+                throw new IllegalStateException("Приняты не все фрагменты: не хватает "
+                        + missing.size() + " диапазонов начиная с " + missing.get(0)[0]);
+            }
+            long uploadNanos = Duration.between(upload.getCreatedDate(), Instant.now()).toNanos();
+            String taskId = fileProcessingService.processSavedFile(upload.getUploadId(), upload.getFilename(),
+                    dataFile(upload), uploadNanos);
+            upload.setTaskId(taskId);
+            save(upload);
+            logger.info("Загрузка {} завершена, задача {}", uploadId, taskId);
+            return taskId;
+        }
+    }
+
+    /**
+     * Отменяет незавершённую загрузку и удаляет принятые данные.
+     */
+    public void abort(String uploadId) throws IOException {
+        ResumableUpload upload = get(uploadId);
+        synchronized (upload) {
+            if (upload.getTaskId() != null) {
+                throw new IllegalStateException("Загрузка уже завершена");
+            }
+            requireNoWriters(upload);
+            delete(upload, true);
+        }
+        logger.info("Загрузка {} отменена", uploadId);
+    }
+
+    /**
+     * @return конец непрерывно принятого начала файла, как {@code Upload-Offset} в tus
+     */
+    public static long contiguousOffset(ResumableUpload upload) {
+        synchronized (upload) {
+            List<long[]> received = upload.getReceived();
+            return !received.isEmpty() && received.get(0)[0] == 0 ? received.get(0)[1] : 0;
+        }
+    }
+
+    /**
+     * @return диапазоны {@code [начало, конец)}, которые ещё не приняты
+     */
+    public static List<long[]> missingRanges(ResumableUpload upload) {
+        synchronized (upload) {
+            List<long[]> missing = new ArrayList<>();
+            long position = 0;
+            for (long[] range : upload.getReceived()) {
+                if (range[0] > position) {
+                    missing.add(new long[]{position, range[0]});
+                }
+                position = range[1];
+            }
+            if (position < upload.getLength()) {
+                missing.add(new long[]{position, upload.getLength()});
+            }
+            return missing;
+        }
+    }
+
+    /**
+     * Запись, закончившаяся после отмены или удаления по сроку, не засчитывается:
+     * иначе описание удалённой загрузки появилось бы снова.
+     */
+    private void markReceived(ResumableUpload upload, long start, long end) throws IOException {
+        synchronized (upload) {
+            if (!isOpen(upload) || upload.getTaskId() != null) {
+                return;
+            }
+            List<long[]> merged = new ArrayList<>();
+            long[] added = {start, end};
+            for (long[] range : upload.getReceived()) {
+                if (range[1] < added[0] || range[0] > added[1]) {
+                    merged.add(range);
+                } else {
+                    added = new long[]{Math.min(range[0], added[0]), Math.max(range[1], added[1])};
+                }
+            }
+            merged.add(added);
+            merged.sort((a, b) -> Long.compare(a[0], b[0]));
+            upload.setReceived(merged);
+            save(upload);
+        }
+    }
+
+    private void reapSafely() {
+        try {
+            reap();
+        } catch (Exception e) {
+            logger.error("Ошибка очистки незавершённых загрузок", e);
+        }
+    }
+
+    /**
+     * Удаляет заброшенные загрузки. У завершённых удаляется только описание:
+     * файл уже принадлежит задаче.
+     */
+    void reap() throws IOException {
+        long expiredBefore = System.currentTimeMillis() - expiryMillis;
+        try (DirectoryStream<Path> manifests = Files.newDirectoryStream(uploadDir, MANIFEST_PREFIX + "*.json")) {
+            for (Path manifest : manifests) {
+                if (Files.getLastModifiedTime(manifest).toMillis() >= expiredBefore) {
+                    continue;
+                }
+                String name = manifest.getFileName().toString();
+                String uploadId = name.substring(MANIFEST_PREFIX.length(), name.length() - ".json".length());
+                ResumableUpload upload;
+                try {
+                    upload = get(uploadId);
+                } catch (IOException e) {
+                    logger.warn("Повреждено описание загрузки {}, удаляем: {}", name, e.getMessage());
+                    Files.deleteIfExists(manifest);
+                    continue;
+                }
+                synchronized (upload) {
+                    if (writers.containsKey(uploadId)) {
+                        continue;
+                    }
+                    boolean abandoned = upload.getTaskId() == null;
+                    if (abandoned) {
+                        logger.info("Загрузка {} не завершена за {}, удаляем", uploadId,
+                                Duration.ofMillis(expiryMillis));
+                    }
+                    delete(upload, abandoned);
+                }
+            }
+        }
+    }
+
+    private void requireNoWriters(ResumableUpload upload) {
+        if (writers.containsKey(upload.getUploadId())) {
+            throw new IllegalStateException("Фрагменты ещё записываются, повторите позже");
+        }
+    }
+
+    /**
+     * @return false, если загрузка удалена и её описание больше не действует
+     */
+    private boolean isOpen(ResumableUpload upload) {
+        return uploads.get(upload.getUploadId()) == upload;
+    }
+
+    /**
+     * Сначала удаляются файлы, потом запись в памяти: пока файлы удаляются,
+     * {@link #get} не перечитает описание с диска заново.
+     */
+    private void delete(ResumableUpload upload, boolean withData) throws IOException {
+        if (withData) {
+            Files.deleteIfExists(dataFile(upload));
+        }
+        Files.deleteIfExists(manifestFile(upload.getUploadId()));
+        uploads.remove(upload.getUploadId(), upload);
+    }
+
+    private void save(ResumableUpload upload) throws IOException {
+        Path manifest = manifestFile(upload.getUploadId());
+        Path tmp = manifest.resolveSibling(manifest.getFileName() + ".tmp");
+        synchronized (upload) {
+            objectMapper.writeValue(tmp.toFile(), upload);
+            Files.move(tmp, manifest, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    private Path dataFile(ResumableUpload upload) {
+        return uploadDir.resolve(upload.getUploadId() + "_" + upload.getFilename());
+    }
+
+    private Path manifestFile(String uploadId) {
+        // UUID.fromString не пропустит в имя файла ничего, кроме идентификатора
+        return uploadDir.resolve(MANIFEST_PREFIX + UUID.fromString(uploadId) + ".json");
+    }
+
+    private static String baseName(String name) {
+        if (name == null) {
+            return "";
+        }
+        return name.substring(Math.max(name.lastIndexOf('/'), name.lastIndexOf('\\')) + 1);
+    }
+}
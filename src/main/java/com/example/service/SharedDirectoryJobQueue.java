@@ -0,0 +1,638 @@
+package com.example.service;
+
+import com.example.config.AppProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Общая очередь нескольких узлов поверх каталога {@code app.coordination.directory}:
+ * <ul>
+ *     <li>{@code queue/<ключ приоритета>-<taskId>.job} — задача в очереди; имя
+ *     упорядочено так же, как в {@link JobScheduler}: время постановки плюс старение по размеру;</li>
+ *     <li>{@code leases/<taskId>.lease} — аренда: задачу взял узел, имя которого записано
+ *     в файле. Файл пишется под временным именем и ставится на место жёсткой ссылкой,
+ *     которая не создаётся поверх существующего файла, поэтому взять задачу может только один узел;</li>
+ *     <li>{@code leases/<taskId>.<время продления>.takeover} — отметка о перехвате
+ *     просроченной аренды, создаётся с {@code CREATE_NEW}: одну и ту же просроченную
+ *     аренду перехватывает только один узел, остальные отступают;</li>
+ *     <li>{@code nodes/<nodeId>.node} — отметка, что узел жив;</li>
+ *     <li>{@code cancels/<taskId>.cancel} — просьба остановить задачу, которую взял
+ *     другой узел; узел-владелец замечает её при продлении аренд.</li>
+ * </ul>
+ * Свободные обработчики любого узла забирают первую задачу без живой аренды,
+ * так что работа сама перетекает к незанятым узлам. Узел продлевает свои аренды
+ * раз в {@code heartbeat-interval}, меняя время изменения файла; аренда без продления
+ * дольше {@code lease-timeout} считается брошенной (узел упал), и задачу перехватывает
+ * другой узел. Файл задачи удаляется, когда задача дошла до конца.
+ * <p>
+ * Узел, который не смог вовремя продлить аренду (например, долго стоял на паузе
+ * сборки мусора), при следующем продлении видит чужую аренду и останавливает свою
+ * обработку задачи через слушателей {@link #addLeaseLostListener}; пока он этого
+ * не заметил, задачу пишут два узла, каждый в свои временные файлы
+ * ({@link ResultFile#tempFileFor}), так что чужой недописанный файл никто не портит
+ * и не удаляет. Часы узлов должны быть синхронизированы, лимит очереди проверяется
+ * без блокировки и поэтому мягкий.
+ * <p>
+ * Проверить локально: запустить несколько экземпляров с разными {@code server.port}
+ * и одинаковыми {@code app.coordination.mode=shared-directory},
+ * {@code app.coordination.directory} и {@code app.upload-dir} внутри этого каталога.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.coordination", name = "mode", havingValue = "shared-directory")
+public class SharedDirectoryJobQueue implements JobQueue {
+    private static final Logger logger = LoggerFactory.getLogger(SharedDirectoryJobQueue.class);
+    private static final String JOB_SUFFIX = ".job";
+    private static final String LEASE_SUFFIX = ".lease";
+    private static final String NODE_SUFFIX = ".node";
+    private static final String CANCEL_SUFFIX = ".cancel";
+    private static final String TAKEOVER_SUFFIX = ".takeover";
+
+    private final Path queueDir;
+    private final Path leasesDir;
+    private final Path nodesDir;
+    private final Path cancelsDir;
+    private final String nodeId;
+    private final ObjectMapper objectMapper;
+    private final int threads;
+    private final int queueCapacity;
+    private final int retryAfterSeconds;
+    private final long agingBytesPerSecond;
+    private final long heartbeatMillis;
+    private final long leaseTimeoutMillis;
+    private final long pollMillis;
+    private final Map<String, Path> heldLeases = new ConcurrentHashMap<>();
+    private final List<Consumer<String>> cancelListeners = new CopyOnWriteArrayList<>();
+    private final List<Consumer<String>> leaseLostListeners = new CopyOnWriteArrayList<>();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong takenOver = new AtomicLong();
+    private final Semaphore submitted = new Semaphore(0);
+    private final ExecutorService workers;
+    private final ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "queue-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile JobHandler handler;
+    private volatile boolean running = true;
+
+    public SharedDirectoryJobQueue(AppProperties properties, ObjectMapper objectMapper) throws IOException {
+        AppProperties.Coordination coordination = properties.getCoordination();
+        AppProperties.Scheduler scheduler = properties.getScheduler();
+        Path directory = Paths.get(coordination.getDirectory());
+        this.queueDir = Files.createDirectories(directory.resolve("queue"));
+        this.leasesDir = Files.createDirectories(directory.resolve("leases"));
+        this.nodesDir = Files.createDirectories(directory.resolve("nodes"));
+        this.cancelsDir = Files.createDirectories(directory.resolve("cancels"));
+        this.nodeId = resolveNodeId(coordination.getNodeId());
+        this.objectMapper = objectMapper;
+        this.threads = Math.max(properties.getMaxProcessingThreads(), 1);
+        this.queueCapacity = scheduler.getQueueCapacity();
+        this.retryAfterSeconds = scheduler.getRetryAfterSeconds();
+        this.agingBytesPerSecond = Math.max(scheduler.getAgingBytesPerSecond(), 1);
+        this.heartbeatMillis = Math.max(coordination.getHeartbeatInterval().toMillis(), 100);
+        this.leaseTimeoutMillis = Math.max(coordination.getLeaseTimeout().toMillis(), heartbeatMillis * 2);
+        this.pollMillis = Math.max(coordination.getPollInterval().toMillis(), 10);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "file-worker-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void start(JobHandler handler) {
+        this.handler = handler;
+        heartbeat.scheduleWithFixedDelay(this::heartbeatSafely, 0, heartbeatMillis, TimeUnit.MILLISECONDS);
+        for (int i = 0; i < threads; i++) {
+            workers.execute(this::workLoop);
+        }
+        logger.info("Узел {}: общая очередь {}, {} потоков", nodeId, queueDir.toAbsolutePath(), threads);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        workers.shutdownNow();
+        heartbeat.shutdownNow();
+        // отпущенные аренды другие узлы подхватят сразу, не дожидаясь lease-timeout
+        for (String taskId : new ArrayList<>(heldLeases.keySet())) {
+            releaseLease(taskId);
+        }
+        try {
+            Files.deleteIfExists(nodesDir.resolve(nodeId + NODE_SUFFIX));
+        } catch (IOException e) {
+            logger.debug("Не удалось удалить отметку узла: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void submit(String taskId, String inputFile, long sizeBytes) throws JobRejectedException {
+        if (isFull()) {
+            throw reject();
+        }
+        long priorityKey = System.currentTimeMillis() + sizeBytes * 1000 / agingBytesPerSecond;
+        String name = String.format("%019d-%s%s", priorityKey, taskId, JOB_SUFFIX);
+        Path tmp = queueDir.resolve("." + name + ".tmp");
+        try {
+            JobFile job = new JobFile();
+            job.taskId = taskId;
+            job.inputFile = inputFile;
+            job.sizeBytes = sizeBytes;
+            job.submittedBy = nodeId;
+            Files.write(tmp, objectMapper.writeValueAsBytes(job));
+            Files.move(tmp, queueDir.resolve(name), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            try {
+                Files.deleteIfExists(tmp);
+            } catch (IOException ignored) {
+                // остаток уберёт следующая попытка
+            }
+            throw new IllegalStateException("Не удалось поставить задачу в общую очередь: " + e.getMessage(), e);
+        }
+        submitted.release();
+    }
+
+    /**
+     * Ждущую задачу снимает, сначала взяв её аренду, чтобы её не забрал обработчик.
+     * Взятой задаче оставляет отметку в {@code cancels/}.
+     */
+    @Override
+    public boolean cancel(String taskId) {
+        for (Path job : listJobs()) {
+            if (!taskIdOf(job).equals(taskId)) {
+                continue;
+            }
+            Path lease = leaseOf(taskId);
+            try {
+                // не удалось — аренду только что взял обработчик или осталась просроченная: просим остановиться
+                if (!isLeased(taskId) && createLease(lease)) {
+                    Files.deleteIfExists(job);
+                    Files.deleteIfExists(lease);
+                    return true;
+                }
+            } catch (IOException e) {
+                logger.warn("Не удалось снять задачу {} с очереди: {}", taskId, e.getMessage());
+            }
+            try {
+                Files.write(cancelsDir.resolve(taskId + CANCEL_SUFFIX), nodeId.getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                logger.warn("Не удалось передать отмену задачи {}: {}", taskId, e.getMessage());
+            }
+            return false;
+        }
+        return false;
+    }
+
+    @Override
+    public void addCancelListener(Consumer<String> listener) {
+        cancelListeners.add(listener);
+    }
+
+    @Override
+    public void addLeaseLostListener(Consumer<String> listener) {
+        leaseLostListeners.add(listener);
+    }
+
+    @Override
+    public JobRejectedException reject() {
+        rejected.incrementAndGet();
+        return new JobRejectedException("Очередь обработки заполнена, повторите позже", retryAfterSeconds);
+    }
+
+    @Override
+    public boolean isFull() {
+        return getQueueSize() >= queueCapacity;
+    }
+
+    @Override
+    public int getQueuePosition(String taskId) {
+        int position = 0;
+        for (Path job : listJobs()) {
+            String jobTaskId = taskIdOf(job);
+            if (isLeased(jobTaskId)) {
+                continue;
+            }
+            position++;
+            if (jobTaskId.equals(taskId)) {
+                return position;
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    /**
+     * @return задачи всех узлов, которые ещё никто не взял
+     */
+    @Override
+    public int getQueueSize() {
+        int waiting = 0;
+        for (Path job : listJobs()) {
+            if (!isLeased(taskIdOf(job))) {
+                waiting++;
+            }
+        }
+        return waiting;
+    }
+
+    @Override
+    public int getActiveCount() {
+        return active.get();
+    }
+
+    @Override
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        List<Path> jobs = listJobs();
+        int leased = 0;
+        for (Path job : jobs) {
+            if (isLeased(taskIdOf(job))) {
+                leased++;
+            }
+        }
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("mode", "shared-directory");
+        stats.put("nodeId", nodeId);
+        stats.put("nodes", liveNodes());
+        stats.put("queued", jobs.size() - leased);
+        stats.put("processing", leased);
+        stats.put("held", heldLeases.size());
+        stats.put("active", active.get());
+        stats.put("takenOver", takenOver.get());
+        stats.put("rejected", rejected.get());
+        return stats;
+    }
+
+    private void workLoop() {
+        while (running) {
+            try {
+                Path job = claimNext();
+                if (job == null) {
+                    submitted.tryAcquire(pollMillis, TimeUnit.MILLISECONDS);
+                } else {
+                    runClaimed(job);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                logger.error("Ошибка обработчика общей очереди", e);
+            }
+        }
+    }
+
+    /**
+     * Берёт первую задачу без живой аренды; просроченную аренду перехватывает.
+     *
+     * @return файл задачи, аренда которой теперь у этого узла, или {@code null}
+     */
+    private Path claimNext() throws IOException {
+        for (Path job : listJobs()) {
+            String taskId = taskIdOf(job);
+            if (heldLeases.containsKey(taskId)) {
+                continue;
+            }
+            Path lease = leaseOf(taskId);
+            boolean expired = false;
+            try {
+                FileTime renewed = Files.getLastModifiedTime(lease);
+                if (System.currentTimeMillis() - renewed.toMillis() <= leaseTimeoutMillis) {
+                    continue;
+                }
+                String owner = readOwner(lease);
+                if (!claimTakeover(taskId, renewed)) {
+                    continue;
+                }
+                expired = true;
+                logger.warn("Аренда задачи {} узла {} просрочена, задача перехвачена", taskId, owner);
+                replaceLease(lease);
+            } catch (NoSuchFileException e) {
+                // аренды нет
+                if (!createLease(lease)) {
+                    continue;
+                }
+            }
+            if (!Files.exists(job)) {
+                // задачу успели завершить, пока мы брали аренду
+                Files.deleteIfExists(lease);
+                deleteTakeoverMarks(taskId);
+                continue;
+            }
+            heldLeases.put(taskId, lease);
+            if (expired) {
+                takenOver.incrementAndGet();
+            }
+            return job;
+        }
+        return null;
+    }
+
+    /**
+     * Создаёт аренду, если её нет. Содержимое пишется заранее, поэтому другой узел
+     * никогда не видит аренду без владельца.
+     *
+     * @return {@code false}, если аренду уже взял кто-то другой
+     */
+    private boolean createLease(Path lease) throws IOException {
+        Path tmp = writeLeaseTemp(lease);
+        try {
+            Files.createLink(lease, tmp);
+            return true;
+        } catch (FileAlreadyExistsException e) {
+            return false;
+        } catch (UnsupportedOperationException e) {
+            // файловая система без жёстких ссылок: CREATE_NEW тоже не создаёт файл поверх чужого
+            try {
+                Files.write(lease, nodeId.getBytes(StandardCharsets.UTF_8),
+                        StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                return true;
+            } catch (FileAlreadyExistsException exists) {
+                return false;
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Заменяет просроченную аренду своей одним переименованием, без промежутка,
+     * в котором аренды нет и её может создать ещё один узел.
+     */
+    private void replaceLease(Path lease) throws IOException {
+        Path tmp = writeLeaseTemp(lease);
+        try {
+            Files.move(tmp, lease, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private Path writeLeaseTemp(Path lease) throws IOException {
+        Path tmp = leasesDir.resolve("." + lease.getFileName() + "." + UUID.randomUUID() + ".tmp");
+        Files.write(tmp, nodeId.getBytes(StandardCharsets.UTF_8));
+        return tmp;
+    }
+
+    /**
+     * Право перехватить аренду, продлённую последний раз в {@code renewed}. Узлы,
+     * увидевшие одну и ту же просроченную аренду, создают одну и ту же отметку,
+     * и удаётся это только одному. Отметку, оставшуюся от узла, упавшего посреди
+     * перехвата, можно убрать через {@code lease-timeout}.
+     */
+    private boolean claimTakeover(String taskId, FileTime renewed) throws IOException {
+        Path mark = leasesDir.resolve(taskId + "." + renewed.toMillis() + TAKEOVER_SUFFIX);
+        try {
+            Files.write(mark, nodeId.getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            return true;
+        } catch (FileAlreadyExistsException e) {
+            try {
+                if (System.currentTimeMillis() - Files.getLastModifiedTime(mark).toMillis() > leaseTimeoutMillis) {
+                    logger.warn("Перехват аренды задачи {} узлом {} не завершён, отметка снята",
+                            taskId, readOwner(mark));
+                    Files.deleteIfExists(mark);
+                }
+            } catch (NoSuchFileException gone) {
+                // отметку уже убрали
+            }
+            return false;
+        }
+    }
+
+    private void deleteTakeoverMarks(String taskId) {
+        try (DirectoryStream<Path> marks = Files.newDirectoryStream(leasesDir, taskId + ".*" + TAKEOVER_SUFFIX)) {
+            for (Path mark : marks) {
+                Files.deleteIfExists(mark);
+            }
+        } catch (IOException e) {
+            logger.debug("Не удалось удалить отметки перехвата задачи {}: {}", taskId, e.getMessage());
+        }
+    }
+
+    private void runClaimed(Path jobPath) {
+        String taskId = taskIdOf(jobPath);
+        JobFile job;
+        try {
+            job = objectMapper.readValue(jobPath.toFile(), JobFile.class);
+        } catch (IOException e) {
+            logger.error("Повреждён файл задачи {}, задача снята с очереди", jobPath.getFileName(), e);
+            finish(taskId, jobPath);
+            return;
+        }
+
+        CompletableFuture<?> finished;
+        active.incrementAndGet();
+        try {
+            finished = handler.run(job.taskId, job.inputFile);
+        } catch (RuntimeException e) {
+            logger.error("Ошибка обработки задачи " + taskId, e);
+            finished = CompletableFuture.completedFuture(null);
+        } finally {
+            active.decrementAndGet();
+        }
+        finished.whenComplete((result, error) -> finish(taskId, jobPath));
+    }
+
+    private void finish(String taskId, Path jobPath) {
+        if (!heldLeases.containsKey(taskId)) {
+            // аренду перехватил другой узел: файл задачи теперь его
+            return;
+        }
+        try {
+            Files.deleteIfExists(jobPath);
+            Files.deleteIfExists(cancelsDir.resolve(taskId + CANCEL_SUFFIX));
+        } catch (IOException e) {
+            logger.warn("Не удалось удалить файл задачи {}: {}", jobPath.getFileName(), e.getMessage());
+        }
+        deleteTakeoverMarks(taskId);
+        releaseLease(taskId);
+    }
+
+    private void releaseLease(String taskId) {
+        Path lease = heldLeases.remove(taskId);
+        if (lease == null) {
+            return;
+        }
+        try {
+            if (nodeId.equals(readOwner(lease))) {
+                Files.deleteIfExists(lease);
+            }
+        } catch (IOException e) {
+            logger.warn("Не удалось снять аренду задачи {}: {}", taskId, e.getMessage());
+        }
+    }
+
+    private void heartbeatSafely() {
+        try {
+            heartbeat();
+        } catch (Exception e) {
+            logger.error("Ошибка продления аренд узла {}", nodeId, e);
+        }
+    }
+
+    /**
+     * Отмечает узел живым и продлевает его аренды. Аренду, которую перехватил
+     * другой узел или которая пропала, этот узел больше не продлевает и сообщает
+     * о ней слушателям потери аренды. Отмены своих задач передаёт слушателям отмены.
+     */
+    private void heartbeat() throws IOException {
+        FileTime now = FileTime.fromMillis(System.currentTimeMillis());
+        Path node = nodesDir.resolve(nodeId + NODE_SUFFIX);
+        if (!Files.exists(node)) {
+            Files.write(node, nodeId.getBytes(StandardCharsets.UTF_8));
+        }
+        Files.setLastModifiedTime(node, now);
+
+        for (Map.Entry<String, Path> entry : heldLeases.entrySet()) {
+            Path lease = entry.getValue();
+            try {
+                String owner = readOwner(lease);
+                if (!nodeId.equals(owner)) {
+                    logger.warn("Аренду задачи {} перехватил узел {}", entry.getKey(), owner);
+                    loseLease(entry.getKey(), lease);
+                    continue;
+                }
+                Files.setLastModifiedTime(lease, now);
+                if (Files.deleteIfExists(cancelsDir.resolve(entry.getKey() + CANCEL_SUFFIX))) {
+                    logger.info("Задачу {} отменили на другом узле", entry.getKey());
+                    for (Consumer<String> listener : cancelListeners) {
+                        listener.accept(entry.getKey());
+                    }
+                }
+            } catch (NoSuchFileException e) {
+                logger.warn("Аренда задачи {} пропала", entry.getKey());
+                loseLease(entry.getKey(), lease);
+            }
+        }
+    }
+
+    private void loseLease(String taskId, Path lease) {
+        if (heldLeases.remove(taskId, lease)) {
+            for (Consumer<String> listener : leaseLostListeners) {
+                listener.accept(taskId);
+            }
+        }
+    }
+
+    private List<String> liveNodes() {
+        List<String> nodes = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(nodesDir, "*" + NODE_SUFFIX)) {
+            for (Path file : files) {
+                if (now - Files.getLastModifiedTime(file).toMillis() <= leaseTimeoutMillis) {
+                    String name = file.getFileName().toString();
+                    nodes.add(name.substring(0, name.length() - NODE_SUFFIX.length()));
+                }
+            }
+        } catch (IOException e) {
+            logger.debug("Не удалось прочитать список узлов: {}", e.getMessage());
+        }
+        return nodes;
+    }
+
+    /**
+     * Задачи очереди в порядке приоритета: ключ в начале имени файла.
+     */
+    private List<Path> listJobs() {
+        List<Path> jobs = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(queueDir, "*" + JOB_SUFFIX)) {
+            for (Path file : files) {
+                jobs.add(file);
+            }
+        } catch (IOException e) {
+            logger.warn("Не удалось прочитать общую очередь: {}", e.getMessage());
+        }
+        jobs.sort(null);
+        return jobs;
+    }
+
+    private boolean isLeased(String taskId) {
+        try {
+            long renewed = Files.getLastModifiedTime(leaseOf(taskId)).toMillis();
+            return System.currentTimeMillis() - renewed <= leaseTimeoutMillis;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private String readOwner(Path lease) throws IOException {
+        return new String(Files.readAllBytes(lease), StandardCharsets.UTF_8).trim();
+    }
+
+    private Path leaseOf(String taskId) {
+        return leasesDir.resolve(taskId + LEASE_SUFFIX);
+    }
+
+    private static String taskIdOf(Path job) {
+        String name = job.getFileName().toString();
+        return name.substring(name.indexOf('-') + 1, name.length() - JOB_SUFFIX.length());
+    }
+
+    private static String resolveNodeId(String configured) {
+        String nodeId = configured;
+        if (nodeId == null || nodeId.isBlank()) {
+            String host;
+            try {
+                host = InetAddress.getLocalHost().getHostName();
+            } catch (IOException e) {
+                host = "node";
+            }
+            nodeId = host + "-" + ProcessHandle.current().pid();
+        }
+        return nodeId.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    /**
+     * Содержимое файла задачи в очереди.
+     */
+    static class JobFile {
+        public String taskId;
+        public String inputFile;
+        public long sizeBytes;
+        public String submittedBy;
+    }
+}
@@ -0,0 +1,356 @@
+package com.example.service;
+
+import com.example.config.AppProperties;
+import com.example.model.FileProcessingTask;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Задачи в общем каталоге: по файлу {@code tasks/<taskId>.json} на задачу,
+ * запись через временный файл и атомарное переименование. Любой узел находит
+ * задачу, принятую другим узлом.
+ * <p>
+ * Задачи, которые обрабатывает этот узел, держатся в памяти и раз в
+ * {@code app.coordination.heartbeat-interval} сбрасываются на диск вместе со
+ * счётчиками строк. Чужие задачи читаются с диска не чаще того же интервала и,
+ * пока их кто-то смотрит, перечитываются в фоне; изменения уходят слушателям
+ * {@link #addChangeListener}.
+ * <p>
+ * Лимит {@code app.tasks.max-entries} проверяется тем же таймером, а не при
+ * каждой загрузке: дата создания задачи не меняется, поэтому каждый файл ради
+ * неё читается один раз, а статус — только у самых старых кандидатов.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.coordination", name = "mode", havingValue = "shared-directory")
+public class SharedDirectoryTaskStore implements TaskStore {
+    private static final Logger logger = LoggerFactory.getLogger(SharedDirectoryTaskStore.class);
+    private static final Pattern TASK_ID = Pattern.compile(
+            "[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}");
+    private static final String SUFFIX = ".json";
+    private static final long WATCH_MILLIS = TimeUnit.MINUTES.toMillis(30);
+
+    private final Path tasksDir;
+    private final ObjectMapper objectMapper;
+    private final int maxEntries;
+    private final long refreshMillis;
+    private final Map<String, FileProcessingTask> local = new ConcurrentHashMap<>();
+    private final Map<String, RemoteTask> remote = new ConcurrentHashMap<>();
+    private final Map<String, Instant> createdDates = new ConcurrentHashMap<>();
+    private final List<Consumer<FileProcessingTask>> removalListeners = new CopyOnWriteArrayList<>();
+    private final List<Consumer<FileProcessingTask>> changeListeners = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "task-store-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public SharedDirectoryTaskStore(AppProperties properties, ObjectMapper objectMapper) throws IOException {
+        AppProperties.Coordination coordination = properties.getCoordination();
+        this.tasksDir = Files.createDirectories(Paths.get(coordination.getDirectory(), "tasks"));
+        this.objectMapper = objectMapper;
+        this.maxEntries = properties.getTasks().getMaxEntries();
+        this.refreshMillis = Math.max(coordination.getHeartbeatInterval().toMillis(), 100);
+        logger.info("Задачи хранятся в общем каталоге {}", tasksDir.toAbsolutePath());
+    }
+
+    @PostConstruct
+    public void start() {
+        timer.scheduleWithFixedDelay(this::refreshSafely, refreshMillis, refreshMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        timer.shutdownNow();
+        local.values().forEach(this::write);
+    }
+
+    @Override
+    public void addRemovalListener(Consumer<FileProcessingTask> listener) {
+        removalListeners.add(listener);
+    }
+
+    @Override
+    public void addChangeListener(Consumer<FileProcessingTask> listener) {
+        changeListeners.add(listener);
+    }
+
+    @Override
+    public FileProcessingTask get(String taskId) {
+        if (taskId == null || !TASK_ID.matcher(taskId).matches()) {
+            return null;
+        }
+        FileProcessingTask task = local.get(taskId);
+        if (task != null) {
+            return task;
+        }
+        RemoteTask cached = remote.get(taskId);
+        long now = System.currentTimeMillis();
+        if (cached != null && now - cached.readMillis < refreshMillis) {
+            cached.lastAccessMillis = now;
+            return cached.task;
+        }
+        try {
+            byte[] content = Files.readAllBytes(fileOf(taskId));
+            if (cached != null && Arrays.equals(content, cached.content)) {
+                cached.readMillis = now;
+                cached.lastAccessMillis = now;
+                return cached.task;
+            }
+            RemoteTask loaded = new RemoteTask(parse(content), content, now);
+            remote.put(taskId, loaded);
+            return loaded.task;
+        } catch (NoSuchFileException e) {
+            remote.remove(taskId);
+            return null;
+        } catch (IOException e) {
+            logger.warn("Не удалось прочитать задачу {}: {}", taskId, e.getMessage());
+            return cached != null ? cached.task : null;
+        }
+    }
+
+    @Override
+    public Collection<FileProcessingTask> getAll() {
+        List<FileProcessingTask> result = new ArrayList<>();
+        for (String taskId : listTaskIds()) {
+            FileProcessingTask task = get(taskId);
+            if (task != null) {
+                result.add(task);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public int size() {
+        return listTaskIds().size();
+    }
+
+    @Override
+    public void put(FileProcessingTask task) {
+        local.put(task.getTaskId(), task);
+        createdDates.put(task.getTaskId(), TaskStore.createdDate(task));
+        write(task);
+    }
+
+    /**
+     * Записывает задачу в общий каталог. Задача, которую сохраняет этот узел,
+     * дальше отдаётся из памяти, пока не завершится.
+     */
+    @Override
+    public void save(FileProcessingTask task) {
+        String taskId = task.getTaskId();
+        if (!local.containsKey(taskId) && !Files.exists(fileOf(taskId))) {
+            return;
+        }
+        remote.remove(taskId);
+        if (TaskStore.isFinished(task)) {
+            local.remove(taskId);
+        } else {
+            local.put(taskId, task);
+        }
+        write(task);
+    }
+
+    @Override
+    public void remove(String taskId) {
+        FileProcessingTask removed = get(taskId);
+        local.remove(taskId);
+        remote.remove(taskId);
+        createdDates.remove(taskId);
+        try {
+            if (Files.deleteIfExists(fileOf(taskId)) && removed != null) {
+                for (Consumer<FileProcessingTask> listener : removalListeners) {
+                    listener.accept(removed);
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Не удалось удалить задачу {}: {}", taskId, e.getMessage());
+        }
+    }
+
+    /**
+     * Удаляет самые старые завершённые задачи сверх лимита. Задачи, удалённые
+     * другими узлами, выпадают из индекса дат создания.
+     */
+    private void evictOverflow() {
+        List<String> taskIds = listTaskIds();
+        createdDates.keySet().retainAll(new HashSet<>(taskIds));
+        int overflow = taskIds.size() - maxEntries;
+        if (overflow <= 0) {
+            return;
+        }
+        for (String taskId : taskIds) {
+            if (!createdDates.containsKey(taskId)) {
+                FileProcessingTask task = read(taskId);
+                if (task != null) {
+                    createdDates.putIfAbsent(taskId, TaskStore.createdDate(task));
+                }
+            }
+        }
+        List<String> oldestFirst = new ArrayList<>(createdDates.keySet());
+        oldestFirst.sort(Comparator.comparing(taskId -> createdDates.getOrDefault(taskId, Instant.EPOCH)));
+        for (String taskId : oldestFirst) {
+            if (overflow <= 0) {
+                break;
+            }
+            FileProcessingTask task = local.containsKey(taskId) ? local.get(taskId) : read(taskId);
+            if (task != null && TaskStore.isFinished(task)) {
+                logger.info("Задача {} вытеснена из общего каталога по лимиту {}", taskId, maxEntries);
+                remove(taskId);
+                overflow--;
+            }
+        }
+    }
+
+    private void refreshSafely() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            logger.error("Ошибка обновления задач из общего каталога", e);
+        }
+    }
+
+    /**
+     * Сбрасывает на диск свои задачи, перечитывает чужие, изменённые другими
+     * узлами, и вытесняет задачи сверх лимита.
+     */
+    private void refresh() {
+        local.values().forEach(this::write);
+
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, RemoteTask> entry : remote.entrySet()) {
+            String taskId = entry.getKey();
+            RemoteTask cached = entry.getValue();
+            if (now - cached.lastAccessMillis > WATCH_MILLIS) {
+                remote.remove(taskId, cached);
+                continue;
+            }
+            try {
+                byte[] content = Files.readAllBytes(fileOf(taskId));
+                if (Arrays.equals(content, cached.content)) {
+                    cached.readMillis = now;
+                    continue;
+                }
+                FileProcessingTask task = parse(content);
+                RemoteTask updated = new RemoteTask(task, content, now);
+                updated.lastAccessMillis = cached.lastAccessMillis;
+                if (TaskStore.isFinished(task)) {
+                    remote.remove(taskId, cached);
+                } else if (!remote.replace(taskId, cached, updated)) {
+                    continue;
+                }
+                for (Consumer<FileProcessingTask> listener : changeListeners) {
+                    listener.accept(task);
+                }
+            } catch (NoSuchFileException e) {
+                remote.remove(taskId, cached);
+            } catch (IOException e) {
+                logger.debug("Не удалось перечитать задачу {}: {}", taskId, e.getMessage());
+            }
+        }
+
+        evictOverflow();
+    }
+
+    /**
+     * Читает задачу с диска в обход кэша чужих задач, чтобы не подписываться
+     * на её обновления.
+     */
+    private FileProcessingTask read(String taskId) {
+        try {
+            return parse(Files.readAllBytes(fileOf(taskId)));
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            logger.debug("Не удалось прочитать задачу {}: {}", taskId, e.getMessage());
+            return null;
+        }
+    }
+
+    private FileProcessingTask parse(byte[] content) throws IOException {
+        return objectMapper.readValue(content, TaskRegistry.TaskRecord.class).toTask();
+    }
+
+    private void write(FileProcessingTask task) {
+        Path file = fileOf(task.getTaskId());
+        Path tmp = tasksDir.resolve("." + task.getTaskId() + "." + UUID.randomUUID() + ".tmp");
+        try {
+            // снимок и запись под одной блокировкой, чтобы старое состояние не перезаписало новое
+            synchronized (task) {
+                Files.write(tmp, objectMapper.writeValueAsBytes(TaskRegistry.TaskRecord.of(task)));
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+        } catch (IOException e) {
+            logger.error("Не удалось записать задачу {} в общий каталог", task.getTaskId(), e);
+            try {
+                Files.deleteIfExists(tmp);
+            } catch (IOException ignored) {
+                // временный файл уберёт очистка каталога
+            }
+        }
+    }
+
+    private List<String> listTaskIds() {
+        List<String> taskIds = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(tasksDir, "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                taskIds.add(name.substring(0, name.length() - SUFFIX.length()));
+            }
+        } catch (IOException e) {
+            logger.warn("Не удалось прочитать каталог задач: {}", e.getMessage());
+        }
+        return taskIds;
+    }
+
+    private Path fileOf(String taskId) {
+        return tasksDir.resolve(taskId + SUFFIX);
+    }
+
+    /**
+     * Чужая задача, прочитанная с диска. Сравнивается содержимое файла, а не время
+     * изменения: на части файловых систем оно хранится с точностью до секунды.
+     */
+    private static final class RemoteTask {
+        private final FileProcessingTask task;
+        private final byte[] content;
+        private volatile long readMillis;
+        private volatile long lastAccessMillis;
+
+        RemoteTask(FileProcessingTask task, byte[] content, long readMillis) {
+            this.task = task;
+            this.content = content;
+            this.readMillis = readMillis;
+            this.lastAccessMillis = readMillis;
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package com.example.service;
+
+import com.example.model.FileProcessingTask;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Рассылка состояния задач подписчикам через Server-Sent Events.
+ * Смена статуса отправляется сразу, счётчики строк — не чаще
+ * одного раза в {@link #PROGRESS_INTERVAL_MILLIS} на задачу.
+ * <p>
+ * Запись в соединения идёт на своих потоках, а не в потоках обработки: медленный
+ * браузер не должен держать разбор файла. Состояние снимается в момент отправки,
+ * поэтому промежуточные изменения, не успевшие уйти, просто схлопываются.
+ * <p>
+ * Кроме отдельной задачи можно подписаться на группу задач, например пакет:
+ * при изменении любой из них подписчик получает общее состояние группы.
+ */
+@Component
+public class TaskEventPublisher {
+    private static final Logger logger = LoggerFactory.getLogger(TaskEventPublisher.class);
+    private static final long EMITTER_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(30);
+    private static final long PROGRESS_INTERVAL_MILLIS = 500;
+    private static final String EVENT_NAME = "status";
+    private static final int SENDER_THREADS = 2;
+
+    private final JobQueue jobQueue;
+    private final Map<String, TaskSubscription> subscriptions = new ConcurrentHashMap<>();
+    private final Map<String, Set<GroupSubscription>> groupsByTask = new ConcurrentHashMap<>();
+    private final ExecutorService senders = Executors.newFixedThreadPool(SENDER_THREADS, senderThreadFactory());
+
+    public TaskEventPublisher(JobQueue jobQueue, TaskStore taskStore) {
+        this.jobQueue = jobQueue;
+        // задачи, которые обрабатывает другой узел, приходят сюда из общего хранилища
+        taskStore.addChangeListener(this::publish);
+    }
+
+    public SseEmitter subscribe(FileProcessingTask task) {
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MILLIS);
+        TaskSubscription subscription = subscriptions.compute(task.getTaskId(), (id, existing) -> {
+            TaskSubscription result = existing != null ? existing : new TaskSubscription(task);
+            result.emitters.add(emitter);
+            return result;
+        });
+        register(subscription, emitter);
+        sendFirst(subscription, emitter);
+        return emitter;
+    }
+
+    /**
+     * Подписка на группу задач. Состояние группы берётся из {@code snapshot} при
+     * каждом изменении любой из задач; поток закрывается, когда в состоянии
+     * появляется {@code "done": true}.
+     */
+    public SseEmitter subscribe(Collection<String> taskIds, Supplier<Map<String, Object>> snapshot) {
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MILLIS);
+        GroupSubscription subscription = new GroupSubscription(Set.copyOf(taskIds), snapshot);
+        subscription.emitters.add(emitter);
+        for (String taskId : subscription.taskIds) {
+            groupsByTask.computeIfAbsent(taskId, id -> new CopyOnWriteArraySet<>()).add(subscription);
+        }
+        register(subscription, emitter);
+        sendFirst(subscription, emitter);
+        return emitter;
+    }
+
+    /**
+     * Состояние задачи: статус, стадии, счётчики строк и замеры времени в миллисекундах.
+     */
+    public Map<String, Object> snapshot(FileProcessingTask task) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", task.getStatus().toString());
+        response.put("completed", task.getStatus() == FileProcessingTask.TaskStatus.COMPLETED);
+        response.put("stages", task.getStages());
+        response.put("xlsxReady", task.isXlsxReady());
+        response.put("pdfReady", task.isPdfReady());
+        response.put("rowsRead", task.getRowsRead());
+        response.put("rowsValid", task.getRowsValid());
+        response.put("rowsFailed", task.getRowsFailed());
+        response.put("createdDate", task.getCreatedDate() != null ? task.getCreatedDate().toString() : null);
+        Map<FileProcessingTask.Timing, Long> timings = task.getTimings();
+        Map<String, Long> timingsMillis = new LinkedHashMap<>();
+        timings.forEach((timing, millis) -> timingsMillis.put(timing.name().toLowerCase(Locale.ROOT), millis));
+        response.put("timings", timingsMillis);
+        Long xlsxMillis = timings.get(FileProcessingTask.Timing.XLSX);
+        if (xlsxMillis != null && xlsxMillis > 0) {
+            response.put("rowsPerSecond", task.getRowsRead() * 1000 / xlsxMillis);
+        }
+        if (task.getStatus() == FileProcessingTask.TaskStatus.QUEUED) {
+            response.put("queuePosition", jobQueue.getQueuePosition(task.getTaskId()));
+        }
+        if (task.getErrorDetails() != null) {
+            response.put("error", task.getErrorDetails());
+        }
+        return response;
+    }
+
+    /**
+     * Смена статуса или стадии. Подписчики завершаются, когда задача дошла до конца.
+     */
+    public void publish(FileProcessingTask task) {
+        notify(task, false);
+    }
+
+    /**
+     * Обновление счётчиков строк с ограничением частоты.
+     */
+    public void progress(FileProcessingTask task) {
+        notify(task, true);
+    }
+
+    /**
+     * Позиции в очереди сдвигаются, когда любая задача начинает обрабатываться.
+     */
+    public void publishQueuePositions() {
+        for (TaskSubscription subscription : subscriptions.values()) {
+            if (subscription.task.getStatus() == FileProcessingTask.TaskStatus.QUEUED) {
+                publish(subscription.task);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+    }
+
+    private void notify(FileProcessingTask task, boolean progress) {
+        TaskSubscription subscription = subscriptions.get(task.getTaskId());
+        if (subscription != null) {
+            subscription.task = task;
+            schedule(subscription, progress);
+        }
+        Set<GroupSubscription> groups = groupsByTask.get(task.getTaskId());
+        if (groups != null) {
+            for (GroupSubscription group : groups) {
+                schedule(group, progress);
+            }
+        }
+    }
+
+    private void schedule(Subscription subscription, boolean progress) {
+        long now = System.currentTimeMillis();
+        if (progress && now - subscription.lastProgressMillis < PROGRESS_INTERVAL_MILLIS) {
+            return;
+        }
+        subscription.lastProgressMillis = now;
+        subscription.dirty.set(true);
+        if (subscription.sending.compareAndSet(false, true)) {
+            try {
+                senders.execute(() -> drain(subscription));
+            } catch (RejectedExecutionException e) {
+                subscription.sending.set(false);
+            }
+        }
+    }
+
+    /**
+     * Отправляет подписчикам текущее состояние, пока оно меняется.
+     */
+    private void drain(Subscription subscription) {
+        while (true) {
+            if (!subscription.dirty.getAndSet(false)) {
+                subscription.sending.set(false);
+                // изменение могло прийти между проверкой и сбросом флага
+                if (!subscription.dirty.get() || !subscription.sending.compareAndSet(false, true)) {
+                    return;
+                }
+                continue;
+            }
+            Map<String, Object> data = subscription.snapshot();
+            boolean last = subscription.isLast(data);
+            for (SseEmitter emitter : subscription.emitters) {
+                if (send(subscription, emitter, data) && last) {
+                    emitter.complete();
+                }
+            }
+        }
+    }
+
+    private void register(Subscription subscription, SseEmitter emitter) {
+        Runnable remove = () -> unsubscribe(subscription, emitter);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+    }
+
+    private void sendFirst(Subscription subscription, SseEmitter emitter) {
+        Map<String, Object> data = subscription.snapshot();
+        if (send(subscription, emitter, data) && subscription.isLast(data)) {
+            emitter.complete();
+        }
+    }
+
+    private boolean send(Subscription subscription, SseEmitter emitter, Map<String, Object> data) {
+        try {
+            emitter.send(SseEmitter.event().name(EVENT_NAME).data(data));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            logger.debug("Подписчик {} отключился: {}", subscription, e.getMessage());
+            unsubscribe(subscription, emitter);
+            return false;
+        }
+    }
+
+    private void unsubscribe(Subscription subscription, SseEmitter emitter) {
+        if (subscription instanceof TaskSubscription) {
+            subscriptions.computeIfPresent(((TaskSubscription) subscription).task.getTaskId(), (id, existing) -> {
+                existing.emitters.remove(emitter);
+                return existing.emitters.isEmpty() ? null : existing;
+            });
+            return;
+        }
+        GroupSubscription group = (GroupSubscription) subscription;
+        group.emitters.remove(emitter);
+        for (String taskId : group.taskIds) {
+            groupsByTask.computeIfPresent(taskId, (id, groups) -> {
+                groups.remove(group);
+                return groups.isEmpty() ? null : groups;
+            });
+        }
+    }
+
+    private static ThreadFactory senderThreadFactory() {
+        AtomicInteger number = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, "sse-sender-" + number.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private abstract static class Subscription {
+        final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+        final AtomicBoolean dirty = new AtomicBoolean();
+        final AtomicBoolean sending = new AtomicBoolean();
+        volatile long lastProgressMillis;
+
+        abstract Map<String, Object> snapshot();
+
+        abstract boolean isLast(Map<String, Object> snapshot);
+    }
+
+    private final class TaskSubscription extends Subscription {
+        private volatile FileProcessingTask task;
+
+        TaskSubscription(FileProcessingTask task) {
+            this.task = task;
+        }
+
+        @Override
+        Map<String, Object> snapshot() {
+            return TaskEventPublisher.this.snapshot(task);
+        }
+
+        @Override
+        boolean isLast(Map<String, Object> snapshot) {
+            return TaskStore.isFinished(task);
+        }
+
+        @Override
+        public String toString() {
+            return "задачи " + task.getTaskId();
+        }
+    }
+
+    private static final class GroupSubscription extends Subscription {
+        private final Set<String> taskIds;
+        private final Supplier<Map<String, Object>> source;
+
+        GroupSubscription(Set<String> taskIds, Supplier<Map<String, Object>> source) {
+            this.taskIds = taskIds;
+            this.source = source;
+        }
+
+        @Override
+        Map<String, Object> snapshot() {
+            return source.get();
+        }
+
+        @Override
+        boolean isLast(Map<String, Object> snapshot) {
+            return Boolean.TRUE.equals(snapshot.get("done"));
+        }
+
+        @Override
+        public String toString() {
+            return "группы из " + taskIds.size() + " задач";
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package com.example.service;
+
+import com.example.config.AppProperties;
+import com.example.model.FileProcessingTask;
+import com.example.model.ResultSummary;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Реестр задач, переживающий перезапуск. Каждое изменение дописывается строкой JSON
+ * в журнал {@code app.tasks.store-file}; когда мёртвых записей становится больше живых,
+ * журнал переписывается снимком. Задачи, прерванные остановкой приложения,
+ * после запуска получают статус FAILED.
+ * <p>
+ * Число задач ограничено {@code app.tasks.max-entries}: при переполнении
+ * вытесняются самые старые завершённые задачи.
+ * Используется при {@code app.coordination.mode=local}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.coordination", name = "mode", havingValue = "local", matchIfMissing = true)
+public class TaskRegistry implements TaskStore {
+    private static final Logger logger = LoggerFactory.getLogger(TaskRegistry.class);
+    private static final int MIN_COMPACTION_RECORDS = 1000;
+
+    private final Map<String, FileProcessingTask> tasks = new ConcurrentHashMap<>();
+    private final ObjectMapper objectMapper;
+    private final Path storeFile;
+    private final int maxEntries;
+    private BufferedWriter log;
+    private int logRecords;
+    private final List<Consumer<FileProcessingTask>> removalListeners = new CopyOnWriteArrayList<>();
+
+    public TaskRegistry(AppProperties properties, ObjectMapper objectMapper) throws IOException {
+        this.objectMapper = objectMapper;
+        this.storeFile = Paths.get(properties.getTasks().getStoreFile());
+        this.maxEntries = properties.getTasks().getMaxEntries();
+        if (storeFile.getParent() != null) {
+            Files.createDirectories(storeFile.getParent());
+        }
+        load();
+        compact();
+    }
+
+    @Override
+    public void addRemovalListener(Consumer<FileProcessingTask> listener) {
+        removalListeners.add(listener);
+    }
+
+    /**
+     * Задачи меняет только этот узел, поэтому слушатель никогда не вызывается.
+     */
+    @Override
+    public void addChangeListener(Consumer<FileProcessingTask> listener) {
+    }
+
+    @Override
+    public FileProcessingTask get(String taskId) {
+        return tasks.get(taskId);
+    }
+
+    @Override
+    public Collection<FileProcessingTask> getAll() {
+        return tasks.values();
+    }
+
+    @Override
+    public int size() {
+        return tasks.size();
+    }
+
+    @Override
+    public void put(FileProcessingTask task) {
+        tasks.put(task.getTaskId(), task);
+        save(task);
+        evictOverflow();
+    }
+
+    /**
+     * Записывает текущее состояние задачи в журнал.
+     */
+    @Override
+    public void save(FileProcessingTask task) {
+        if (!tasks.containsKey(task.getTaskId())) {
+            return;
+        }
+        append(TaskRecord.of(task));
+    }
+
+    @Override
+    public void remove(String taskId) {
+        FileProcessingTask removed = tasks.remove(taskId);
+        if (removed != null) {
+            TaskRecord record = new TaskRecord();
+            record.taskId = taskId;
+            record.removed = true;
+            append(record);
+            for (Consumer<FileProcessingTask> listener : removalListeners) {
+                listener.accept(removed);
+            }
+        }
+    }
+
+    private void evictOverflow() {
+        int overflow = tasks.size() - maxEntries;
+        if (overflow <= 0) {
+            return;
+        }
+        List<FileProcessingTask> oldest = tasks.values().stream()
+                .filter(TaskStore::isFinished)
+                .sorted(Comparator.comparing(TaskStore::createdDate))
+                .limit(overflow)
+                .collect(Collectors.toList());
+        for (FileProcessingTask task : oldest) {
+            logger.info("Задача {} вытеснена из реестра по лимиту {}", task.getTaskId(), maxEntries);
+            remove(task.getTaskId());
+        }
+    }
+
+    private synchronized void append(TaskRecord record) {
+        try {
+            log.write(objectMapper.writeValueAsString(record));
+            log.newLine();
+            log.flush();
+            logRecords++;
+            if (logRecords > Math.max(MIN_COMPACTION_RECORDS, tasks.size() * 2)) {
+                compact();
+            }
+        } catch (IOException e) {
+            logger.error("Не удалось записать задачу {} в журнал", record.taskId, e);
+        }
+    }
+
+    private void load() throws IOException {
+        if (!Files.exists(storeFile)) {
+            return;
+        }
+        Map<String, TaskRecord> records = new LinkedHashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(storeFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    TaskRecord record = objectMapper.readValue(line, TaskRecord.class);
+                    if (record.removed) {
+                        records.remove(record.taskId);
+                    } else {
+                        records.put(record.taskId, record);
+                    }
+                } catch (JsonProcessingException e) {
+                    // обрывок последней строки после аварийной остановки
+                    logger.warn("Пропущена повреждённая запись журнала задач: {}", e.getOriginalMessage());
+                }
+            }
+        }
+        for (TaskRecord record : records.values()) {
+            FileProcessingTask task = record.toTask();
+            if (!TaskStore.isFinished(task)) {
+                interrupt(task);
+            }
+            tasks.put(task.getTaskId(), task);
+        }
+        logger.info("Восстановлено задач из журнала: {}", tasks.size());
+    }
+
+    private static void interrupt(FileProcessingTask task) {
+        for (Map.Entry<FileProcessingTask.Stage, FileProcessingTask.StageStatus> entry : task.getStages().entrySet()) {
+            if (entry.getValue() != FileProcessingTask.StageStatus.DONE) {
+                task.setStageStatus(entry.getKey(), FileProcessingTask.StageStatus.FAILED);
+            }
+        }
+        if (task.getStatus() != FileProcessingTask.TaskStatus.COMPLETED) {
+            task.setStatus(FileProcessingTask.TaskStatus.FAILED);
+            task.setErrorDetails("Обработка прервана перезапуском приложения");
+        }
+    }
+
+    /**
+     * Переписывает журнал снимком живых задач.
+     */
+    private synchronized void compact() throws IOException {
+        if (log != null) {
+            log.close();
+        }
+        Path tmp = storeFile.resolveSibling(storeFile.getFileName() + ".tmp");
+        List<FileProcessingTask> snapshot = new ArrayList<>(tasks.values());
+        try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            for (FileProcessingTask task : snapshot) {
+                writer.write(objectMapper.writeValueAsString(TaskRecord.of(task)));
+                writer.newLine();
+            }
+        }
+        Files.move(tmp, storeFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        logRecords = snapshot.size();
+        log = Files.newBufferedWriter(storeFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        try {
+            compact();
+            log.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Запись журнала: состояние задачи или отметка об удалении.
+     */
+    static class TaskRecord {
+        public String taskId;
+        public boolean removed;
+        public String originalFilename;
+        public String processedFilename;
+        public FileProcessingTask.TaskStatus status;
+        public Instant createdDate;
+        public String errorDetails;
+        public String contentHash;
+        public Map<FileProcessingTask.Stage, FileProcessingTask.StageStatus> stages;
+        public long rowsRead;
+        public long rowsValid;
+        public long rowsFailed;
+        public Map<FileProcessingTask.Timing, Long> timings;
+        public ResultSummary summary;
+
+        static TaskRecord of(FileProcessingTask task) {
+            TaskRecord record = new TaskRecord();
+            record.taskId = task.getTaskId();
+            record.originalFilename = task.getOriginalFilename();
+            record.processedFilename = task.getProcessedFilename();
+            record.status = task.getStatus();
+            record.createdDate = task.getCreatedDate();
+            record.errorDetails = task.getErrorDetails();
+            record.contentHash = task.getContentHash();
+            record.stages = new EnumMap<>(task.getStages());
+            record.rowsRead = task.getRowsRead();
+            record.rowsValid = task.getRowsValid();
+            record.rowsFailed = task.getRowsFailed();
+            record.timings = task.getTimings();
+            record.summary = task.getSummary();
+            return record;
+        }
+
+        FileProcessingTask toTask() {
+            FileProcessingTask task = new FileProcessingTask();
+            task.setTaskId(taskId);
+            task.setOriginalFilename(originalFilename);
+            task.setProcessedFilename(processedFilename);
+            task.setStatus(status);
+            task.setCreatedDate(createdDate);
+            task.setErrorDetails(errorDetails);
+            task.setContentHash(contentHash);
+            if (stages != null) {
+                stages.forEach(task::setStageStatus);
+            }
+            task.setRowCounts(rowsRead, rowsValid, rowsFailed);
+            if (timings != null) {
+                timings.forEach(task::setTiming);
+            }
+            task.setSummary(summary);
+            return task;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.service;
+
+import com.example.model.FileProcessingTask;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * Хранилище задач. Реализация выбирается настройкой {@code app.coordination.mode}:
+ * {@link TaskRegistry} держит задачи одного узла, {@link SharedDirectoryTaskStore}
+ * делает их видимыми всем узлам, работающим с общим каталогом.
+ */
+public interface TaskStore {
+
+    FileProcessingTask get(String taskId);
+
+    Collection<FileProcessingTask> getAll();
+
+    int size();
+
+    void put(FileProcessingTask task);
+
+    /**
+     * Сохраняет текущее состояние задачи.
+     */
+    void save(FileProcessingTask task);
+
+    void remove(String taskId);
+
+    /**
+     * Вызывается для каждой удалённой задачи: по TTL, квоте или лимиту записей.
+     */
+    void addRemovalListener(Consumer<FileProcessingTask> listener);
+
+    /**
+     * Вызывается, когда задачу изменил другой узел. Изменения, сделанные на этом
+     * узле, слушатель не получает: о них сообщает сам обработчик.
+     */
+    void addChangeListener(Consumer<FileProcessingTask> listener);
+
+    static boolean isFinished(FileProcessingTask task) {
+        FileProcessingTask.TaskStatus status = task.getStatus();
+        if (status != null && status.isFailure()) {
+            return true;
+        }
+        FileProcessingTask.StageStatus pdf = task.getStageStatus(FileProcessingTask.Stage.PDF);
+        return status == FileProcessingTask.TaskStatus.COMPLETED
+                && (pdf == FileProcessingTask.StageStatus.DONE || pdf == FileProcessingTask.StageStatus.FAILED);
+    }
+
+    static Instant createdDate(FileProcessingTask task) {
+        return task.getCreatedDate() != null ? task.getCreatedDate() : Instant.EPOCH;
+    }
+}
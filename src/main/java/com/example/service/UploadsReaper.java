@@ -0,0 +1,171 @@
+package com.example.service;
+
+import com.example.config.AppProperties;
+import com.example.model.FileProcessingTask;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Фоновая очистка: завершённые задачи старше {@code app.tasks.ttl} удаляются
+ * вместе с файлами, а если каталог загрузок превысил {@code app.tasks.disk-quota},
+ * удаляются самые старые завершённые задачи. Файлы, которые не принадлежат
+ * ни одной известной задаче, удаляются по тому же TTL.
+ * <p>
+ * Незавершённые докачиваемые загрузки (есть {@code upload_<uploadId>.json}, а
+ * задачи ещё нет) в квоту не входят и здесь не удаляются: их файл создаётся
+ * сразу полного размера, а сроком хранения управляет {@link ResumableUploadService}.
+ * Файлы пакетов {@code batch_<batchId>.*} тоже не входят в квоту: это не задачи,
+ * и вытеснять ради них задачи бессмысленно; они удаляются по TTL.
+ */
+@Component
+public class UploadsReaper {
+    private static final Logger logger = LoggerFactory.getLogger(UploadsReaper.class);
+    private static final Pattern TASK_ID = Pattern.compile(
+            "[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}");
+
+    private final TaskStore taskRegistry;
+    private final ProcessedDataCache processedDataCache;
+    private final Path uploadDir;
+    private final long ttlMillis;
+    private final long diskQuotaBytes;
+    private final long intervalMillis;
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "uploads-reaper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public UploadsReaper(AppProperties properties, TaskStore taskRegistry, ProcessedDataCache processedDataCache) {
+        this.taskRegistry = taskRegistry;
+        this.processedDataCache = processedDataCache;
+        this.uploadDir = Paths.get(properties.getUploadDir());
+        this.ttlMillis = properties.getTasks().getTtl().toMillis();
+        this.diskQuotaBytes = properties.getTasks().getDiskQuota().toBytes();
+        this.intervalMillis = Math.max(properties.getTasks().getReapInterval().toMillis(), 1000);
+    }
+
+    @PostConstruct
+    public void start() {
+        taskRegistry.addRemovalListener(task -> deleteArtifacts(task.getTaskId()));
+        timer.scheduleWithFixedDelay(this::reapSafely, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        timer.shutdownNow();
+    }
+
+    private void reapSafely() {
+        try {
+            reap();
+        } catch (Exception e) {
+            logger.error("Ошибка очистки каталога загрузок", e);
+        }
+    }
+
+    void reap() throws IOException {
+        Instant expiredBefore = Instant.now().minusMillis(ttlMillis);
+        for (FileProcessingTask task : new ArrayList<>(taskRegistry.getAll())) {
+            if (TaskStore.isFinished(task) && TaskStore.createdDate(task).isBefore(expiredBefore)) {
+                logger.info("Задача {} удалена по TTL", task.getTaskId());
+                expire(task.getTaskId());
+            }
+        }
+
+        Map<String, Long> bytesByTask = new HashMap<>();
+        long totalBytes = 0;
+        if (!Files.isDirectory(uploadDir)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(uploadDir)) {
+            for (Path file : files) {
+                BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                if (!attributes.isRegularFile()) {
+                    continue;
+                }
+                String taskId = taskIdOf(file);
+                if (taskId == null) {
+                    continue;
+                }
+                boolean hasTask = taskRegistry.get(taskId) != null;
+                if (!hasTask && isPendingUpload(taskId)) {
+                    continue;
+                }
+                if (!hasTask && attributes.lastModifiedTime().toInstant().isBefore(expiredBefore)) {
+                    logger.info("Удалён файл без задачи: {}", file.getFileName());
+                    Files.deleteIfExists(file);
+                    continue;
+                }
+                if (file.getFileName().toString().startsWith(BatchService.FILE_PREFIX)) {
+                    continue;
+                }
+                bytesByTask.merge(taskId, attributes.size(), Long::sum);
+                totalBytes += attributes.size();
+            }
+        }
+
+        if (totalBytes <= diskQuotaBytes) {
+            return;
+        }
+        List<FileProcessingTask> oldest = new ArrayList<>(taskRegistry.getAll());
+        oldest.removeIf(task -> !TaskStore.isFinished(task));
+        oldest.sort(Comparator.comparing(TaskStore::createdDate));
+        for (FileProcessingTask task : oldest) {
+            if (totalBytes <= diskQuotaBytes) {
+                break;
+            }
+            logger.info("Задача {} удалена: превышена квота каталога загрузок", task.getTaskId());
+            totalBytes -= bytesByTask.getOrDefault(task.getTaskId(), 0L);
+            expire(task.getTaskId());
+        }
+    }
+
+    private void expire(String taskId) {
+        // файлы удаляет обработчик удаления из реестра
+        taskRegistry.remove(taskId);
+    }
+
+    /**
+     * Удаляет исходный файл, файлы результата processed_*, report_*.pdf и временные файлы задачи.
+     */
+    public void deleteArtifacts(String taskId) {
+        processedDataCache.invalidate(taskId);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(uploadDir, "*" + taskId + "*")) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            logger.warn("Не удалось удалить файлы задачи {}: {}", taskId, e.getMessage());
+        }
+    }
+
+    private boolean isPendingUpload(String uploadId) {
+        return Files.exists(uploadDir.resolve(ResumableUploadService.MANIFEST_PREFIX + uploadId + ".json"));
+    }
+
+    static String taskIdOf(Path file) {
+        Matcher matcher = TASK_ID.matcher(file.getFileName().toString());
+        return matcher.find() ? matcher.group() : null;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.service.excel;
+
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.util.LocaleUtil;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Значение ячейки, прочитанное потоковым парсером листа.
+ * Повторяет поведение {@link org.apache.poi.ss.usermodel.Cell} в тех местах,
+ * на которые опирается валидация строк: {@code toString()} и чтение даты.
+ */
+public final class SheetCell {
+    private static final DateTimeFormatter DISPLAY_DATE_FORMAT =
+            DateTimeFormatter.ofPattern("dd-MMM-yyyy", LocaleUtil.getUserLocale());
+
+    public enum Kind {
+        STRING, NUMERIC, BOOLEAN, ERROR, BLANK
+    }
+
+    private final Kind kind;
+    private final String text;
+    private final double number;
+    private final boolean dateFormatted;
+    private final boolean date1904;
+
+    private SheetCell(Kind kind, String text, double number, boolean dateFormatted, boolean date1904) {
+        this.kind = kind;
+        this.text = text;
+        this.number = number;
+        this.dateFormatted = dateFormatted;
+        this.date1904 = date1904;
+    }
+
+    public static SheetCell ofString(String text) {
+        return new SheetCell(Kind.STRING, text != null ? text : "", 0, false, false);
+    }
+
+    public static SheetCell ofNumber(double number, boolean dateFormatted, boolean date1904) {
+        return new SheetCell(Kind.NUMERIC, null, number, dateFormatted, date1904);
+    }
+
+    public static SheetCell ofBoolean(boolean value) {
+        return new SheetCell(Kind.BOOLEAN, value ? "TRUE" : "FALSE", value ? 1 : 0, false, false);
+    }
+
+    public static SheetCell ofError(String code) {
+        return new SheetCell(Kind.ERROR, code != null ? code : "", 0, false, false);
+    }
+
+    public static SheetCell blank() {
+        return new SheetCell(Kind.BLANK, "", 0, false, false);
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public boolean isNumeric() {
+        return kind == Kind.NUMERIC;
+    }
+
+    public double getNumber() {
+        return number;
+    }
+
+    /**
+     * Дата из числовой ячейки, как {@code Cell.getLocalDateTimeCellValue()}.
+     * Для значений вне допустимого диапазона Excel возвращает {@code null}.
+     */
+    public LocalDateTime getLocalDateTime() {
+        return DateUtil.getLocalDateTime(number, date1904);
+    }
+
+    public LocalDate getLocalDate() {
+        return getLocalDateTime().toLocalDate();
+    }
+
+    @Override
+    public String toString() {
+        if (kind != Kind.NUMERIC) {
+            return text;
+        }
+        if (dateFormatted && DateUtil.isValidExcelDate(number)) {
+            return DISPLAY_DATE_FORMAT.format(getLocalDateTime());
+        }
+        return Double.toString(number);
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.service.excel;
+
+import java.util.Arrays;
+
+/**
+ * Одна строка листа. Хранит только ячейки этой строки, поэтому объём
+ * памяти зависит от ширины строки, а не от размера файла.
+ */
+public final class SheetRow {
+    private final int rowNum;
+    private SheetCell[] cells;
+    private int lastCellNum = -1;
+
+    public SheetRow(int rowNum) {
+        this(rowNum, 8);
+    }
+
+    public SheetRow(int rowNum, int expectedWidth) {
+        this.rowNum = rowNum;
+        this.cells = new SheetCell[Math.max(expectedWidth, 1)];
+    }
+
+    public int getRowNum() {
+        return rowNum;
+    }
+
+    /**
+     * @return ячейка или {@code null}, если в файле её нет (как {@code Row.getCell})
+     */
+    public SheetCell getCell(int column) {
+        if (column < 0 || column >= cells.length) {
+            return null;
+        }
+        return cells[column];
+    }
+
+    public void setCell(int column, SheetCell cell) {
+        if (column >= cells.length) {
+            cells = Arrays.copyOf(cells, Math.max(column + 1, cells.length * 2));
+        }
+        cells[column] = cell;
+        lastCellNum = Math.max(lastCellNum, column);
+    }
+
+    /**
+     * @return индекс последней заполненной ячейки или -1 для пустой строки
+     */
+    public int getLastCellNum() {
+        return lastCellNum;
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.service.excel;
+
+@FunctionalInterface
+public interface SheetRowHandler {
+    void handleRow(SheetRow row) throws Exception;
+}
@@ -0,0 +1,250 @@
+package com.example.service.excel;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Iterator;
+
+/**
+ * Потоковое чтение .xlsx через {@link XSSFReader} и SAX: строки первого листа
+ * передаются обработчику по одной, объектная модель книги не строится.
+ */
+public class StreamingXlsxReader {
+
+    /**
+     * Читает первый лист книги (в порядке книги, как {@code Workbook.getSheetAt(0)}).
+     */
+    public void readFirstSheet(Path file, SheetRowHandler handler) throws IOException {
+        try (OPCPackage pkg = OPCPackage.open(file.toFile(), PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            boolean date1904 = readDate1904(reader);
+            SharedStrings strings = new ReadOnlySharedStringsTable(pkg);
+            StylesTable styles = reader.getStylesTable();
+
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            if (!sheets.hasNext()) {
+                throw new IOException("Книга не содержит листов");
+            }
+            try (InputStream sheet = sheets.next()) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new SheetHandler(strings, styles, date1904, handler));
+                parser.parse(new InputSource(sheet));
+            }
+        } catch (HandlerException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause.getMessage(), cause);
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException("Не удалось прочитать xlsx: " + e.getMessage(), e);
+        }
+    }
+
+    private boolean readDate1904(XSSFReader reader)
+            throws IOException, OpenXML4JException, SAXException, ParserConfigurationException {
+        boolean[] result = new boolean[1];
+        try (InputStream workbook = reader.getWorkbookData()) {
+            XMLReader parser = XMLHelper.newXMLReader();
+            parser.setContentHandler(new DefaultHandler() {
+                @Override
+                public void startElement(String uri, String localName, String qName, Attributes attributes) {
+                    if ("workbookPr".equals(localName)) {
+                        String value = attributes.getValue("date1904");
+                        result[0] = "1".equals(value) || "true".equalsIgnoreCase(value);
+                    }
+                }
+            });
+            parser.parse(new InputSource(workbook));
+        }
+        return result[0];
+    }
+
+    /**
+     * Разбирает номер столбца из ссылки вида "AB12" без промежуточных объектов.
+     */
+    static int columnIndex(String cellRef) {
+        int column = 0;
+        for (int i = 0; i < cellRef.length(); i++) {
+            char ch = cellRef.charAt(i);
+            if (ch < 'A' || ch > 'Z') {
+                break;
+            }
+            column = column * 26 + (ch - 'A' + 1);
+        }
+        return column - 1;
+    }
+
+    /**
+     * Исключение обработчика строк, проброшенное сквозь SAX-парсер.
+     */
+    private static final class HandlerException extends SAXException {
+        private static final long serialVersionUID = 1L;
+
+        HandlerException(Exception cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized Throwable getCause() {
+            return getException();
+        }
+    }
+
+    private static final class SheetHandler extends DefaultHandler {
+        private final SharedStrings strings;
+        private final StylesTable styles;
+        private final boolean date1904;
+        private final SheetRowHandler handler;
+        private final StringBuilder value = new StringBuilder();
+
+        private SheetRow row;
+        private int lastRowNum = -1;
+        private int lastColumn = -1;
+        private int column;
+        private String cellType;
+        private String cellStyle;
+        private boolean hasValue;
+        private boolean inValue;
+        private boolean inInlineString;
+        private boolean inPhonetic;
+
+        SheetHandler(SharedStrings strings, StylesTable styles, boolean date1904, SheetRowHandler handler) {
+            this.strings = strings;
+            this.styles = styles;
+            this.date1904 = date1904;
+            this.handler = handler;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            switch (localName) {
+                case "row":
+                    String r = attributes.getValue("r");
+                    int rowNum = r != null ? Integer.parseInt(r) - 1 : lastRowNum + 1;
+                    row = new SheetRow(rowNum);
+                    lastRowNum = rowNum;
+                    lastColumn = -1;
+                    break;
+                case "c":
+                    String ref = attributes.getValue("r");
+                    column = ref != null ? columnIndex(ref) : lastColumn + 1;
+                    lastColumn = column;
+                    cellType = attributes.getValue("t");
+                    cellStyle = attributes.getValue("s");
+                    hasValue = false;
+                    value.setLength(0);
+                    break;
+                case "v":
+                    inValue = true;
+                    hasValue = true;
+                    break;
+                case "is":
+                    inInlineString = true;
+                    hasValue = true;
+                    break;
+                case "rPh":
+                    inPhonetic = true;
+                    break;
+                case "t":
+                    inValue = inInlineString && !inPhonetic;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            switch (localName) {
+                case "v":
+                case "t":
+                    inValue = false;
+                    break;
+                case "is":
+                    inInlineString = false;
+                    break;
+                case "rPh":
+                    inPhonetic = false;
+                    break;
+                case "c":
+                    if (row != null) {
+                        row.setCell(column, hasValue ? toCell() : SheetCell.blank());
+                    }
+                    break;
+                case "row":
+                    try {
+                        handler.handleRow(row);
+                    } catch (Exception e) {
+                        throw new HandlerException(e);
+                    }
+                    row = null;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (inValue) {
+                value.append(ch, start, length);
+            }
+        }
+
+        private SheetCell toCell() {
+            String raw = value.toString();
+            if (cellType == null || "n".equals(cellType)) {
+                if (raw.isEmpty()) {
+                    return SheetCell.blank();
+                }
+                return SheetCell.ofNumber(Double.parseDouble(raw), isDateStyle(), date1904);
+            }
+            switch (cellType) {
+                case "s":
+                    return SheetCell.ofString(strings.getItemAt(Integer.parseInt(raw.trim())).getString());
+                case "inlineStr":
+                case "str":
+                case "d":
+                    return SheetCell.ofString(raw);
+                case "b":
+                    return SheetCell.ofBoolean("1".equals(raw) || "true".equalsIgnoreCase(raw));
+                case "e":
+                    return SheetCell.ofError(raw);
+                default:
+                    return SheetCell.ofString(raw);
+            }
+        }
+
+        private boolean isDateStyle() {
+            if (cellStyle == null || styles == null) {
+                return false;
+            }
+            XSSFCellStyle style = styles.getStyleAt(Integer.parseInt(cellStyle));
+            if (style == null) {
+                return false;
+            }
+            return DateUtil.isADateFormat(style.getDataFormat(), style.getDataFormatString());
+        }
+    }
+}
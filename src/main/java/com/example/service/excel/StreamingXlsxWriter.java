@@ -0,0 +1,101 @@
+package com.example.service.excel;
+
+import com.example.model.ProcessedRow;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Потоковая запись результата через {@link SXSSFWorkbook}: в памяти держится
+ * только окно из {@code rowWindow} строк, остальное сбрасывается во временные файлы.
+ * Лист "Processed Data" всегда первый и содержит все строки; при
+ * {@code splitByStatus} строки за тот же проход дублируются в листы "Ок" и "не ок".
+ */
+public class StreamingXlsxWriter implements Closeable {
+    public static final String MAIN_SHEET = "Processed Data";
+    public static final String VALID_SHEET = "Ок";
+    public static final String INVALID_SHEET = "не ок";
+    /** Заголовки столбцов результата; те же и в текстовых форматах. */
+    public static final List<String> HEADERS = List.of("ФИО", "Дата рождения", "Возраст в годах",
+            "Возраст в месяцах", "Статус", "Детализация ошибки");
+
+    private final SXSSFWorkbook workbook;
+    private final Sheet mainSheet;
+    private final Sheet validSheet;
+    private final Sheet invalidSheet;
+    private int validRowNum = 1;
+    private int invalidRowNum = 1;
+
+    public StreamingXlsxWriter(int rowWindow, boolean compressTempFiles, boolean splitByStatus) {
+        this.workbook = new SXSSFWorkbook(rowWindow);
+        this.workbook.setCompressTempFiles(compressTempFiles);
+        this.mainSheet = createSheet(MAIN_SHEET);
+        this.validSheet = splitByStatus ? createSheet(VALID_SHEET) : null;
+        this.invalidSheet = splitByStatus ? createSheet(INVALID_SHEET) : null;
+    }
+
+    private Sheet createSheet(String name) {
+        Sheet sheet = workbook.createSheet(name);
+        createHeaderRow(sheet);
+        return sheet;
+    }
+
+    /**
+     * Строки должны приходить по возрастанию {@code rowNum}.
+     */
+    public void writeRow(int rowNum, ProcessedRow user) {
+        createDataRow(mainSheet, rowNum, user);
+        if (validSheet != null) {
+            if ("Ок".equals(user.getStatus())) {
+                createDataRow(validSheet, validRowNum++, user);
+            } else {
+                createDataRow(invalidSheet, invalidRowNum++, user);
+            }
+        }
+    }
+
+    public void writeTo(Path output) throws IOException {
+        try (OutputStream out = Files.newOutputStream(output)) {
+            workbook.write(out);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        workbook.dispose();
+        workbook.close();
+    }
+
+    private void createHeaderRow(Sheet sheet) {
+        Row headerRow = sheet.createRow(0);
+        for (int column = 0; column < HEADERS.size(); column++) {
+            headerRow.createCell(column).setCellValue(HEADERS.get(column));
+        }
+    }
+
+    private void createDataRow(Sheet sheet, int rowNum, ProcessedRow user) {
+        Row row = sheet.createRow(rowNum);
+
+        // ФИО
+        row.createCell(0).setCellValue(user.getFullName().toString());
+
+        // Дата рождения
+        String birthDateStr = user.getBirthDate() != null ? user.getBirthDate().toString() : "";
+        row.createCell(1).setCellValue(birthDateStr);
+
+        // Возраст
+        row.createCell(2).setCellValue(user.getAgeYears());
+        row.createCell(3).setCellValue(user.getAgeMonths());
+
+        // Oшибки
+        row.createCell(4).setCellValue(user.getStatus());
+        row.createCell(5).setCellValue(user.getErrorDetails() != null ? user.getErrorDetails() : "");
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.service.pdf;
+
+import com.example.model.ProcessedRow;
+import com.example.model.ResultSummary;
+import com.itextpdf.html2pdf.ConverterProperties;
+import com.itextpdf.html2pdf.HtmlConverter;
+import org.springframework.stereotype.Component;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Отчёт через HTML и {@link HtmlConverter}. Шаблон разобран заранее,
+ * настройки конвертера собраны один раз; на документ копируются только
+ * они и свежий провайдер шрифтов из {@link ReportFonts}.
+ */
+@Component
+public class HtmlReportRenderer {
+    private final ReportFonts fonts;
+    private final ConverterProperties converterProperties;
+    private final HtmlReportTemplate template;
+
+    public HtmlReportRenderer(ReportFonts fonts) {
+        this.fonts = fonts;
+        this.converterProperties = new ConverterProperties()
+                .setCharset(StandardCharsets.UTF_8.name());
+        this.template = HtmlReportTemplate.load();
+    }
+
+    public void render(Iterable<? extends ProcessedRow> rows, ResultSummary summary, OutputStream out) {
+        String html = template.render(PdfReportRenderer.REPORT_TITLE, SummaryLines.of(summary), rows);
+        ConverterProperties documentProperties = new ConverterProperties(converterProperties)
+                .setFontProvider(fonts.newProvider());
+        HtmlConverter.convertToPdf(html, out, documentProperties);
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.service.pdf;
+
+import com.example.model.ProcessedRow;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Шаблон HTML-отчёта из {@code classpath:pdf/report.html}, разобранный один раз:
+ * статичные куски хранятся готовыми строками, между ними — вставки
+ * {@code {{title}}}, {@code {{summary}}}, {@code {{rows}}} и {@code {{total}}}. При выводе шаблон
+ * не разбирается заново, а значения экранируются.
+ */
+class HtmlReportTemplate {
+    static final String RESOURCE = "pdf/report.html";
+
+    private enum Slot { TITLE, SUMMARY, ROWS, TOTAL }
+
+    private final String[] literals;
+    private final Slot[] slots;
+    private final int literalLength;
+
+    private HtmlReportTemplate(List<String> literals, List<Slot> slots) {
+        this.literals = literals.toArray(new String[0]);
+        this.slots = slots.toArray(new Slot[0]);
+        this.literalLength = literals.stream().mapToInt(String::length).sum();
+    }
+
+    static HtmlReportTemplate load() {
+        try (InputStream in = HtmlReportTemplate.class.getClassLoader().getResourceAsStream(RESOURCE)) {
+            if (in == null) {
+                throw new IllegalStateException("Не найден шаблон отчёта " + RESOURCE);
+            }
+            return compile(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static HtmlReportTemplate compile(String source) {
+        List<String> literals = new ArrayList<>();
+        List<Slot> slots = new ArrayList<>();
+        int from = 0;
+        int open;
+        while ((open = source.indexOf("{{", from)) >= 0) {
+            int close = source.indexOf("}}", open);
+            if (close < 0) {
+                throw new IllegalStateException("Незакрытая вставка в шаблоне отчёта с позиции " + open);
+            }
+            String name = source.substring(open + 2, close).trim();
+            Slot slot;
+            try {
+                slot = Slot.valueOf(name.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalStateException("Неизвестная вставка в шаблоне отчёта: " + name);
+            }
+            literals.add(source.substring(from, open));
+            slots.add(slot);
+            from = close + 2;
+        }
+        literals.add(source.substring(from));
+        return new HtmlReportTemplate(literals, slots);
+    }
+
+    String render(String title, List<String> summaryLines, Iterable<? extends ProcessedRow> rows) {
+        StringBuilder html = new StringBuilder(literalLength + 64 * 1024);
+        int rowCount = 0;
+        int validCount = 0;
+        for (int i = 0; i < slots.length; i++) {
+            html.append(literals[i]);
+            switch (slots[i]) {
+                case TITLE:
+                    escape(html, title);
+                    break;
+                case SUMMARY:
+                    for (String line : summaryLines) {
+                        html.append("<p class=\"summary\">");
+                        escape(html, line);
+                        html.append("</p>\n");
+                    }
+                    break;
+                case ROWS:
+                    for (ProcessedRow user : rows) {
+                        boolean ok = "Ок".equals(user.getStatus());
+                        html.append("<tr><td>");
+                        escape(html, user.getFullName());
+                        html.append("</td><td>");
+                        if (user.getBirthDate() != null) {
+                            html.append(user.getBirthDate());
+                        }
+                        html.append("</td><td>").append(user.getAgeYears())
+                                .append("</td><td>").append(user.getAgeMonths())
+                                .append("</td><td class=\"").append(ok ? "status-ok" : "status-error").append("\">");
+                        escape(html, user.getStatus());
+                        html.append("</td><td>");
+                        escape(html, user.getErrorDetails());
+                        html.append("</td></tr>\n");
+                        rowCount++;
+                        if (ok) {
+                            validCount++;
+                        }
+                    }
+                    break;
+                case TOTAL:
+                    html.append("Всего строк: ").append(rowCount)
+                            .append(", Ок: ").append(validCount)
+                            .append(", не ок: ").append(rowCount - validCount);
+                    break;
+            }
+        }
+        html.append(literals[literals.length - 1]);
+        return html.toString();
+    }
+
+    private static void escape(StringBuilder html, CharSequence value) {
+        if (value == null) {
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&':
+                    html.append("&amp;");
+                    break;
+                case '<':
+                    html.append("&lt;");
+                    break;
+                case '>':
+                    html.append("&gt;");
+                    break;
+                case '"':
+                    html.append("&quot;");
+                    break;
+                default:
+                    html.append(c);
+            }
+        }
+    }
+}
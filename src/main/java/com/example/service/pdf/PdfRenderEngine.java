@@ -0,0 +1,127 @@
+package com.example.service.pdf;
+
+import com.example.config.AppProperties;
+import com.example.model.ProcessedRow;
+import com.example.model.ProcessedUser;
+import com.example.model.ResultSummary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Точка входа для формирования PDF: выбирает движок из {@code app.pdf.engine},
+ * ограничивает число одновременных отрисовок ({@code app.pdf.max-concurrent-renders})
+ * и прогревает движки при старте, чтобы первый отчёт после выкладки
+ * не платил за загрузку классов, шрифтов и CSS.
+ */
+@Component
+public class PdfRenderEngine {
+    private static final Logger logger = LoggerFactory.getLogger(PdfRenderEngine.class);
+    private static final int WARM_UP_ROWS = 50;
+
+    private final AppProperties.Pdf pdf;
+    private final PdfReportRenderer layoutRenderer;
+    private final HtmlReportRenderer htmlRenderer;
+    private final Semaphore renders;
+
+    public PdfRenderEngine(AppProperties properties,
+                           PdfReportRenderer layoutRenderer,
+                           HtmlReportRenderer htmlRenderer) {
+        this.pdf = properties.getPdf();
+        this.layoutRenderer = layoutRenderer;
+        this.htmlRenderer = htmlRenderer;
+        this.renders = new Semaphore(Math.max(pdf.getMaxConcurrentRenders(), 1), true);
+    }
+
+    /**
+     * Отрисовывает отчёт, дождавшись свободного места не дольше {@code app.pdf.acquire-timeout}.
+     *
+     * @param summary сводка для шапки отчёта или {@code null}
+     */
+    public void render(Iterable<? extends ProcessedRow> rows, ResultSummary summary,
+                       OutputStream out) throws IOException {
+        acquire();
+        try {
+            if (pdf.getEngine() == AppProperties.Pdf.Engine.HTML) {
+                htmlRenderer.render(rows, summary, out);
+            } else {
+                layoutRenderer.render(rows, summary, out);
+            }
+        } finally {
+            renders.release();
+        }
+    }
+
+    public int getActiveRenders() {
+        return Math.max(pdf.getMaxConcurrentRenders(), 1) - renders.availablePermits();
+    }
+
+    public int getWaitingRenders() {
+        return renders.getQueueLength();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!pdf.isWarmUp()) {
+            return;
+        }
+        long started = System.nanoTime();
+        try {
+            List<ProcessedRow> rows = sampleRows();
+            ResultSummary.Builder summary = ResultSummary.builder();
+            rows.forEach(summary::add);
+            render(rows, summary.build(), OutputStream.nullOutputStream());
+            logger.info("PDF-движок {} прогрет за {} мс", pdf.getEngine(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } catch (Exception e) {
+            // прогрев не обязателен: первый настоящий отчёт просто будет медленнее
+            logger.warn("Не удалось прогреть PDF-движок: {}", e.getMessage());
+        }
+    }
+
+    private void acquire() throws IOException {
+        try {
+            if (!renders.tryAcquire(pdf.getAcquireTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new IOException("Все " + Math.max(pdf.getMaxConcurrentRenders(), 1)
+                        + " мест для формирования PDF заняты дольше " + pdf.getAcquireTimeout().getSeconds() + " с");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Ожидание формирования PDF прервано");
+        }
+    }
+
+    /**
+     * Строки с кириллицей, ошибками и разной длиной, чтобы прогрев затронул
+     * те же шрифты и ветки вёрстки, что и настоящий отчёт.
+     */
+    private static List<ProcessedRow> sampleRows() {
+        List<ProcessedRow> rows = new ArrayList<>(WARM_UP_ROWS);
+        for (int i = 0; i < WARM_UP_ROWS; i++) {
+            ProcessedUser user = new ProcessedUser();
+            user.setFullName("Иванов Иван Иванович " + i);
+            if (i % 5 == 0) {
+                user.setStatus("Ошибка");
+                user.setErrorDetails("Дата рождения не соответствует формату");
+            } else {
+                user.setBirthDate(LocalDate.of(1980, 1, 1).plusDays(i * 97L));
+                user.setAgeYears(40 + i % 20);
+                user.setAgeMonths(i % 12);
+                user.setStatus("Ок");
+            }
+            rows.add(user);
+        }
+        return rows;
+    }
+}
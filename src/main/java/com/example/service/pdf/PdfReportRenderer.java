@@ -0,0 +1,40 @@
+package com.example.service.pdf;
+
+import com.example.config.AppProperties;
+import com.example.model.ProcessedRow;
+import com.example.model.ResultSummary;
+import org.springframework.stereotype.Component;
+
+import java.io.OutputStream;
+
+/**
+ * Формирует PDF-отчёт средствами iText layout, без промежуточного HTML.
+ * Шрифты берутся из общего {@link ReportFonts}.
+ */
+@Component
+public class PdfReportRenderer {
+    public static final String REPORT_TITLE = "Отчёт по обработке данных";
+
+    private final ReportFonts fonts;
+    private final int flushRows;
+
+    public PdfReportRenderer(AppProperties properties, ReportFonts fonts) {
+        this.fonts = fonts;
+        this.flushRows = properties.getPdf().getFlushRows();
+    }
+
+    /**
+     * @param summary сводка для шапки отчёта или {@code null}, если её нет
+     */
+    public PdfReportWriter open(OutputStream out, ResultSummary summary) {
+        return new PdfReportWriter(out, fonts.newProvider(), REPORT_TITLE, SummaryLines.of(summary), flushRows);
+    }
+
+    public void render(Iterable<? extends ProcessedRow> rows, ResultSummary summary, OutputStream out) {
+        try (PdfReportWriter writer = open(out, summary)) {
+            for (ProcessedRow user : rows) {
+                writer.addRow(user);
+            }
+        }
+    }
+}
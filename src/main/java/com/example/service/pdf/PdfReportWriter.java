@@ -0,0 +1,140 @@
+package com.example.service.pdf;
+
+import com.example.model.ProcessedRow;
+import com.itextpdf.kernel.colors.ColorConstants;
+import com.itextpdf.kernel.events.Event;
+import com.itextpdf.kernel.events.IEventHandler;
+import com.itextpdf.kernel.events.PdfDocumentEvent;
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.layout.Canvas;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.element.Cell;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.element.Table;
+import com.itextpdf.layout.font.FontProvider;
+import com.itextpdf.layout.properties.TextAlignment;
+import com.itextpdf.layout.properties.UnitValue;
+
+import java.io.Closeable;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Потоковая вёрстка отчёта: таблица создаётся в режиме large table,
+ * строки добавляются по одной и каждые {@code flushRows} строк готовые
+ * страницы уходят в выходной поток. Память не зависит от числа строк.
+ * Под заголовком печатается сводка, посчитанная во время обработки.
+ */
+public class PdfReportWriter implements Closeable {
+    private static final String[] HEADERS = {
+            "ФИО", "Дата рождения", "Возраст (лет)", "Возраст (мес.)", "Статус", "Детализация"
+    };
+
+    private final PdfDocument pdf;
+    private final Document document;
+    private final Table table;
+    private final int flushRows;
+    private int rowCount;
+    private int validCount;
+
+    public PdfReportWriter(OutputStream out, FontProvider fontProvider, String title,
+                           List<String> summaryLines, int flushRows) {
+        this.flushRows = Math.max(flushRows, 1);
+        this.pdf = new PdfDocument(new PdfWriter(out));
+        this.pdf.addEventHandler(PdfDocumentEvent.END_PAGE, new PageHeader(fontProvider, title));
+        this.document = new Document(pdf, PageSize.A4, true);
+        this.document.setFontProvider(fontProvider);
+        this.document.setFontFamily(ReportFonts.FONT_FAMILY);
+        this.document.setFontSize(9);
+        this.document.setTopMargin(48);
+
+        document.add(new Paragraph(title).setFontSize(16).setBold());
+        for (String line : summaryLines) {
+            document.add(new Paragraph(line).setMarginTop(0).setMarginBottom(2));
+        }
+
+        this.table = new Table(UnitValue.createPercentArray(new float[]{26, 13, 9, 9, 9, 34}), true)
+                .useAllAvailableWidth();
+        for (String header : HEADERS) {
+            table.addHeaderCell(new Cell()
+                    .setBackgroundColor(ColorConstants.LIGHT_GRAY)
+                    .add(new Paragraph(header).setBold()));
+        }
+        document.add(table);
+    }
+
+    public void addRow(ProcessedRow user) {
+        boolean ok = "Ок".equals(user.getStatus());
+        table.addCell(text(user.getFullName().toString()));
+        table.addCell(text(user.getBirthDate() != null ? user.getBirthDate().toString() : ""));
+        table.addCell(text(String.valueOf(user.getAgeYears())));
+        table.addCell(text(String.valueOf(user.getAgeMonths())));
+        table.addCell(text(user.getStatus())
+                .setFontColor(ok ? ColorConstants.GREEN : ColorConstants.RED));
+        table.addCell(text(user.getErrorDetails()));
+
+        rowCount++;
+        if (ok) {
+            validCount++;
+        }
+        if (rowCount % flushRows == 0) {
+            table.flush();
+        }
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public void close() {
+        table.complete();
+        document.add(new Paragraph("Всего строк: " + rowCount
+                + ", Ок: " + validCount + ", не ок: " + (rowCount - validCount))
+                .setMarginTop(10));
+        document.close();
+    }
+
+    private static Cell text(String value) {
+        return new Cell().add(new Paragraph(value != null ? value : ""));
+    }
+
+    /**
+     * Колонтитул с названием отчёта и номером страницы.
+     */
+    private static final class PageHeader implements IEventHandler {
+        private final FontProvider fontProvider;
+        private final String title;
+
+        PageHeader(FontProvider fontProvider, String title) {
+            this.fontProvider = fontProvider;
+            this.title = title;
+        }
+
+        @Override
+        public void handleEvent(Event event) {
+            PdfDocumentEvent docEvent = (PdfDocumentEvent) event;
+            PdfDocument document = docEvent.getDocument();
+            PdfPage page = docEvent.getPage();
+            Rectangle size = page.getPageSize();
+
+            PdfCanvas pdfCanvas = new PdfCanvas(page.newContentStreamAfter(), page.getResources(), document);
+            Canvas canvas = new Canvas(pdfCanvas, size);
+            try {
+                canvas.setFontProvider(fontProvider);
+                canvas.setFontFamily(ReportFonts.FONT_FAMILY);
+                canvas.setFontSize(8);
+                canvas.showTextAligned(title, size.getLeft() + 36, size.getTop() - 24, TextAlignment.LEFT);
+                canvas.showTextAligned("стр. " + document.getPageNumber(page),
+                        size.getRight() - 36, size.getTop() - 24, TextAlignment.RIGHT);
+            } finally {
+                canvas.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.service.pdf;
+
+import com.example.config.AppProperties;
+import com.itextpdf.html2pdf.resolver.font.DefaultFontProvider;
+import com.itextpdf.layout.font.FontInfo;
+import com.itextpdf.layout.font.FontProvider;
+import com.itextpdf.layout.font.FontSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Общий для обоих движков набор шрифтов: стандартные шрифты PDF, поставляемые
+ * с html2pdf шрифты с кириллицей и каталоги из {@code app.pdf.font-dirs}.
+ * Набор загружается один раз при старте; провайдер создаётся на каждый документ,
+ * потому что {@link FontProvider} кэширует шрифты, привязанные к документу.
+ * <p>
+ * Без явного семейства iText берёт стандартный Helvetica, в котором нет
+ * кириллицы, поэтому движок layout задаёт {@link #FONT_FAMILY} — Noto Sans из
+ * html2pdf. Если его в наборе нет, приложение не стартует.
+ */
+@Component
+public class ReportFonts {
+    public static final String FONT_FAMILY = "Noto Sans";
+    private static final Logger logger = LoggerFactory.getLogger(ReportFonts.class);
+
+    private final FontSet fontSet;
+
+    public ReportFonts(AppProperties properties) {
+        this.fontSet = new DefaultFontProvider(true, true, false).getFontSet();
+        for (String dir : properties.getPdf().getFontDirs()) {
+            if (!Files.isDirectory(Paths.get(dir))) {
+                logger.warn("Каталог шрифтов {} не найден, пропускаем", dir);
+                continue;
+            }
+            int added = fontSet.addDirectory(dir);
+            logger.info("Из каталога {} загружено шрифтов: {}", dir, added);
+        }
+        if (!hasFamily(FONT_FAMILY)) {
+            throw new IllegalStateException("Не найден шрифт " + FONT_FAMILY + " с кириллицей для PDF");
+        }
+    }
+
+    private boolean hasFamily(String family) {
+        for (FontInfo font : fontSet.getFonts()) {
+            if (family.equalsIgnoreCase(font.getDescriptor().getFamilyNameLowerCase())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public FontProvider newProvider() {
+        return new FontProvider(fontSet);
+    }
+}
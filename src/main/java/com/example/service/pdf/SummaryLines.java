@@ -0,0 +1,49 @@
+package com.example.service.pdf;
+
+import com.example.model.ResultSummary;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Сводка по результату в виде строк для шапки отчёта, одинаковых в обоих движках.
+ */
+final class SummaryLines {
+    private SummaryLines() {
+    }
+
+    static List<String> of(ResultSummary summary) {
+        List<String> lines = new ArrayList<>();
+        if (summary == null) {
+            return lines;
+        }
+        lines.add("Строк: " + summary.getRows() + "; по статусам: " + join(summary.getStatusCounts()));
+
+        StringJoiner ages = new StringJoiner(", ");
+        summary.getAgeHistogram().forEach((bucket, count) -> {
+            if (count > 0) {
+                ages.add(bucket + " — " + count);
+            }
+        });
+        if (ages.length() > 0) {
+            lines.add("Возраст, лет: " + ages);
+        }
+
+        if (!summary.getTopErrors().isEmpty()) {
+            String errors = "Частые ошибки: " + join(summary.getTopErrors());
+            if (summary.getOtherErrors() > 0) {
+                errors += "; прочие — " + summary.getOtherErrors();
+            }
+            lines.add(errors);
+        }
+        return lines;
+    }
+
+    private static String join(Map<String, Long> counts) {
+        StringJoiner joiner = new StringJoiner(", ");
+        counts.forEach((name, count) -> joiner.add(name + " — " + count));
+        return joiner.toString();
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.service.text;
+
+import com.example.service.excel.SheetCell;
+import com.example.service.excel.SheetRow;
+import com.example.service.excel.SheetRowHandler;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Потоковое чтение CSV в те же {@link SheetRow}, что отдаёт
+ * {@link com.example.service.excel.StreamingXlsxReader}, поэтому дальше строки
+ * проверяются тем же кодом. Все ячейки строковые; пустое поле — отсутствующая
+ * ячейка, как в xlsx. Пустые строки файла пропускаются, первая непустая — заголовки.
+ * <p>
+ * Кодировка определяется по началу файла: BOM, иначе UTF-8, если начало —
+ * корректный UTF-8, иначе windows-1251. Разделитель — тот из {@code , ; TAB},
+ * которого больше всего в первой строке. Кавычки — по RFC 4180.
+ */
+public class CsvRowReader {
+    public static final Charset WINDOWS_1251 = Charset.forName("windows-1251");
+    private static final int SNIFF_BYTES = 64 * 1024;
+    private static final int BUFFER_CHARS = 64 * 1024;
+    private static final char[] DELIMITERS = {',', ';', '\t'};
+
+    public void read(Path file, SheetRowHandler handler) throws IOException {
+        Charset charset = detectCharset(file);
+        try (Reader reader = new InputStreamReader(Files.newInputStream(file), charset)) {
+            parse(reader, handler);
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Кодировка по первым {@value #SNIFF_BYTES} байтам файла.
+     */
+    public static Charset detectCharset(Path file) throws IOException {
+        byte[] head;
+        try (InputStream in = Files.newInputStream(file)) {
+            head = in.readNBytes(SNIFF_BYTES);
+        }
+        if (head.length >= 3 && (head[0] & 0xFF) == 0xEF && (head[1] & 0xFF) == 0xBB && (head[2] & 0xFF) == 0xBF) {
+            return StandardCharsets.UTF_8;
+        }
+        if (head.length >= 2 && (head[0] & 0xFF) == 0xFF && (head[1] & 0xFF) == 0xFE) {
+            return StandardCharsets.UTF_16LE;
+        }
+        if (head.length >= 2 && (head[0] & 0xFF) == 0xFE && (head[1] & 0xFF) == 0xFF) {
+            return StandardCharsets.UTF_16BE;
+        }
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        // конец выборки может разрезать многобайтовый символ, поэтому endOfInput только для файла целиком
+        boolean wholeFile = head.length < SNIFF_BYTES;
+        CharBuffer out = CharBuffer.allocate(head.length + 1);
+        CoderResult result = decoder.decode(ByteBuffer.wrap(head), out, wholeFile);
+        if (result.isError()) {
+            return WINDOWS_1251;
+        }
+        if (wholeFile) {
+            try {
+                result = decoder.flush(out);
+            } catch (IllegalStateException e) {
+                return WINDOWS_1251;
+            }
+            if (result.isError()) {
+                return WINDOWS_1251;
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    private void parse(Reader reader, SheetRowHandler handler) throws Exception {
+        char[] buffer = new char[BUFFER_CHARS];
+        int length = reader.read(buffer);
+        int position = 0;
+        if (length > 0 && buffer[0] == '\uFEFF') {
+            position = 1;
+        }
+        char delimiter = length > 0 ? detectDelimiter(buffer, position, length) : ',';
+
+        StringBuilder field = new StringBuilder();
+        int rowNum = 0;
+        int width = 8;
+        SheetRow row = new SheetRow(rowNum, width);
+        int column = 0;
+        boolean inQuotes = false;
+        // только что закрылась кавычка: следующая кавычка — экранированная
+        boolean quoteClosed = false;
+
+        while (length > 0) {
+            for (; position < length; position++) {
+                char c = buffer[position];
+                if (inQuotes) {
+                    if (c == '"') {
+                        inQuotes = false;
+                        quoteClosed = true;
+                    } else {
+                        field.append(c);
+                    }
+                    continue;
+                }
+                if (c == '"') {
+                    if (quoteClosed) {
+                        field.append('"');
+                        inQuotes = true;
+                        quoteClosed = false;
+                    } else if (field.length() == 0) {
+                        inQuotes = true;
+                    } else {
+                        field.append(c);
+                    }
+                    continue;
+                }
+                quoteClosed = false;
+                if (c == delimiter) {
+                    setCell(row, column++, field);
+                } else if (c == '\n') {
+                    setCell(row, column, field);
+                    // строка из одних разделителей пустая, как отсутствующая строка листа
+                    if (row.getLastCellNum() >= 0) {
+                        handler.handleRow(row);
+                        width = Math.max(width, row.getLastCellNum() + 1);
+                        row = new SheetRow(++rowNum, width);
+                    }
+                    column = 0;
+                } else if (c != '\r') {
+                    field.append(c);
+                }
+            }
+            length = reader.read(buffer);
+            position = 0;
+        }
+        if (inQuotes) {
+            throw new IOException("Незакрытая кавычка в строке " + (rowNum + 1));
+        }
+        setCell(row, column, field);
+        if (row.getLastCellNum() >= 0) {
+            handler.handleRow(row);
+        }
+    }
+
+    private static void setCell(SheetRow row, int column, StringBuilder field) {
+        if (field.length() > 0) {
+            row.setCell(column, SheetCell.ofString(field.toString()));
+            field.setLength(0);
+        }
+    }
+
+    private static char detectDelimiter(char[] buffer, int from, int to) {
+        int[] counts = new int[DELIMITERS.length];
+        boolean inQuotes = false;
+        for (int i = from; i < to && (inQuotes || buffer[i] != '\n'); i++) {
+            if (buffer[i] == '"') {
+                inQuotes = !inQuotes;
+            } else if (!inQuotes) {
+                for (int d = 0; d < DELIMITERS.length; d++) {
+                    if (buffer[i] == DELIMITERS[d]) {
+                        counts[d]++;
+                    }
+                }
+            }
+        }
+        int best = 0;
+        for (int d = 1; d < DELIMITERS.length; d++) {
+            if (counts[d] > counts[best]) {
+                best = d;
+            }
+        }
+        return DELIMITERS[best];
+    }
+}
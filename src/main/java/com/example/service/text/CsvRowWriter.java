@@ -0,0 +1,107 @@
+package com.example.service.text;
+
+import com.example.model.ProcessedRow;
+import com.example.service.excel.StreamingXlsxWriter;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Результат в CSV: те же столбцы, что в xlsx, UTF-8 с BOM (Excel тогда
+ * открывает кириллицу без выбора кодировки), разделитель — запятая, кавычки по RFC 4180.
+ * Строки пишутся сразу в поток, в памяти ничего не копится.
+ * <p>
+ * Текст, который начинается с {@code = + - @}, табуляции или возврата каретки,
+ * Excel и другие табличные программы выполняют как формулу, поэтому перед
+ * таким значением ставится апостроф. Апостроф ставится и перед значением,
+ * которое само с него начинается, чтобы {@link #unguard} вернул текст как был.
+ */
+public class CsvRowWriter implements Closeable {
+    private static final char DELIMITER = ',';
+
+    private final Writer writer;
+
+    public CsvRowWriter(OutputStream out) throws IOException {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        writer.write('\uFEFF');
+        for (int column = 0; column < StreamingXlsxWriter.HEADERS.size(); column++) {
+            if (column > 0) {
+                writer.write(DELIMITER);
+            }
+            writeField(StreamingXlsxWriter.HEADERS.get(column));
+        }
+        writer.write("\r\n");
+    }
+
+    public void writeRow(ProcessedRow row) throws IOException {
+        writeField(row.getFullName());
+        writer.write(DELIMITER);
+        if (row.getBirthDate() != null) {
+            writer.write(row.getBirthDate().toString());
+        }
+        writer.write(DELIMITER);
+        writer.write(Integer.toString(row.getAgeYears()));
+        writer.write(DELIMITER);
+        writer.write(Integer.toString(row.getAgeMonths()));
+        writer.write(DELIMITER);
+        writeField(row.getStatus());
+        writer.write(DELIMITER);
+        writeField(row.getErrorDetails());
+        writer.write("\r\n");
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    private void writeField(CharSequence value) throws IOException {
+        if (value == null || value.length() == 0) {
+            return;
+        }
+        boolean guard = isGuarded(value.charAt(0));
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == DELIMITER || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            if (guard) {
+                writer.write('\'');
+            }
+            writer.append(value);
+            return;
+        }
+        writer.write('"');
+        if (guard) {
+            writer.write('\'');
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+
+    /**
+     * Снимает апостроф, поставленный при записи, с прочитанного обратно поля.
+     */
+    public static String unguard(String value) {
+        if (value.length() > 1 && value.charAt(0) == '\'' && isGuarded(value.charAt(1))) {
+            return value.substring(1);
+        }
+        return value;
+    }
+
+    private static boolean isGuarded(char c) {
+        return c == '=' || c == '+' || c == '-' || c == '@' || c == '\t' || c == '\r' || c == '\'';
+    }
+}
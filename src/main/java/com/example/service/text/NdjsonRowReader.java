@@ -0,0 +1,69 @@
+package com.example.service.text;
+
+import com.example.model.ProcessedUser;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.function.Predicate;
+
+/**
+ * Чтение файла результата, записанного {@link NdjsonRowWriter}, по одной строке.
+ */
+public class NdjsonRowReader {
+    private final JsonFactory factory;
+
+    public NdjsonRowReader(JsonFactory factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * @param handler получает строки по порядку; вернул {@code false} — чтение прекращается
+     */
+    public void read(Path file, Predicate<ProcessedUser> handler) throws IOException {
+        try (InputStream in = Files.newInputStream(file);
+             JsonParser parser = factory.createParser(in)) {
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                if (!handler.test(readRow(parser))) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private static ProcessedUser readRow(JsonParser parser) throws IOException {
+        ProcessedUser user = new ProcessedUser();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "fullName":
+                    user.setFullName(parser.getValueAsString());
+                    break;
+                case "birthDate":
+                    user.setBirthDate(value == JsonToken.VALUE_NULL ? null : LocalDate.parse(parser.getText()));
+                    break;
+                case "ageYears":
+                    user.setAgeYears(parser.getValueAsInt());
+                    break;
+                case "ageMonths":
+                    user.setAgeMonths(parser.getValueAsInt());
+                    break;
+                case "status":
+                    user.setStatus(parser.getValueAsString());
+                    break;
+                case "errorDetails":
+                    user.setErrorDetails(parser.getValueAsString());
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        return user;
+    }
+}
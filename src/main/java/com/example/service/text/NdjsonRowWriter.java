@@ -0,0 +1,58 @@
+package com.example.service.text;
+
+import com.example.model.ProcessedRow;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Строки результата в NDJSON: по JSON-объекту на строку, поля те же, что у
+ * {@link com.example.model.ProcessedUser} в JSON-ответах. Используется и для
+ * файла результата, и для потоковой выдачи строк через API.
+ */
+public class NdjsonRowWriter implements Closeable, Flushable {
+    private final JsonGenerator json;
+
+    public NdjsonRowWriter(JsonFactory factory, OutputStream out) throws IOException {
+        this.json = factory.createGenerator(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+        // между записями только перевод строки из writeRow, без разделителя Jackson
+        json.setPrettyPrinter(new MinimalPrettyPrinter(""));
+    }
+
+    public void writeRow(ProcessedRow row) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("fullName", row.getFullName().toString());
+        if (row.getBirthDate() != null) {
+            json.writeStringField("birthDate", row.getBirthDate().toString());
+        } else {
+            json.writeNullField("birthDate");
+        }
+        json.writeNumberField("ageYears", row.getAgeYears());
+        json.writeNumberField("ageMonths", row.getAgeMonths());
+        json.writeStringField("status", row.getStatus());
+        json.writeStringField("errorDetails", row.getErrorDetails());
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+
+    @Override
+    public void flush() throws IOException {
+        json.flush();
+    }
+
+    /**
+     * Закрывает и нижележащий поток.
+     */
+    @Override
+    public void close() throws IOException {
+        json.close();
+    }
+}
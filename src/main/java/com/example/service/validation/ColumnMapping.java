@@ -0,0 +1,66 @@
+package com.example.service.validation;
+
+import com.example.service.excel.SheetCell;
+import com.example.service.excel.SheetRow;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Номера столбцов ФИО и даты рождения, найденные по строке заголовков.
+ * Если заголовок не распознан, остаются прежние столбцы A и B.
+ */
+public final class ColumnMapping {
+    public static final ColumnMapping DEFAULT = new ColumnMapping(0, 1);
+
+    private final int nameColumn;
+    private final int birthDateColumn;
+
+    public ColumnMapping(int nameColumn, int birthDateColumn) {
+        this.nameColumn = nameColumn;
+        this.birthDateColumn = birthDateColumn;
+    }
+
+    public static ColumnMapping resolve(SheetRow header, List<String> nameHeaders, List<String> birthDateHeaders) {
+        if (header == null) {
+            return DEFAULT;
+        }
+        int name = find(header, nameHeaders);
+        int birthDate = find(header, birthDateHeaders);
+        return new ColumnMapping(name >= 0 ? name : DEFAULT.nameColumn,
+                birthDate >= 0 ? birthDate : DEFAULT.birthDateColumn);
+    }
+
+    private static int find(SheetRow header, List<String> titles) {
+        for (int column = 0; column <= header.getLastCellNum(); column++) {
+            SheetCell cell = header.getCell(column);
+            if (cell == null) {
+                continue;
+            }
+            String value = normalize(cell.toString());
+            for (String title : titles) {
+                if (value.equals(normalize(title))) {
+                    return column;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static String normalize(String title) {
+        return title.trim().replaceAll("\\s+", " ").replace('ё', 'е').replace('Ё', 'Е').toLowerCase(Locale.ROOT);
+    }
+
+    public int getNameColumn() {
+        return nameColumn;
+    }
+
+    public int getBirthDateColumn() {
+        return birthDateColumn;
+    }
+
+    @Override
+    public String toString() {
+        return "ФИО=" + nameColumn + ", дата рождения=" + birthDateColumn;
+    }
+}
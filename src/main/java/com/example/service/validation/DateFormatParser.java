@@ -0,0 +1,202 @@
+package com.example.service.validation;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Разбор текстовой даты по набору шаблонов без исключений и без промежуточных
+ * объектов: шаблоны один раз компилируются в массивы полей, текст читается
+ * посимвольно. Неподходящая строка — обычный результат {@link #INVALID}.
+ * <p>
+ * Шаблон состоит из {@code yyyy}, {@code MM}/{@code M}, {@code dd}/{@code d}
+ * и символов-разделителей; одна буква означает одну-две цифры.
+ * Экземпляр неизменяем и может использоваться из нескольких потоков.
+ */
+public final class DateFormatParser {
+    public static final int INVALID = -1;
+
+    private static final byte YEAR = 0;
+    private static final byte MONTH = 1;
+    private static final byte DAY = 2;
+    private static final byte LITERAL = 3;
+
+    private final Format[] formats;
+
+    private DateFormatParser(Format[] formats) {
+        this.formats = formats;
+    }
+
+    public static DateFormatParser compile(List<String> patterns) {
+        if (patterns.isEmpty()) {
+            throw new IllegalArgumentException("Не задан ни один формат даты");
+        }
+        Format[] formats = new Format[patterns.size()];
+        for (int i = 0; i < formats.length; i++) {
+            formats[i] = Format.compile(patterns.get(i));
+        }
+        return new DateFormatParser(formats);
+    }
+
+    /**
+     * @return дата в виде {@code yyyyMMdd} или {@link #INVALID}
+     */
+    public int parse(CharSequence text) {
+        int start = 0;
+        int end = text.length();
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        for (Format format : formats) {
+            int date = format.parse(text, start, end);
+            if (date != INVALID) {
+                return date;
+            }
+        }
+        return INVALID;
+    }
+
+    public static int pack(int year, int month, int day) {
+        return year * 10000 + month * 100 + day;
+    }
+
+    public static int year(int date) {
+        return date / 10000;
+    }
+
+    public static int month(int date) {
+        return date / 100 % 100;
+    }
+
+    public static int day(int date) {
+        return date % 100;
+    }
+
+    static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+                return leap ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    private static final class Format {
+        private final byte[] kinds;
+        private final byte[] minDigits;
+        private final byte[] maxDigits;
+        private final char[] literals;
+
+        private Format(byte[] kinds, byte[] minDigits, byte[] maxDigits, char[] literals) {
+            this.kinds = kinds;
+            this.minDigits = minDigits;
+            this.maxDigits = maxDigits;
+            this.literals = literals;
+        }
+
+        static Format compile(String pattern) {
+            int n = 0;
+            byte[] kinds = new byte[pattern.length()];
+            byte[] minDigits = new byte[pattern.length()];
+            byte[] maxDigits = new byte[pattern.length()];
+            char[] literals = new char[pattern.length()];
+            boolean year = false;
+            boolean month = false;
+            boolean day = false;
+            int i = 0;
+            while (i < pattern.length()) {
+                char ch = pattern.charAt(i);
+                int run = 1;
+                while (i + run < pattern.length() && pattern.charAt(i + run) == ch) {
+                    run++;
+                }
+                if (ch == 'y') {
+                    if (run != 4 || year) {
+                        throw new IllegalArgumentException("Год в формате даты должен быть yyyy: " + pattern);
+                    }
+                    year = true;
+                    add(kinds, minDigits, maxDigits, n++, YEAR, 4, 4);
+                } else if (ch == 'M' || ch == 'd') {
+                    if (run > 2 || (ch == 'M' ? month : day)) {
+                        throw new IllegalArgumentException("Неподдерживаемое поле в формате даты: " + pattern);
+                    }
+                    if (ch == 'M') {
+                        month = true;
+                    } else {
+                        day = true;
+                    }
+                    add(kinds, minDigits, maxDigits, n++, ch == 'M' ? MONTH : DAY, run, 2);
+                } else if (Character.isLetter(ch)) {
+                    throw new IllegalArgumentException("Неподдерживаемое поле '" + ch + "' в формате даты: " + pattern);
+                } else {
+                    for (int k = 0; k < run; k++) {
+                        kinds[n] = LITERAL;
+                        literals[n++] = ch;
+                    }
+                }
+                i += run;
+            }
+            if (!year || !month || !day) {
+                throw new IllegalArgumentException("Формат даты должен содержать год, месяц и день: " + pattern);
+            }
+            return new Format(Arrays.copyOf(kinds, n), Arrays.copyOf(minDigits, n),
+                    Arrays.copyOf(maxDigits, n), Arrays.copyOf(literals, n));
+        }
+
+        private static void add(byte[] kinds, byte[] minDigits, byte[] maxDigits, int index,
+                                byte kind, int min, int max) {
+            kinds[index] = kind;
+            minDigits[index] = (byte) min;
+            maxDigits[index] = (byte) max;
+        }
+
+        int parse(CharSequence text, int start, int end) {
+            int pos = start;
+            int year = 0;
+            int month = 0;
+            int day = 0;
+            for (int i = 0; i < kinds.length; i++) {
+                if (kinds[i] == LITERAL) {
+                    if (pos >= end || text.charAt(pos) != literals[i]) {
+                        return INVALID;
+                    }
+                    pos++;
+                    continue;
+                }
+                int value = 0;
+                int digits = 0;
+                while (pos < end && digits < maxDigits[i]) {
+                    char ch = text.charAt(pos);
+                    if (ch < '0' || ch > '9') {
+                        break;
+                    }
+                    value = value * 10 + (ch - '0');
+                    digits++;
+                    pos++;
+                }
+                if (digits < minDigits[i]) {
+                    return INVALID;
+                }
+                if (kinds[i] == YEAR) {
+                    year = value;
+                } else if (kinds[i] == MONTH) {
+                    month = value;
+                } else {
+                    day = value;
+                }
+            }
+            if (pos != end || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+                return INVALID;
+            }
+            return pack(year, month, day);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.service.validation;
+
+/**
+ * Значения строки, разобранные {@link RowValidator} до применения правил.
+ */
+public final class ParsedRow {
+    public enum DateState {
+        /** Ячейки с датой нет. */
+        MISSING,
+        /** Значение не подошло ни под один формат. */
+        INVALID,
+        VALID
+    }
+
+    private final int rowNum;
+    private final String fullName;
+    private final DateState dateState;
+    private final String birthDateText;
+    private final int birthDate;
+    private final int referenceDate;
+
+    ParsedRow(int rowNum, String fullName, DateState dateState, String birthDateText,
+              int birthDate, int referenceDate) {
+        this.rowNum = rowNum;
+        this.fullName = fullName;
+        this.dateState = dateState;
+        this.birthDateText = birthDateText;
+        this.birthDate = birthDate;
+        this.referenceDate = referenceDate;
+    }
+
+    public int getRowNum() {
+        return rowNum;
+    }
+
+    /**
+     * @return ФИО без пробелов по краям или {@code null}, если ячейки нет
+     */
+    public String getFullName() {
+        return fullName;
+    }
+
+    public DateState getDateState() {
+        return dateState;
+    }
+
+    /**
+     * Исходное значение ячейки даты, как оно показывается в Excel.
+     */
+    public String getBirthDateText() {
+        return birthDateText;
+    }
+
+    /**
+     * @return дата рождения {@code yyyyMMdd}, если {@link #getDateState()} равно VALID
+     */
+    public int getBirthDate() {
+        return birthDate;
+    }
+
+    /**
+     * @return дата, на которую считается возраст, {@code yyyyMMdd}; одна на всё задание
+     */
+    public int getReferenceDate() {
+        return referenceDate;
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.service.validation;
+
+import com.example.model.ProcessedUser;
+import com.example.service.excel.SheetCell;
+import com.example.service.excel.SheetRow;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Проверка строк одного задания: столбцы, форматы даты, дата отсчёта возраста
+ * и список правил фиксируются при создании. Обычный путь, в том числе для
+ * некорректных дат, обходится без исключений. Экземпляр неизменяем и может
+ * использоваться параллельно.
+ */
+public final class RowValidator {
+    private static final Logger logger = LoggerFactory.getLogger(RowValidator.class);
+    /** Порядковый номер 31.12.9999 в календаре Excel; дальше даты не бывает. */
+    private static final double MAX_EXCEL_DATE = 2958466;
+
+    private final ColumnMapping columns;
+    private final DateFormatParser dateParser;
+    private final ValidationRule[] rules;
+    private final int referenceDate;
+    private final long referenceMonth;
+
+    RowValidator(ColumnMapping columns, DateFormatParser dateParser, List<ValidationRule> rules,
+                 LocalDate referenceDate) {
+        this.columns = columns;
+        this.dateParser = dateParser;
+        this.rules = rules.toArray(new ValidationRule[0]);
+        this.referenceDate = DateFormatParser.pack(referenceDate.getYear(),
+                referenceDate.getMonthValue(), referenceDate.getDayOfMonth());
+        this.referenceMonth = referenceDate.getYear() * 12L + referenceDate.getMonthValue() - 1;
+    }
+
+    public ColumnMapping getColumns() {
+        return columns;
+    }
+
+    public ProcessedUser validate(SheetRow row) {
+        ProcessedUser user = new ProcessedUser();
+        try {
+            ParsedRow parsed = parse(row);
+            user.setFullName(parsed.getFullName());
+            if (parsed.getDateState() == ParsedRow.DateState.VALID) {
+                int birthDate = parsed.getBirthDate();
+                user.setBirthDate(LocalDate.of(DateFormatParser.year(birthDate),
+                        DateFormatParser.month(birthDate), DateFormatParser.day(birthDate)));
+                long months = monthsBetween(birthDate);
+                user.setAgeYears((int) (months / 12));
+                user.setAgeMonths((int) (months % 12));
+            }
+            for (ValidationRule rule : rules) {
+                String error = rule.check(parsed);
+                if (error != null) {
+                    user.setStatus("не ок");
+                    user.setErrorDetails(error);
+                    return user;
+                }
+            }
+            user.setStatus("Ок");
+        } catch (RuntimeException e) {
+            logger.error("Ошибка обработки строки", e);
+            user.setStatus("не ок");
+            user.setErrorDetails("Ошибка обработки данных: " + e.getMessage());
+        }
+        return user;
+    }
+
+    ParsedRow parse(SheetRow row) {
+        SheetCell nameCell = row.getCell(columns.getNameColumn());
+        String fullName = nameCell != null ? nameCell.toString().trim() : null;
+
+        SheetCell dateCell = row.getCell(columns.getBirthDateColumn());
+        if (dateCell == null) {
+            return new ParsedRow(row.getRowNum(), fullName, ParsedRow.DateState.MISSING, null,
+                    DateFormatParser.INVALID, referenceDate);
+        }
+        int birthDate = dateCell.isNumeric() ? fromExcel(dateCell) : dateParser.parse(dateCell.toString());
+        ParsedRow.DateState state = birthDate == DateFormatParser.INVALID
+                ? ParsedRow.DateState.INVALID : ParsedRow.DateState.VALID;
+        return new ParsedRow(row.getRowNum(), fullName, state, dateCell.toString(), birthDate, referenceDate);
+    }
+
+    private static int fromExcel(SheetCell cell) {
+        double number = cell.getNumber();
+        if (!DateUtil.isValidExcelDate(number) || number >= MAX_EXCEL_DATE) {
+            return DateFormatParser.INVALID;
+        }
+        LocalDate date = cell.getLocalDate();
+        return DateFormatParser.pack(date.getYear(), date.getMonthValue(), date.getDayOfMonth());
+    }
+
+    /**
+     * Полные месяцы от даты рождения до даты отсчёта, как {@code Period.between(...).toTotalMonths()}.
+     */
+    private long monthsBetween(int birthDate) {
+        long months = referenceMonth
+                - (DateFormatParser.year(birthDate) * 12L + DateFormatParser.month(birthDate) - 1);
+        int days = DateFormatParser.day(referenceDate) - DateFormatParser.day(birthDate);
+        if (months > 0 && days < 0) {
+            months--;
+        } else if (months < 0 && days > 0) {
+            months++;
+        }
+        return months;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.service.validation;
+
+import com.example.config.AppProperties;
+import com.example.service.excel.SheetRow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Собирает {@link RowValidator} на каждое задание по строке заголовков листа.
+ * Форматы дат разбираются один раз при запуске приложения.
+ */
+@Component
+public class RowValidatorFactory {
+    private static final Logger logger = LoggerFactory.getLogger(RowValidatorFactory.class);
+
+    private final AppProperties.Validation settings;
+    private final DateFormatParser dateParser;
+    private final List<ValidationRule> rules;
+    private final Clock clock;
+
+    @Autowired
+    public RowValidatorFactory(AppProperties properties, List<ValidationRule> rules) {
+        this(properties.getValidation(), rules, Clock.systemDefaultZone());
+    }
+
+    RowValidatorFactory(AppProperties.Validation settings, List<ValidationRule> rules, Clock clock) {
+        this.settings = settings;
+        this.dateParser = DateFormatParser.compile(settings.getDateFormats());
+        this.rules = List.copyOf(rules);
+        this.clock = clock;
+    }
+
+    /**
+     * @param header первая строка листа или {@code null}, если её нет
+     */
+    public RowValidator compile(SheetRow header) {
+        ColumnMapping columns = ColumnMapping.resolve(header,
+                settings.getNameHeaders(), settings.getBirthDateHeaders());
+        logger.debug("Столбцы проверки: {}", columns);
+        return new RowValidator(columns, dateParser, rules, LocalDate.now(clock));
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.service.validation;
+
+/**
+ * Правило проверки строки. Правила — бины Spring; {@link RowValidatorFactory}
+ * собирает их в порядке {@link org.springframework.core.annotation.Order},
+ * и первая найденная ошибка становится детализацией строки.
+ * Правило не должно бросать исключений на обычных данных.
+ */
+@FunctionalInterface
+public interface ValidationRule {
+    /**
+     * @return текст ошибки или {@code null}, если строка правило прошла
+     */
+    String check(ParsedRow row);
+}
@@ -0,0 +1,39 @@
+package com.example.service.validation;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Стандартные правила проверки строки. Дополнительное правило достаточно
+ * объявить бином {@link ValidationRule} с нужным {@link Order}.
+ */
+@Configuration
+public class ValidationRules {
+
+    @Bean
+    @Order(100)
+    public ValidationRule fullNameRequired() {
+        return row -> row.getFullName() == null ? "Отсутствует ФИО" : null;
+    }
+
+    @Bean
+    @Order(200)
+    public ValidationRule birthDateRequired() {
+        return row -> row.getDateState() == ParsedRow.DateState.MISSING ? "Отсутствует дата рождения" : null;
+    }
+
+    @Bean
+    @Order(300)
+    public ValidationRule birthDateFormat() {
+        return row -> row.getDateState() == ParsedRow.DateState.INVALID
+                ? "Некорректный формат даты: " + row.getBirthDateText() : null;
+    }
+
+    @Bean
+    @Order(400)
+    public ValidationRule birthDateNotInFuture() {
+        return row -> row.getDateState() == ParsedRow.DateState.VALID && row.getBirthDate() > row.getReferenceDate()
+                ? "Дата рождения в будущем" : null;
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.controller;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileDownloadSupportTest {
+    private static final String CONTENT = "0123456789";
+
+    @TempDir
+    Path dir;
+
+    @ParameterizedTest
+    @CsvSource({
+            "bytes=0-0,     0, 0",
+            "bytes=0-9,     0, 9",
+            "bytes=2-5,     2, 5",
+            "bytes=7-,      7, 9",
+            "bytes=5-100,   5, 9",
+            "bytes=-3,      7, 9",
+            "bytes=-100,    0, 9",
+            "bytes= 2 - 5 , 2, 5",
+    })
+    void parsesSingleRange(String header, long start, long end) {
+        assertThat(FileDownloadSupport.parseRange(header, CONTENT.length())).containsExactly(start, end);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"bytes=10-", "bytes=10-20", "bytes=5-2", "bytes=-0"})
+    void rejectsUnsatisfiableRange(String header) {
+        assertThat(FileDownloadSupport.parseRange(header, CONTENT.length())).isNull();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"items=0-5", "bytes=0-1,4-5", "bytes=5", "bytes=a-b", "bytes=1-x"})
+    void ignoresUnsupportedRange(String header) {
+        assertThat(FileDownloadSupport.parseRange(header, CONTENT.length())).isEmpty();
+    }
+
+    @Test
+    void sendsWholeFileWithValidators() throws Exception {
+        MockHttpServletResponse response = send(new MockHttpServletRequest("GET", "/file"));
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsString()).isEqualTo(CONTENT);
+        assertThat(response.getContentLengthLong()).isEqualTo(CONTENT.length());
+        assertThat(response.getHeader(HttpHeaders.ETAG)).startsWith("\"");
+        assertThat(response.getHeader(HttpHeaders.ACCEPT_RANGES)).isEqualTo("bytes");
+        assertThat(response.getHeader(HttpHeaders.CONTENT_DISPOSITION)).isEqualTo("attachment");
+    }
+
+    @Test
+    void sendsPartialContent() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/file");
+        request.addHeader(HttpHeaders.RANGE, "bytes=2-5");
+
+        MockHttpServletResponse response = send(request);
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getContentAsString()).isEqualTo("2345");
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 2-5/10");
+    }
+
+    @Test
+    void answers416ForUnsatisfiableRange() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/file");
+        request.addHeader(HttpHeaders.RANGE, "bytes=20-");
+
+        MockHttpServletResponse response = send(request);
+
+        assertThat(response.getStatus()).isEqualTo(416);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes */10");
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void answers304WhenEtagMatches() throws Exception {
+        String etag = send(new MockHttpServletRequest("GET", "/file")).getHeader(HttpHeaders.ETAG);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/file");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"other\", " + etag);
+
+        MockHttpServletResponse response = send(request);
+
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void ignoresRangeWhenIfRangeIsStale() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/file");
+        request.addHeader(HttpHeaders.RANGE, "bytes=2-5");
+        request.addHeader(HttpHeaders.IF_RANGE, "\"stale\"");
+
+        MockHttpServletResponse response = send(request);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsString()).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void leavesBodyToSendfileWhenSupported() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/file");
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        request.addHeader(HttpHeaders.RANGE, "bytes=-4");
+
+        MockHttpServletResponse response = send(request);
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.start")).isEqualTo(6L);
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.end")).isEqualTo(10L);
+    }
+
+    @Test
+    void sendsNoBodyForHead() throws Exception {
+        MockHttpServletResponse response = send(new MockHttpServletRequest("HEAD", "/file"));
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentLengthLong()).isEqualTo(CONTENT.length());
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    private MockHttpServletResponse send(MockHttpServletRequest request) throws Exception {
+        Path file = dir.resolve("report.pdf");
+        if (!Files.exists(file)) {
+            Files.write(file, CONTENT.getBytes(StandardCharsets.US_ASCII));
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FileDownloadSupport.send(file, "application/pdf", "attachment", request, response);
+        return response;
+    }
+}
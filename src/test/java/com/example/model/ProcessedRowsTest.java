@@ -0,0 +1,133 @@
+package com.example.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProcessedRowsTest {
+
+    @Test
+    void roundTripsEveryColumn() {
+        List<ProcessedUser> source = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            boolean valid = i % 3 != 0;
+            source.add(user("Пользователь " + i + (i % 7 == 0 ? " Длинноеимя".repeat(i % 5) : ""),
+                    i % 11 == 0 ? null : LocalDate.of(1950, 1, 1).plusDays(i * 17L),
+                    i % 90, i % 12,
+                    valid ? "Ок" : "не ок",
+                    valid ? "" : "Некорректный формат даты: " + (i % 4)));
+        }
+        ProcessedRows.Builder builder = ProcessedRows.builder();
+        source.forEach(builder::add);
+        ProcessedRows rows = builder.build();
+
+        assertThat(rows.size()).isEqualTo(source.size());
+        assertThat(rows.getValidCount()).isEqualTo((int) source.stream().filter(u -> "Ок".equals(u.getStatus())).count());
+        int index = 0;
+        for (ProcessedRow row : rows) {
+            ProcessedUser expected = source.get(index++);
+            assertThat(row.getFullName().toString()).isEqualTo(expected.getFullName());
+            assertThat(row.getBirthDate()).isEqualTo(expected.getBirthDate());
+            assertThat(row.getAgeYears()).isEqualTo(expected.getAgeYears());
+            assertThat(row.getAgeMonths()).isEqualTo(expected.getAgeMonths());
+            assertThat(row.getStatus()).isEqualTo(expected.getStatus());
+            assertThat(row.getErrorDetails()).isEqualTo(expected.getErrorDetails());
+        }
+        assertThat(index).isEqualTo(source.size());
+    }
+
+    @Test
+    void storesNullTextAsEmptyAndKeepsEmptyName() {
+        ProcessedUser user = user(null, null, 0, 0, null, null);
+        ProcessedRows rows = ProcessedRows.builder().add(user).build();
+
+        ProcessedRows.Row row = rows.cursor();
+        assertThat(row.next()).isTrue();
+        assertThat(row.getFullName().length()).isZero();
+        assertThat(row.hasBirthDate()).isFalse();
+        assertThat(row.getBirthDate()).isNull();
+        assertThat(row.getStatus()).isEmpty();
+        assertThat(row.getErrorDetails()).isEmpty();
+        assertThat(row.next()).isFalse();
+    }
+
+    @Test
+    void cursorMovesToAnyRow() {
+        ProcessedRows.Builder builder = ProcessedRows.builder();
+        for (int i = 0; i < 50; i++) {
+            builder.add(user("Имя " + i, LocalDate.of(2000, 1, 1).plusDays(i), i, 0, "Ок", ""));
+        }
+        ProcessedRows rows = builder.build();
+
+        ProcessedRows.Row row = rows.cursor().moveTo(42);
+        assertThat(row.getIndex()).isEqualTo(42);
+        assertThat(row.getFullName().toString()).isEqualTo("Имя 42");
+        assertThat(row.getFullName().subSequence(0, 3).toString()).isEqualTo("Имя");
+        assertThat(row.getBirthEpochDay()).isEqualTo((int) LocalDate.of(2000, 1, 1).plusDays(42).toEpochDay());
+        assertThat(row.next()).isTrue();
+        assertThat(row.getAgeYears()).isEqualTo(43);
+
+        assertThatThrownBy(() -> rows.cursor().moveTo(50)).isInstanceOf(IndexOutOfBoundsException.class);
+        assertThatThrownBy(() -> rows.cursor().moveTo(-1)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    void copyOfSurvivesCursorMoves() {
+        ProcessedRows rows = ProcessedRows.builder()
+                .add(user("Первый", null, 1, 1, "Ок", ""))
+                .add(user("Второй", null, 2, 2, "не ок", "Отсутствует дата рождения"))
+                .build();
+
+        ProcessedRows.Row row = rows.cursor();
+        row.next();
+        ProcessedUser first = ProcessedUser.copyOf(row);
+        row.next();
+
+        assertThat(first.getFullName()).isEqualTo("Первый");
+        assertThat(first.getAgeYears()).isEqualTo(1);
+        assertThat(row.getFullName().toString()).isEqualTo("Второй");
+        assertThat(row.getErrorDetails()).isEqualTo("Отсутствует дата рождения");
+    }
+
+    @Test
+    void emptyHasNoRows() {
+        ProcessedRows rows = ProcessedRows.empty();
+
+        assertThat(rows.isEmpty()).isTrue();
+        assertThat(rows.cursor().next()).isFalse();
+        Iterator<ProcessedRow> iterator = rows.iterator();
+        assertThat(iterator.hasNext()).isFalse();
+        assertThatThrownBy(iterator::next).isInstanceOf(NoSuchElementException.class);
+    }
+
+    @Test
+    void sharesRepeatedTextThroughDictionary() {
+        ProcessedRows.Builder few = ProcessedRows.builder();
+        ProcessedRows.Builder many = ProcessedRows.builder();
+        for (int i = 0; i < 10_000; i++) {
+            few.add(user("Имя", null, 0, 0, "не ок", "Отсутствует дата рождения"));
+            many.add(user("Имя", null, 0, 0, "не ок", "Ошибка " + i));
+        }
+
+        assertThat(few.build().getMemoryFootprint()).isLessThan(many.build().getMemoryFootprint());
+    }
+
+    private static ProcessedUser user(String name, LocalDate birthDate, int years, int months,
+                                      String status, String error) {
+        ProcessedUser user = new ProcessedUser();
+        user.setFullName(name);
+        user.setBirthDate(birthDate);
+        user.setAgeYears(years);
+        user.setAgeMonths(months);
+        user.setStatus(status);
+        user.setErrorDetails(error);
+        return user;
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.service;
+
+import com.example.config.AppProperties;
+import com.example.model.FileProcessingTask;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContentIndexTest {
+    @TempDir
+    Path dir;
+
+    private final Clock clock = Clock.fixed(Instant.parse("2024-03-15T12:00:00Z"), ZoneId.of("UTC"));
+
+    private TaskRegistry registry;
+
+    @AfterEach
+    void closeRegistry() throws IOException {
+        registry.close();
+    }
+
+    @Test
+    void reusesCompletedTaskWithEveryConfiguredFormat() throws IOException {
+        ContentIndex index = open(List.of(AppProperties.Output.Format.XLSX, AppProperties.Output.Format.CSV));
+        String done = completedTask();
+        assertThat(index.claim("hash", done)).isNull();
+        Files.write(dir.resolve(AppProperties.Output.Format.XLSX.fileName(done)), new byte[1]);
+        Files.write(dir.resolve(AppProperties.Output.Format.CSV.fileName(done)), new byte[1]);
+
+        assertThat(index.claim("hash", UUID.randomUUID().toString())).isEqualTo(done);
+    }
+
+    @Test
+    void ignoresCompletedTaskMissingConfiguredFormat() throws IOException {
+        ContentIndex index = open(List.of(AppProperties.Output.Format.CSV));
+        String done = completedTask();
+        assertThat(index.claim("hash", done)).isNull();
+        Files.write(dir.resolve(AppProperties.Output.Format.XLSX.fileName(done)), new byte[1]);
+
+        assertThat(index.claim("hash", UUID.randomUUID().toString())).isNull();
+    }
+
+    @Test
+    void ignoresCompletedTaskFromEarlierReferenceDate() throws IOException {
+        ContentIndex index = open(List.of(AppProperties.Output.Format.XLSX));
+        String stale = completedTask(clock.instant().minus(Duration.ofDays(1)));
+        assertThat(index.claim("hash", stale)).isNull();
+        Files.write(dir.resolve(AppProperties.Output.Format.XLSX.fileName(stale)), new byte[1]);
+
+        String repeat = completedTask();
+        assertThat(index.claim("hash", repeat)).isNull();
+        Files.write(dir.resolve(AppProperties.Output.Format.XLSX.fileName(repeat)), new byte[1]);
+        assertThat(index.claim("hash", UUID.randomUUID().toString())).isEqualTo(repeat);
+    }
+
+    private ContentIndex open(List<AppProperties.Output.Format> formats) throws IOException {
+        AppProperties properties = new AppProperties();
+        properties.setUploadDir(dir.toString());
+        properties.getTasks().setStoreFile(dir.resolve("tasks.log").toString());
+        properties.getOutput().setFormats(formats);
+        registry = new TaskRegistry(properties, Jackson2ObjectMapperBuilder.json().build());
+        ContentIndex index = new ContentIndex(properties, registry, clock);
+        index.init();
+        return index;
+    }
+
+    private String completedTask() {
+        return completedTask(clock.instant());
+    }
+
+    private String completedTask(Instant createdDate) {
+        FileProcessingTask task = new FileProcessingTask();
+        task.setTaskId(UUID.randomUUID().toString());
+        task.setOriginalFilename("users.xlsx");
+        task.setStatus(FileProcessingTask.TaskStatus.COMPLETED);
+        task.setCreatedDate(createdDate);
+        registry.put(task);
+        return task.getTaskId();
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.service;
+
+import com.example.config.AppProperties;
+import com.example.model.FileProcessingTask;
+import com.example.model.ProcessedUser;
+import com.example.service.excel.SheetCell;
+import com.example.service.excel.SheetRow;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JobControlTest {
+
+    @Test
+    void stopsAfterRowLimit() {
+        JobControl control = start(3, 0, null);
+        for (int i = 0; i < 3; i++) {
+            control.checkRow(row(i, 1));
+        }
+
+        assertThatThrownBy(() -> control.checkRow(row(3, 1)))
+                .isInstanceOfSatisfying(JobStoppedException.class, e -> {
+                    assertThat(e.getStatus()).isEqualTo(FileProcessingTask.TaskStatus.FAILED);
+                    assertThat(e.getMessage()).isEqualTo("Файл превышает лимит в 3 строк");
+                });
+    }
+
+    @Test
+    void stopsAfterCellLimit() {
+        JobControl control = start(0, 5, null);
+        control.checkRow(row(0, 3));
+
+        assertThatThrownBy(() -> control.checkRow(row(1, 3)))
+                .isInstanceOfSatisfying(JobStoppedException.class, e ->
+                        assertThat(e.getMessage()).isEqualTo("Файл превышает лимит в 5 ячеек"));
+    }
+
+    @Test
+    void zeroLimitsMeanUnlimited() {
+        JobControl control = start(0, 0, Duration.ZERO);
+        for (int i = 0; i < 10_000; i++) {
+            control.checkRow(row(i, 10));
+        }
+        control.checkpoint();
+
+        assertThat(control.getStopReason()).isNull();
+    }
+
+    @Test
+    void timesOutAfterBudget() throws InterruptedException {
+        JobControl control = start(0, 0, Duration.ofMillis(1));
+        Thread.sleep(10);
+
+        assertThatThrownBy(control::checkpoint)
+                .isInstanceOfSatisfying(JobStoppedException.class, e ->
+                        assertThat(e.getStatus()).isEqualTo(FileProcessingTask.TaskStatus.TIMED_OUT));
+    }
+
+    @Test
+    void keepsFirstReasonUnlessAbandoned() {
+        JobControl control = start(1, 0, null);
+        control.cancel();
+
+        assertThatThrownBy(() -> control.checkRow(row(0, 1))).isInstanceOf(JobStoppedException.class);
+        assertThatThrownBy(() -> control.checkRow(row(1, 1)))
+                .isInstanceOfSatisfying(JobStoppedException.class, e ->
+                        assertThat(e.getStatus()).isEqualTo(FileProcessingTask.TaskStatus.CANCELLED));
+
+        control.abandon();
+        assertThat(control.getStopReason().isAbandoned()).isTrue();
+    }
+
+    @Test
+    void writerBackPressureNoticesCancel() {
+        JobControl control = JobControl.unlimited();
+        ResultWriterStage writer = new ResultWriterStage(List.of(), 1, control);
+        // писатель не запускается, поэтому очередь заполняется первой строкой
+        writer.start(task -> { });
+
+        assertThatThrownBy(() -> {
+            writer.accept(1, new ProcessedUser());
+            control.cancel();
+            writer.accept(2, new ProcessedUser());
+        }).isInstanceOfSatisfying(JobStoppedException.class, e ->
+                assertThat(e.getStatus()).isEqualTo(FileProcessingTask.TaskStatus.CANCELLED));
+    }
+
+    @Test
+    void chunkBackPressureNoticesCancel() throws InterruptedException {
+        JobControl control = JobControl.unlimited();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            ChunkedRowProcessor rows = new ChunkedRowProcessor(pool, 1, 1, row -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return new ProcessedUser();
+            }, (rowNum, user) -> { }, control);
+
+            assertThatThrownBy(() -> {
+                rows.add(row(1, 1));
+                control.cancel();
+                rows.add(row(2, 1));
+            }).isInstanceOfSatisfying(JobStoppedException.class, e ->
+                    assertThat(e.getStatus()).isEqualTo(FileProcessingTask.TaskStatus.CANCELLED));
+            rows.cancel();
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+        }
+    }
+
+    private static JobControl start(long maxRows, long maxCells, Duration maxDuration) {
+        AppProperties.Processing processing = new AppProperties.Processing();
+        processing.setMaxRows(maxRows);
+        processing.setMaxCells(maxCells);
+        processing.setMaxDuration(maxDuration);
+        return JobControl.start(processing);
+    }
+
+    private static SheetRow row(int rowNum, int cells) {
+        SheetRow row = new SheetRow(rowNum);
+        for (int column = 0; column < cells; column++) {
+            row.setCell(column, SheetCell.ofString("x"));
+        }
+        return row;
+    }
+}
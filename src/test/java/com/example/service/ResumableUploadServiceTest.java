@@ -0,0 +1,119 @@
+package com.example.service;
+
+import com.example.config.AppProperties;
+import com.example.model.ResumableUpload;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ResumableUploadServiceTest {
+    @TempDir
+    Path dir;
+
+    private ResumableUploadService service;
+
+    @BeforeEach
+    void setUp() {
+        AppProperties properties = new AppProperties();
+        properties.setUploadDir(dir.toString());
+        // завершение загрузки здесь не проверяется, обработчик файлов не нужен
+        service = new ResumableUploadService(properties, null, Jackson2ObjectMapperBuilder.json().build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.stop();
+    }
+
+    @Test
+    void mergesChunksInAnyOrder() throws IOException {
+        ResumableUpload upload = service.create("users.csv", 10);
+
+        service.writeChunk(upload.getUploadId(), 5, stream("56789"));
+        assertThat(ResumableUploadService.contiguousOffset(upload)).isZero();
+        service.writeChunk(upload.getUploadId(), 0, stream("01234"));
+
+        assertThat(ResumableUploadService.contiguousOffset(upload)).isEqualTo(10);
+        assertThat(ResumableUploadService.missingRanges(upload)).isEmpty();
+        assertThat(Files.readString(dir.resolve(upload.getUploadId() + "_users.csv"))).isEqualTo("0123456789");
+    }
+
+    @Test
+    void rejectsAbortAndCompleteWhileChunkIsWritten() throws Exception {
+        ResumableUpload upload = service.create("users.csv", 10);
+        String uploadId = upload.getUploadId();
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<ResumableUpload> write = CompletableFuture.supplyAsync(() -> {
+            try {
+                return service.writeChunk(uploadId, 0, blocking("0123456789", reading, release));
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertThat(reading.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> service.abort(uploadId)).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> service.complete(uploadId)).isInstanceOf(IllegalStateException.class);
+
+        release.countDown();
+        write.get(5, TimeUnit.SECONDS);
+        assertThat(ResumableUploadService.missingRanges(upload)).isEmpty();
+        service.abort(uploadId);
+        assertThatThrownBy(() -> service.get(uploadId)).isInstanceOf(FileNotFoundException.class);
+    }
+
+    @Test
+    void writeAfterAbortDoesNotRestoreManifest() throws IOException {
+        ResumableUpload upload = service.create("users.csv", 10);
+        String uploadId = upload.getUploadId();
+        service.abort(uploadId);
+
+        assertThatThrownBy(() -> service.writeChunk(uploadId, 0, stream("0123456789")))
+                .isInstanceOf(FileNotFoundException.class);
+        assertThat(dir.resolve(ResumableUploadService.MANIFEST_PREFIX + uploadId + ".json")).doesNotExist();
+        assertThat(dir.resolve(uploadId + "_users.csv")).doesNotExist();
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes());
+    }
+
+    /**
+     * Отдаёт первый байт, затем ждёт разрешения, как медленный клиент.
+     */
+    private static InputStream blocking(String content, CountDownLatch reading, CountDownLatch release) {
+        byte[] bytes = content.getBytes();
+        return new InputStream() {
+            private int position;
+
+            @Override
+            public int read() throws IOException {
+                if (position == 1) {
+                    reading.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        throw new IOException(e);
+                    }
+                }
+                return position < bytes.length ? bytes[position++] : -1;
+            }
+        };
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.service;
+
+import com.example.config.AppProperties;
+import com.example.model.FileProcessingTask;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SharedDirectoryTaskStoreTest {
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final List<SharedDirectoryTaskStore> opened = new CopyOnWriteArrayList<>();
+
+    @TempDir
+    Path dir;
+
+    @AfterEach
+    void stopStores() {
+        opened.forEach(SharedDirectoryTaskStore::stop);
+    }
+
+    @Test
+    void evictsOldestFinishedTasksInBackground() throws Exception {
+        SharedDirectoryTaskStore store = open(2);
+        List<String> evicted = new CopyOnWriteArrayList<>();
+        store.addRemovalListener(task -> evicted.add(task.getTaskId()));
+        FileProcessingTask running = task(FileProcessingTask.TaskStatus.PROCESSING, 1);
+        FileProcessingTask old = task(FileProcessingTask.TaskStatus.FAILED, 2);
+        FileProcessingTask newer = task(FileProcessingTask.TaskStatus.CANCELLED, 3);
+        store.put(running);
+        store.put(old);
+        store.put(newer);
+
+        assertThat(store.size()).isEqualTo(3);
+        store.start();
+        waitUntil(() -> store.size() == 2);
+
+        assertThat(evicted).containsExactly(old.getTaskId());
+        assertThat(store.get(running.getTaskId())).isNotNull();
+        assertThat(store.get(newer.getTaskId())).isNotNull();
+    }
+
+    @Test
+    void evictsTasksWrittenByOtherNode() throws Exception {
+        SharedDirectoryTaskStore other = open(100);
+        FileProcessingTask old = task(FileProcessingTask.TaskStatus.FAILED, 1);
+        other.put(old);
+        other.put(task(FileProcessingTask.TaskStatus.FAILED, 2));
+
+        SharedDirectoryTaskStore store = open(1);
+        store.start();
+        waitUntil(() -> store.size() == 1);
+
+        assertThat(store.get(old.getTaskId())).isNull();
+    }
+
+    private SharedDirectoryTaskStore open(int maxEntries) throws IOException {
+        AppProperties properties = new AppProperties();
+        properties.getCoordination().setDirectory(dir.toString());
+        properties.getCoordination().setHeartbeatInterval(Duration.ofMillis(100));
+        properties.getTasks().setMaxEntries(maxEntries);
+        SharedDirectoryTaskStore store = new SharedDirectoryTaskStore(properties, objectMapper);
+        opened.add(store);
+        return store;
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+    }
+
+    private static FileProcessingTask task(FileProcessingTask.TaskStatus status, long createdSecond) {
+        FileProcessingTask task = new FileProcessingTask();
+        task.setTaskId(UUID.randomUUID().toString());
+        task.setOriginalFilename("users.xlsx");
+        task.setStatus(status);
+        task.setCreatedDate(Instant.ofEpochSecond(1_700_000_000L + createdSecond));
+        return task;
+    }
+}
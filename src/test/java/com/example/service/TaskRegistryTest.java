@@ -0,0 +1,160 @@
+package com.example.service;
+
+import com.example.config.AppProperties;
+import com.example.model.FileProcessingTask;
+import com.example.model.ProcessedUser;
+import com.example.model.ResultSummary;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TaskRegistryTest {
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void restoresTasksAfterRestart() throws IOException {
+        TaskRegistry registry = open(100);
+        FileProcessingTask done = task("done", FileProcessingTask.TaskStatus.COMPLETED, 1);
+        done.setStageStatus(FileProcessingTask.Stage.PDF, FileProcessingTask.StageStatus.DONE);
+        done.setRowCounts(10, 7, 3);
+        done.setTiming(FileProcessingTask.Timing.XLSX, 42L);
+        ResultSummary.Builder summary = ResultSummary.builder();
+        ProcessedUser row = new ProcessedUser();
+        row.setStatus("Ок");
+        summary.add(row);
+        done.setSummary(summary.build());
+        registry.put(done);
+        registry.put(task("removed", FileProcessingTask.TaskStatus.FAILED, 2));
+        registry.remove("removed");
+        registry.close();
+
+        TaskRegistry reopened = open(100);
+
+        assertThat(reopened.get("removed")).isNull();
+        FileProcessingTask restored = reopened.get("done");
+        assertThat(restored.getStatus()).isEqualTo(FileProcessingTask.TaskStatus.COMPLETED);
+        assertThat(restored.isPdfReady()).isTrue();
+        assertThat(restored.getRowsRead()).isEqualTo(10);
+        assertThat(restored.getRowsValid()).isEqualTo(7);
+        assertThat(restored.getRowsFailed()).isEqualTo(3);
+        assertThat(restored.getTimings()).containsEntry(FileProcessingTask.Timing.XLSX, 42L);
+        assertThat(restored.getSummary().getRows()).isEqualTo(1);
+        assertThat(restored.getCreatedDate()).isEqualTo(done.getCreatedDate());
+        reopened.close();
+    }
+
+    @Test
+    void failsTasksInterruptedByRestart() throws IOException {
+        TaskRegistry registry = open(100);
+        FileProcessingTask processing = task("processing", FileProcessingTask.TaskStatus.PROCESSING, 1);
+        processing.setStageStatus(FileProcessingTask.Stage.PARSE, FileProcessingTask.StageStatus.DONE);
+        processing.setStageStatus(FileProcessingTask.Stage.XLSX, FileProcessingTask.StageStatus.RUNNING);
+        registry.put(processing);
+        FileProcessingTask pdfRunning = task("pdf", FileProcessingTask.TaskStatus.COMPLETED, 2);
+        pdfRunning.setStageStatus(FileProcessingTask.Stage.XLSX, FileProcessingTask.StageStatus.DONE);
+        pdfRunning.setStageStatus(FileProcessingTask.Stage.PDF, FileProcessingTask.StageStatus.RUNNING);
+        registry.put(pdfRunning);
+        registry.close();
+
+        TaskRegistry reopened = open(100);
+
+        FileProcessingTask failed = reopened.get("processing");
+        assertThat(failed.getStatus()).isEqualTo(FileProcessingTask.TaskStatus.FAILED);
+        assertThat(failed.getErrorDetails()).isEqualTo("Обработка прервана перезапуском приложения");
+        assertThat(failed.getStageStatus(FileProcessingTask.Stage.PARSE)).isEqualTo(FileProcessingTask.StageStatus.DONE);
+        assertThat(failed.getStageStatus(FileProcessingTask.Stage.XLSX)).isEqualTo(FileProcessingTask.StageStatus.FAILED);
+
+        FileProcessingTask completed = reopened.get("pdf");
+        assertThat(completed.getStatus()).isEqualTo(FileProcessingTask.TaskStatus.COMPLETED);
+        assertThat(completed.getStageStatus(FileProcessingTask.Stage.PDF)).isEqualTo(FileProcessingTask.StageStatus.FAILED);
+        assertThat(TaskStore.isFinished(completed)).isTrue();
+        reopened.close();
+    }
+
+    @Test
+    void compactsLogWhenDeadRecordsPileUp() throws IOException {
+        TaskRegistry registry = open(100);
+        FileProcessingTask task = task("busy", FileProcessingTask.TaskStatus.PROCESSING, 1);
+        registry.put(task);
+        for (int i = 0; i < 5000; i++) {
+            task.incrementRowsRead();
+            registry.save(task);
+        }
+
+        assertThat(Files.readAllLines(storeFile())).hasSizeLessThanOrEqualTo(1001);
+        registry.close();
+        assertThat(Files.readAllLines(storeFile())).hasSize(1);
+        TaskRegistry reopened = open(100);
+        assertThat(reopened.get("busy").getRowsRead()).isEqualTo(5000);
+        reopened.close();
+    }
+
+    @Test
+    void skipsTornLastRecord() throws IOException {
+        TaskRegistry registry = open(100);
+        registry.put(task("kept", FileProcessingTask.TaskStatus.FAILED, 1));
+        registry.close();
+        Files.write(storeFile(), "{\"taskId\":\"torn\",\"sta".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+
+        TaskRegistry reopened = open(100);
+
+        assertThat(reopened.size()).isEqualTo(1);
+        assertThat(reopened.get("kept")).isNotNull();
+        reopened.close();
+    }
+
+    @Test
+    void evictsOldestFinishedTasksOverLimit() throws IOException {
+        TaskRegistry registry = open(2);
+        List<String> evicted = new ArrayList<>();
+        registry.addRemovalListener(task -> evicted.add(task.getTaskId()));
+        registry.put(task("running", FileProcessingTask.TaskStatus.PROCESSING, 1));
+        registry.put(task("old", FileProcessingTask.TaskStatus.FAILED, 2));
+        registry.put(task("new", FileProcessingTask.TaskStatus.CANCELLED, 3));
+
+        assertThat(evicted).containsExactly("old");
+        assertThat(registry.get("running")).isNotNull();
+        assertThat(registry.get("new")).isNotNull();
+        registry.close();
+
+        TaskRegistry reopened = open(2);
+        assertThat(reopened.get("old")).isNull();
+        reopened.close();
+    }
+
+    private TaskRegistry open(int maxEntries) throws IOException {
+        AppProperties properties = new AppProperties();
+        properties.getTasks().setStoreFile(storeFile().toString());
+        properties.getTasks().setMaxEntries(maxEntries);
+        return new TaskRegistry(properties, objectMapper);
+    }
+
+    private Path storeFile() {
+        return dir.resolve("data").resolve("tasks.log");
+    }
+
+    private static FileProcessingTask task(String taskId, FileProcessingTask.TaskStatus status, long createdSecond) {
+        FileProcessingTask task = new FileProcessingTask();
+        task.setTaskId(taskId);
+        task.setOriginalFilename(taskId + ".xlsx");
+        task.setStatus(status);
+        task.setCreatedDate(Instant.ofEpochSecond(1_700_000_000L + createdSecond));
+        return task;
+    }
+}
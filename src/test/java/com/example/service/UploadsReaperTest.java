@@ -0,0 +1,107 @@
+package com.example.service;
+
+import com.example.config.AppProperties;
+import com.example.model.FileProcessingTask;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UploadsReaperTest {
+    @TempDir
+    Path dir;
+
+    private TaskRegistry registry;
+
+    @AfterEach
+    void closeRegistry() throws IOException {
+        registry.close();
+    }
+
+    @Test
+    void pendingResumableUploadDoesNotCountTowardsQuota() throws IOException {
+        UploadsReaper reaper = open(DataSize.ofKilobytes(64));
+        String finished = UUID.randomUUID().toString();
+        registry.put(task(finished));
+        Files.write(uploads().resolve(finished + "_users.xlsx"), new byte[1024]);
+        String pending = UUID.randomUUID().toString();
+        try (RandomAccessFile file = new RandomAccessFile(uploads().resolve(pending + "_big.xlsx").toFile(), "rw")) {
+            file.setLength(DataSize.ofMegabytes(1).toBytes());
+        }
+        Files.write(uploads().resolve(ResumableUploadService.MANIFEST_PREFIX + pending + ".json"), new byte[]{'{', '}'});
+
+        reaper.reap();
+
+        assertThat(registry.get(finished)).isNotNull();
+        assertThat(uploads().resolve(finished + "_users.xlsx")).exists();
+        assertThat(uploads().resolve(pending + "_big.xlsx")).exists();
+    }
+
+    @Test
+    void batchFilesDoNotCountTowardsQuota() throws IOException {
+        UploadsReaper reaper = open(DataSize.ofKilobytes(64));
+        String finished = UUID.randomUUID().toString();
+        registry.put(task(finished));
+        Files.write(uploads().resolve(finished + "_users.xlsx"), new byte[1024]);
+        String batchId = UUID.randomUUID().toString();
+        Files.write(uploads().resolve(BatchService.FILE_PREFIX + batchId + ".xlsx"), new byte[128 * 1024]);
+
+        reaper.reap();
+
+        assertThat(registry.get(finished)).isNotNull();
+        assertThat(uploads().resolve(BatchService.FILE_PREFIX + batchId + ".xlsx")).exists();
+    }
+
+    @Test
+    void evictsOldestFinishedTaskOverQuota() throws IOException {
+        UploadsReaper reaper = open(DataSize.ofKilobytes(1));
+        String old = UUID.randomUUID().toString();
+        FileProcessingTask oldTask = task(old);
+        oldTask.setCreatedDate(Instant.now().minusSeconds(60));
+        registry.put(oldTask);
+        Files.write(uploads().resolve(old + "_users.xlsx"), new byte[1024]);
+        String fresh = UUID.randomUUID().toString();
+        registry.put(task(fresh));
+        Files.write(uploads().resolve(fresh + "_users.xlsx"), new byte[512]);
+
+        reaper.reap();
+
+        assertThat(registry.get(old)).isNull();
+        assertThat(uploads().resolve(old + "_users.xlsx")).doesNotExist();
+        assertThat(registry.get(fresh)).isNotNull();
+    }
+
+    private UploadsReaper open(DataSize diskQuota) throws IOException {
+        AppProperties properties = new AppProperties();
+        properties.setUploadDir(Files.createDirectories(uploads()).toString());
+        properties.getTasks().setStoreFile(dir.resolve("tasks.log").toString());
+        properties.getTasks().setDiskQuota(diskQuota);
+        registry = new TaskRegistry(properties, Jackson2ObjectMapperBuilder.json().build());
+        UploadsReaper reaper = new UploadsReaper(properties, registry, new ProcessedDataCache(properties));
+        registry.addRemovalListener(task -> reaper.deleteArtifacts(task.getTaskId()));
+        return reaper;
+    }
+
+    private Path uploads() {
+        return dir.resolve("uploads");
+    }
+
+    private static FileProcessingTask task(String taskId) {
+        FileProcessingTask task = new FileProcessingTask();
+        task.setTaskId(taskId);
+        task.setOriginalFilename("users.xlsx");
+        task.setStatus(FileProcessingTask.TaskStatus.FAILED);
+        task.setCreatedDate(Instant.now());
+        return task;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.service.pdf;
+
+import com.example.config.AppProperties;
+import com.example.model.ProcessedUser;
+import com.example.model.ResultSummary;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PdfReportRendererTest {
+    private final AppProperties properties = new AppProperties();
+    private final ReportFonts fonts = new ReportFonts(properties);
+
+    @Test
+    void layoutEngineRendersCyrillic() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new PdfReportRenderer(properties, fonts).render(rows(), summary(), out);
+
+        String text = extractText(out.toByteArray());
+
+        assertThat(text).contains(PdfReportRenderer.REPORT_TITLE, "стр. 1", "ФИО", "Детализация",
+                "Иванов Иван", "Ёлкина Юлия", "Ок", "не ок", "Отсутствует дата рождения", "Всего строк: 2");
+    }
+
+    @Test
+    void htmlEngineRendersCyrillic() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new HtmlReportRenderer(fonts).render(rows(), summary(), out);
+
+        assertThat(extractText(out.toByteArray())).contains(PdfReportRenderer.REPORT_TITLE, "Иванов", "Ёлкина", "Частые ошибки");
+    }
+
+    private static List<ProcessedUser> rows() {
+        ProcessedUser valid = user("Иванов Иван", LocalDate.of(1990, 3, 7), "Ок", "");
+        ProcessedUser invalid = user("Ёлкина Юлия", null, "не ок", "Отсутствует дата рождения");
+        return List.of(valid, invalid);
+    }
+
+    private static ResultSummary summary() {
+        ResultSummary.Builder summary = ResultSummary.builder();
+        rows().forEach(summary::add);
+        return summary.build();
+    }
+
+    private static ProcessedUser user(String name, LocalDate birthDate, String status, String error) {
+        ProcessedUser user = new ProcessedUser();
+        user.setFullName(name);
+        user.setBirthDate(birthDate);
+        user.setAgeYears(34);
+        user.setAgeMonths(2);
+        user.setStatus(status);
+        user.setErrorDetails(error);
+        return user;
+    }
+
+    private static String extractText(byte[] pdf) throws IOException {
+        StringBuilder text = new StringBuilder();
+        try (PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdf)))) {
+            for (int page = 1; page <= document.getNumberOfPages(); page++) {
+                text.append(PdfTextExtractor.getTextFromPage(document.getPage(page))).append('\n');
+            }
+        }
+        return text.toString();
+    }
+}
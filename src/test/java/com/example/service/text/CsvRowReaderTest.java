@@ -0,0 +1,141 @@
+package com.example.service.text;
+
+import com.example.service.excel.SheetCell;
+import com.example.service.excel.SheetRow;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CsvRowReaderTest {
+    private static final int SNIFF_BYTES = 64 * 1024;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void unescapesDoubledQuotes() throws IOException {
+        List<SheetRow> rows = read("ФИО,Дата\r\n\"Иванов \"\"Ваня\"\"\",\"\"\"\"\r\n", StandardCharsets.UTF_8);
+
+        assertThat(text(rows.get(1), 0)).isEqualTo("Иванов \"Ваня\"");
+        assertThat(text(rows.get(1), 1)).isEqualTo("\"");
+    }
+
+    @Test
+    void keepsNewlinesInsideQuotes() throws IOException {
+        List<SheetRow> rows = read("ФИО,Дата\n\"Иванов\r\nИван\",01.01.2000\nПетров,02.02.2000\n", StandardCharsets.UTF_8);
+
+        assertThat(rows).hasSize(3);
+        assertThat(text(rows.get(1), 0)).isEqualTo("Иванов\r\nИван");
+        assertThat(text(rows.get(1), 1)).isEqualTo("01.01.2000");
+        assertThat(text(rows.get(2), 0)).isEqualTo("Петров");
+        assertThat(rows.get(2).getRowNum()).isEqualTo(2);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {";", "\t"})
+    void detectsDelimiterFromHeader(String delimiter) throws IOException {
+        String csv = String.join(delimiter, "ФИО", "Дата рождения", "Город") + "\n"
+                + String.join(delimiter, "Иванов, Иван", "01.01.2000", "") + "\n";
+
+        List<SheetRow> rows = read(csv, StandardCharsets.UTF_8);
+
+        assertThat(text(rows.get(0), 2)).isEqualTo("Город");
+        assertThat(text(rows.get(1), 0)).isEqualTo("Иванов, Иван");
+        assertThat(text(rows.get(1), 1)).isEqualTo("01.01.2000");
+        assertThat(rows.get(1).getCell(2)).isNull();
+    }
+
+    @Test
+    void skipsEmptyLinesAndRowsOfDelimiters() throws IOException {
+        List<SheetRow> rows = read("ФИО,Дата\n\n,,\nИванов,01.01.2000", StandardCharsets.UTF_8);
+
+        assertThat(rows).hasSize(2);
+        assertThat(text(rows.get(1), 0)).isEqualTo("Иванов");
+    }
+
+    @Test
+    void readsWindows1251() throws IOException {
+        Path file = write("ФИО;Дата рождения\r\nЁлкина Юлия;01.01.2000\r\n", CsvRowReader.WINDOWS_1251);
+
+        assertThat(CsvRowReader.detectCharset(file)).isEqualTo(CsvRowReader.WINDOWS_1251);
+        List<SheetRow> rows = read(file);
+        assertThat(text(rows.get(0), 1)).isEqualTo("Дата рождения");
+        assertThat(text(rows.get(1), 0)).isEqualTo("Ёлкина Юлия");
+    }
+
+    @Test
+    void detectsBom() throws IOException {
+        Path file = write("\uFEFFФИО,Дата\nИванов,01.01.2000\n", StandardCharsets.UTF_8);
+
+        assertThat(CsvRowReader.detectCharset(file)).isEqualTo(StandardCharsets.UTF_8);
+        assertThat(text(read(file).get(0), 0)).isEqualTo("ФИО");
+    }
+
+    @Test
+    void keepsUtf8WhenSniffBoundarySplitsCharacter() throws IOException {
+        StringBuilder csv = new StringBuilder("ФИО,Дата\n");
+        // буква "Я" занимает 2 байта: добиваем ASCII так, чтобы граница выборки пришлась на её середину
+        int asciiPadding = SNIFF_BYTES - csv.toString().getBytes(StandardCharsets.UTF_8).length - 1;
+        csv.append("x".repeat(asciiPadding)).append("Я,01.01.2000\n");
+        for (int i = 0; i < 100; i++) {
+            csv.append("Иванов ").append(i).append(",01.01.2000\n");
+        }
+        byte[] bytes = csv.toString().getBytes(StandardCharsets.UTF_8);
+        assertThat(bytes[SNIFF_BYTES - 1] & 0xE0).isEqualTo(0xC0);
+        Path file = dir.resolve("boundary.csv");
+        Files.write(file, bytes);
+
+        assertThat(CsvRowReader.detectCharset(file)).isEqualTo(StandardCharsets.UTF_8);
+        List<SheetRow> rows = read(file);
+        assertThat(text(rows.get(1), 0)).endsWith("xЯ");
+        assertThat(text(rows.get(101), 0)).isEqualTo("Иванов 99");
+    }
+
+    @Test
+    void fallsBackTo1251WhenSampleIsNotUtf8() throws IOException {
+        Path file = dir.resolve("broken.csv");
+        Files.write(file, new byte[]{'a', (byte) 0xC0, 'b', '\n'});
+
+        assertThat(CsvRowReader.detectCharset(file)).isEqualTo(CsvRowReader.WINDOWS_1251);
+    }
+
+    @Test
+    void rejectsUnclosedQuote() throws IOException {
+        Path file = write("ФИО,Дата\n\"Иванов,01.01.2000\n", StandardCharsets.UTF_8);
+
+        assertThatThrownBy(() -> read(file)).isInstanceOf(IOException.class);
+    }
+
+    private List<SheetRow> read(String content, Charset charset) throws IOException {
+        return read(write(content, charset));
+    }
+
+    private List<SheetRow> read(Path file) throws IOException {
+        List<SheetRow> rows = new ArrayList<>();
+        new CsvRowReader().read(file, rows::add);
+        return rows;
+    }
+
+    private Path write(String content, Charset charset) throws IOException {
+        Path file = Files.createTempFile(dir, "rows", ".csv");
+        Files.write(file, content.getBytes(charset));
+        return file;
+    }
+
+    private static String text(SheetRow row, int column) {
+        SheetCell cell = row.getCell(column);
+        return cell != null ? cell.toString() : null;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.service.text;
+
+import com.example.model.ProcessedUser;
+import com.example.service.excel.SheetRow;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CsvRowWriterTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void writesBomHeadersAndRfc4180Quotes() throws IOException {
+        String csv = write(user("Иванов, \"Ваня\"", LocalDate.of(2000, 1, 2), "Ок", ""));
+
+        assertThat(csv).startsWith("\uFEFFФИО,Дата рождения,");
+        assertThat(csv).endsWith("\r\n\"Иванов, \"\"Ваня\"\"\",2000-01-02,24,4,Ок,\r\n");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"=HYPERLINK(\"http://x\")", "+7 999", "-1+1", "@SUM(A1)", "\tтаб", "'уже"})
+    void prefixesFormulaLikeText(String name) throws IOException {
+        String csv = write(user(name, null, "не ок", "=1+1"));
+
+        String row = csv.substring(csv.indexOf("\r\n") + 2);
+        assertThat(row.startsWith("\"") ? row.substring(1) : row).startsWith("'" + name.charAt(0));
+        assertThat(row).contains(",'=1+1\r\n");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"=1+1", "-", "'", "''=x", "Иванов", "a,b", "=\"q\",r", "\rстрока"})
+    void readsBackTextAsWritten(String text) throws IOException {
+        Path file = dir.resolve("result.csv");
+        try (OutputStream out = Files.newOutputStream(file); CsvRowWriter writer = new CsvRowWriter(out)) {
+            writer.writeRow(user(text, null, "не ок", text));
+        }
+
+        List<SheetRow> rows = new ArrayList<>();
+        new CsvRowReader().read(file, rows::add);
+
+        assertThat(CsvRowWriter.unguard(rows.get(1).getCell(0).toString())).isEqualTo(text);
+        assertThat(CsvRowWriter.unguard(rows.get(1).getCell(5).toString())).isEqualTo(text);
+    }
+
+    private static String write(ProcessedUser user) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (CsvRowWriter writer = new CsvRowWriter(out)) {
+            writer.writeRow(user);
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static ProcessedUser user(String name, LocalDate birthDate, String status, String error) {
+        ProcessedUser user = new ProcessedUser();
+        user.setFullName(name);
+        user.setBirthDate(birthDate);
+        user.setAgeYears(24);
+        user.setAgeMonths(4);
+        user.setStatus(status);
+        user.setErrorDetails(error);
+        return user;
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.service.validation;
+
+import com.example.config.AppProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DateFormatParserTest {
+    private final DateFormatParser parser =
+            DateFormatParser.compile(new AppProperties.Validation().getDateFormats());
+
+    @ParameterizedTest
+    @CsvSource({
+            "1990-03-07, 19900307",
+            "07.03.1990, 19900307",
+            "7.3.1990,   19900307",
+            "07/03/1990, 19900307",
+            "2024-12-31, 20241231",
+            "31.12.2024, 20241231",
+            "1.1.2000,   20000101",
+            "01/01/2000, 20000101",
+    })
+    void parsesEveryConfiguredPattern(String text, int expected) {
+        assertThat(parser.parse(text)).isEqualTo(expected);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "29.02.2000, 20000229",
+            "29.02.2024, 20240229",
+            "2024-02-29, 20240229",
+            "29.02.1900, -1",
+            "29.02.2023, -1",
+            "2100-02-29, -1",
+            "28.02.2023, 20230228",
+    })
+    void acceptsFebruary29OnlyInLeapYears(String text, int expected) {
+        assertThat(parser.parse(text)).isEqualTo(expected);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"31.04.2020", "31.06.2020", "31.09.2020", "31.11.2020", "2020-04-31", "31/11/2020"})
+    void rejectsThe31stOfThirtyDayMonths(String text) {
+        assertThat(parser.parse(text)).isEqualTo(DateFormatParser.INVALID);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"30.04.2020", "31.05.2020", "31.12.2020"})
+    void acceptsLastDayOfMonth(String text) {
+        assertThat(parser.parse(text)).isNotEqualTo(DateFormatParser.INVALID);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"  1990-03-07", "1990-03-07  ", "\t07.03.1990\n", " 7.3.1990 "})
+    void trimsSurroundingWhitespace(String text) {
+        assertThat(parser.parse(text)).isEqualTo(19900307);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "   ", "1990-3-7", "07.03.90", "1990-03-07x", "07 .03.1990", "00.01.2000",
+            "01.00.2000", "01.13.2000", "32.01.2000", "07-03-1990", "1990/03/07", "abc", "07.03.19901"})
+    void rejectsMalformedText(String text) {
+        assertThat(parser.parse(text)).isEqualTo(DateFormatParser.INVALID);
+    }
+
+    @Test
+    void agreesWithLocalDateForEveryDay() {
+        DateTimeFormatter dotted = DateTimeFormatter.ofPattern("dd.MM.uuuu");
+        DateTimeFormatter iso = DateTimeFormatter.ISO_LOCAL_DATE;
+        for (LocalDate date = LocalDate.of(1896, 1, 1); date.getYear() < 2030; date = date.plusDays(1)) {
+            int expected = DateFormatParser.pack(date.getYear(), date.getMonthValue(), date.getDayOfMonth());
+            assertThat(parser.parse(date.format(dotted))).as(date.toString()).isEqualTo(expected);
+            assertThat(parser.parse(date.format(iso))).as(date.toString()).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void triesPatternsInOrder() {
+        DateFormatParser dayFirst = DateFormatParser.compile(List.of("dd/MM/yyyy", "MM/dd/yyyy"));
+        assertThat(dayFirst.parse("03/04/2020")).isEqualTo(20200403);
+        assertThat(dayFirst.parse("12/31/2020")).isEqualTo(20201231);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"yy-MM-dd", "yyyy-MM", "yyyy-MMM-dd", "yyyy-MM-dd HH", "dd.dd.yyyy"})
+    void rejectsUnsupportedPatterns(String pattern) {
+        assertThatThrownBy(() -> DateFormatParser.compile(List.of(pattern)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void requiresAtLeastOnePattern() {
+        assertThatThrownBy(() -> DateFormatParser.compile(List.of()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
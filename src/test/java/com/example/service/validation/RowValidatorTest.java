@@ -0,0 +1,150 @@
+package com.example.service.validation;
+
+import com.example.config.AppProperties;
+import com.example.model.ProcessedUser;
+import com.example.service.excel.SheetCell;
+import com.example.service.excel.SheetRow;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RowValidatorTest {
+    private static final ValidationRules RULES = new ValidationRules();
+
+    @ParameterizedTest
+    @CsvSource({
+            "2000-01-31, 2001-02-28",
+            "2000-02-29, 2024-02-28",
+            "2000-02-29, 2024-02-29",
+            "2000-02-29, 2023-03-01",
+            "2001-02-28, 2024-02-29",
+            "1999-04-30, 2024-04-29",
+            "1999-04-30, 2024-04-30",
+            "1999-12-31, 2024-12-30",
+            "1999-12-31, 2024-12-31",
+            "2000-03-31, 2024-04-30",
+            "2024-01-31, 2024-02-29",
+            "2024-02-29, 2024-02-29",
+    })
+    void ageMatchesPeriodBetweenAtMonthEnds(String birth, String reference) {
+        LocalDate birthDate = LocalDate.parse(birth);
+        LocalDate referenceDate = LocalDate.parse(reference);
+
+        ProcessedUser user = validatorAt(referenceDate).validate(row(1, "Иванов Иван", birth));
+
+        Period expected = Period.between(birthDate, referenceDate);
+        assertThat(user.getStatus()).isEqualTo("Ок");
+        assertThat(user.getBirthDate()).isEqualTo(birthDate);
+        assertThat(user.getAgeYears()).isEqualTo(expected.getYears());
+        assertThat(user.getAgeMonths()).isEqualTo(expected.getMonths());
+    }
+
+    @Test
+    void ageMatchesPeriodBetweenForEveryBirthday() {
+        List<LocalDate> references = List.of(LocalDate.of(2024, 2, 29), LocalDate.of(2023, 2, 28),
+                LocalDate.of(2024, 3, 31), LocalDate.of(2024, 4, 30), LocalDate.of(2024, 12, 31),
+                LocalDate.of(2024, 1, 1));
+        for (LocalDate reference : references) {
+            RowValidator validator = validatorAt(reference);
+            for (LocalDate birth = LocalDate.of(1999, 1, 1); !birth.isAfter(reference); birth = birth.plusDays(1)) {
+                ProcessedUser user = validator.validate(row(1, "Иванов Иван", birth.toString()));
+                long expected = Period.between(birth, reference).toTotalMonths();
+                assertThat(user.getAgeYears() * 12L + user.getAgeMonths())
+                        .as("%s на %s", birth, reference).isEqualTo(expected);
+            }
+        }
+    }
+
+    @Test
+    void rejectsFutureBirthDate() {
+        ProcessedUser user = validatorAt(LocalDate.of(2024, 5, 10)).validate(row(1, "Иванов Иван", "11.05.2024"));
+
+        assertThat(user.getStatus()).isEqualTo("не ок");
+        assertThat(user.getErrorDetails()).isEqualTo("Дата рождения в будущем");
+    }
+
+    @Test
+    void acceptsBirthDateEqualToReferenceDate() {
+        ProcessedUser user = validatorAt(LocalDate.of(2024, 5, 10)).validate(row(1, "Иванов Иван", "10.05.2024"));
+
+        assertThat(user.getStatus()).isEqualTo("Ок");
+        assertThat(user.getAgeYears()).isZero();
+        assertThat(user.getAgeMonths()).isZero();
+    }
+
+    @Test
+    void reportsInvalidAndMissingDates() {
+        RowValidator validator = validatorAt(LocalDate.of(2024, 5, 10));
+
+        ProcessedUser invalid = validator.validate(row(1, "Иванов Иван", "31.04.2020"));
+        assertThat(invalid.getStatus()).isEqualTo("не ок");
+        assertThat(invalid.getErrorDetails()).isEqualTo("Некорректный формат даты: 31.04.2020");
+        assertThat(invalid.getBirthDate()).isNull();
+
+        ProcessedUser missing = validator.validate(row(1, "Иванов Иван", null));
+        assertThat(missing.getErrorDetails()).isEqualTo("Отсутствует дата рождения");
+
+        ProcessedUser noName = validator.validate(row(1, null, "01.01.2000"));
+        assertThat(noName.getErrorDetails()).isEqualTo("Отсутствует ФИО");
+    }
+
+    @Test
+    void trimsNameAndDate() {
+        ProcessedUser user = validatorAt(LocalDate.of(2024, 5, 10)).validate(row(1, "  Иванов Иван ", " 01.01.2000 "));
+
+        assertThat(user.getStatus()).isEqualTo("Ок");
+        assertThat(user.getFullName()).isEqualTo("Иванов Иван");
+        assertThat(user.getBirthDate()).isEqualTo(LocalDate.of(2000, 1, 1));
+    }
+
+    @Test
+    void findsColumnsByHeader() {
+        RowValidatorFactory factory = factoryAt(LocalDate.of(2024, 5, 10));
+        SheetRow header = new SheetRow(0);
+        header.setCell(0, SheetCell.ofString("№"));
+        header.setCell(1, SheetCell.ofString(" дата  рождения "));
+        header.setCell(2, SheetCell.ofString("ФИО"));
+        RowValidator validator = factory.compile(header);
+
+        SheetRow row = new SheetRow(1);
+        row.setCell(0, SheetCell.ofString("1"));
+        row.setCell(1, SheetCell.ofString("2000-01-01"));
+        row.setCell(2, SheetCell.ofString("Иванов Иван"));
+        ProcessedUser user = validator.validate(row);
+
+        assertThat(validator.getColumns().getNameColumn()).isEqualTo(2);
+        assertThat(validator.getColumns().getBirthDateColumn()).isEqualTo(1);
+        assertThat(user.getStatus()).isEqualTo("Ок");
+        assertThat(user.getFullName()).isEqualTo("Иванов Иван");
+    }
+
+    private static RowValidator validatorAt(LocalDate referenceDate) {
+        return factoryAt(referenceDate).compile(null);
+    }
+
+    private static RowValidatorFactory factoryAt(LocalDate referenceDate) {
+        Clock clock = Clock.fixed(referenceDate.atStartOfDay(ZoneOffset.UTC).toInstant(), ZoneOffset.UTC);
+        List<ValidationRule> rules = List.of(RULES.fullNameRequired(), RULES.birthDateRequired(),
+                RULES.birthDateFormat(), RULES.birthDateNotInFuture());
+        return new RowValidatorFactory(new AppProperties.Validation(), rules, clock);
+    }
+
+    private static SheetRow row(int rowNum, String name, String birthDate) {
+        SheetRow row = new SheetRow(rowNum);
+        if (name != null) {
+            row.setCell(0, SheetCell.ofString(name));
+        }
+        if (birthDate != null) {
+            row.setCell(1, SheetCell.ofString(birthDate));
+        }
+        return row;
+    }
+}